@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Fires TOTAL analyze requests at CONCURRENCY in parallel and prints status
+# counts, throughput and latency percentiles. Needs curl 7.66 or later.
+#
+#   ./analyze-load.sh <resume-file> [concurrency] [total] [base-url]
+#
+# Identical concurrent prompts are coalesced into one Gemini call, so a .txt
+# resume is sent as a different copy per request (a numbered line appended).
+# Other formats are sent as-is; run the backend with
+# --gemini.coalesce.enabled=false for those. KEYS spreads the requests over
+# that many API keys (default 1, i.e. one shared rate-limit bucket).
+set -euo pipefail
+
+FILE=${1:?resume file required}
+CONCURRENCY=${2:-200}
+TOTAL=${3:-1000}
+BASE_URL=${4:-http://localhost:8084}
+KEYS=${KEYS:-1}
+
+OUT=$(mktemp)
+WORK=$(mktemp -d)
+trap 'rm -rf "$OUT" "$WORK"' EXIT
+
+if [[ "${FILE,,}" == *.txt ]]; then
+    for i in $(seq "$TOTAL"); do
+        { cat "$FILE"; printf '\nLoad test request %d\n' "$i"; } > "$WORK/resume-$i.txt"
+    done
+else
+    echo "note: $FILE is sent unchanged; disable gemini.coalesce.enabled or use a .txt resume" >&2
+fi
+
+# A few curl processes run every transfer (curl allows at most 300 at once each), so the
+# client does not fork per request and can hold thousands of requests open on a small host
+PROCESSES=$(( (CONCURRENCY + 299) / 300 ))
+for i in $(seq "$TOTAL"); do
+    upload=$FILE
+    [[ -f "$WORK/resume-$i.txt" ]] && upload="$WORK/resume-$i.txt"
+    transfers="$WORK/transfers-$((i % PROCESSES))"
+    # "next" separates transfers; a trailing one would start an empty transfer
+    [[ -s "$transfers" ]] && echo next >> "$transfers"
+    cat >> "$transfers" <<CONFIG
+url = "${BASE_URL}/api/resume/analyze"
+header = "X-Gemini-API-Key: load-test-$((i % KEYS))"
+form = "file=@${upload}"
+form = "roleId=backend"
+output = "/dev/null"
+write-out = "%{http_code} %{time_total}\\n"
+CONFIG
+done
+
+START=$(date +%s.%N)
+for p in $(seq 0 $((PROCESSES - 1))); do
+    curl -s --parallel --parallel-immediate --parallel-max $((CONCURRENCY / PROCESSES)) \
+        -K "$WORK/transfers-$p" > "$WORK/out-$p" 2> /dev/null &
+done
+wait
+END=$(date +%s.%N)
+cat "$WORK"/out-* > "$OUT"
+
+echo "requests:    $TOTAL (concurrency $CONCURRENCY, keys $KEYS)"
+echo "status:      $(cut -d' ' -f1 "$OUT" | sort | uniq -c | tr '\n' ' ')"
+awk -v n="$TOTAL" -v s="$START" -v e="$END" 'BEGIN { printf "throughput:  %.1f req/s\n", n / (e - s) }'
+cut -d' ' -f2 "$OUT" | sort -n | awk '{ t[NR] = $1 } END {
+    printf "latency:     p50 %.2fs  p95 %.2fs  p99 %.2fs  max %.2fs\n",
+        t[int(NR * 0.50)], t[int(NR * 0.95)], t[int(NR * 0.99)], t[NR] }'
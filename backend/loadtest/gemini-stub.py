@@ -0,0 +1,66 @@
+#!/usr/bin/env python3
+"""Minimal stand-in for the Gemini generateContent API used by the load test.
+
+Every POST sleeps for --delay seconds (simulating model latency) and returns a
+canned analysis, so the backend's thread model is measured without burning
+real Gemini quota. With --throttle, that fraction of calls is answered with
+429 and a Retry-After instead, to exercise the backend's retries.
+
+    python3 gemini-stub.py --port 9099 --delay 3 [--throttle 0.2]
+"""
+import argparse
+import json
+import random
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+ANALYSIS = {
+    "overallScore": 72,
+    "matchedSkills": {"technical": ["Java", "SQL"], "soft": ["Communication"], "nonTechnical": []},
+    "skillScores": {"Java": 80, "SQL": 70, "Communication": 75},
+    "missingSkills": {"technical": ["Docker"], "soft": [], "nonTechnical": []},
+    "extraSkills": [],
+    "criticalGaps": [{"skill": "Docker", "reason": "Stub", "learningUrl": "https://google.com/search?q=docker",
+                      "sourceName": "Google"}],
+    "roadmap": [{"title": "Phase 1", "duration": "2 Weeks", "tasks": ["Learn Docker"]}],
+    "resumeFeedback": {"score": 70, "strengths": ["Java"], "summary": "Stub", "missingKeywords": ["Docker"],
+                       "actionableFeedback": [{"type": "content", "tip": "Stub"}]},
+    "readinessLevel": "Mid",
+    "gapSummary": "Stub response",
+}
+
+
+class Handler(BaseHTTPRequestHandler):
+    delay = 3.0
+    throttle = 0.0
+
+    def do_POST(self):
+        self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        if random.random() < self.throttle:
+            self.send_response(429)
+            self.send_header("Retry-After", "1")
+            self.send_header("Content-Length", "0")
+            self.end_headers()
+            return
+        time.sleep(self.delay)
+        body = json.dumps({"candidates": [{"content": {"parts": [{"text": json.dumps(ANALYSIS)}]}}]}).encode()
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(body)))
+        self.end_headers()
+        self.wfile.write(body)
+
+    def log_message(self, *args):
+        pass
+
+
+if __name__ == "__main__":
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--port", type=int, default=9099)
+    parser.add_argument("--delay", type=float, default=3.0)
+    parser.add_argument("--throttle", type=float, default=0.0, help="fraction of calls answered with 429")
+    args = parser.parse_args()
+    Handler.delay = args.delay
+    Handler.throttle = args.throttle
+    ThreadingHTTPServer.request_queue_size = 4096
+    ThreadingHTTPServer(("0.0.0.0", args.port), Handler).serve_forever()
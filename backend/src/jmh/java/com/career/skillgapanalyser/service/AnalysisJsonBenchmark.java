@@ -0,0 +1,94 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON handling of a Gemini analysis answer: the single streaming pass in
+ * GeminiService from the model's JSON to the response DTO, plus the
+ * serialize/parse pair localization adds for non-English users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisJsonBenchmark {
+
+    private static final String MODEL_ANSWER = """
+            ```json
+            {
+              "domain": "backend",
+              "overallScore": 72,
+              "matchedSkills": {
+                "technical": ["Java", "Spring Boot", "SQL", "Docker", "REST APIs", "Git"],
+                "soft": ["Communication", "Teamwork"],
+                "nonTechnical": ["Agile"]
+              },
+              "skillScores": {"Java": 85, "Spring Boot": 78, "SQL": 70, "Docker": 60, "REST APIs": 75, "Git": 80,
+                "Communication": 90, "Teamwork": 85, "Agile": 70},
+              "missingSkills": {
+                "technical": ["Kubernetes", "AWS", "Kafka", "Redis"],
+                "soft": [],
+                "nonTechnical": ["System Design Reviews"]
+              },
+              "extraSkills": ["Python", "Bash", "Grafana"],
+              "explanations": {"Java": "Five years of Java services", "Kubernetes": "No orchestration experience"},
+              "criticalGaps": [
+                {"skill": "Kubernetes", "reason": "Deployment target", "learningUrl": "https://kubernetes.io/docs", "sourceName": "Kubernetes Docs"},
+                {"skill": "AWS", "reason": "Cloud platform", "learningUrl": "https://aws.amazon.com/training", "sourceName": "AWS"},
+                {"skill": "Kafka", "reason": "Event streaming", "learningUrl": "https://kafka.apache.org/documentation", "sourceName": "Apache"}
+              ],
+              "roadmap": [
+                {"title": "Phase 1: Containers", "duration": "2 Weeks", "tasks": ["Learn Kubernetes basics", "Deploy a service"]},
+                {"title": "Phase 2: Cloud", "duration": "4 Weeks", "tasks": ["AWS fundamentals", "IAM and networking"]},
+                {"title": "Phase 3: Streaming", "duration": "3 Weeks", "tasks": ["Kafka producers and consumers"]}
+              ],
+              "resumeFeedback": {
+                "score": 70,
+                "strengths": ["Java", "Spring Boot", "Testing"],
+                "summary": "Solid backend foundation, limited cloud exposure.",
+                "missingKeywords": ["Kubernetes", "AWS"],
+                "actionableFeedback": [{"type": "content", "tip": "Quantify the impact of your projects."}]
+              },
+              "readinessLevel": "Mid",
+              "gapSummary": "Strong core skills; cloud and streaming are the main gaps."
+            }
+            ```
+            """;
+
+    private GeminiService geminiService;
+
+    @Setup
+    public void setup() {
+        geminiService = new GeminiService(HttpClient.newHttpClient(),
+                new AnalysisMetrics(new SimpleMeterRegistry()), "http://localhost", 60000, 1, 1,
+                60, 10, 1, 1, 0, 0, 2048, true);
+    }
+
+    @Benchmark
+    public AnalysisResponse parseAnalysis() {
+        return geminiService.parseAnalysis(MODEL_ANSWER);
+    }
+
+    @Benchmark
+    public AnalysisResponse parseAnalysisLocalizedRoundTrip() {
+        AnalysisResponse response = geminiService.parseAnalysis(MODEL_ANSWER);
+        String json = JsonSupport.GSON.toJson(response);
+        return JsonSupport.GSON.fromJson(JsonSupport.stripCodeFence(json), AnalysisResponse.class);
+    }
+}
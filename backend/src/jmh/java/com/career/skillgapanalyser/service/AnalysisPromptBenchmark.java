@@ -0,0 +1,79 @@
+package com.career.skillgapanalyser.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full-text analysis prompt against the hybrid one built from the static
+ * evidence, for resumes of increasing size. Besides the build time, each
+ * benchmark reports the size of the prompt it built as the "promptTokens"
+ * counter (estimated the same way as the gemini.prompt.tokens metric).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisPromptBenchmark {
+
+    @Param({ "2000", "6000", "15000" })
+    public int resumeChars;
+
+    private GeminiService geminiService;
+    private SkillExtractor skillExtractor;
+    private SkillExtractor.SkillData.RoleDef blueprint;
+    private String blueprintJson;
+    private String resumeText;
+
+    /**
+     * Size of the last prompt built. Assigned, not summed, so with one
+     * benchmark thread the reported value is the size of one prompt.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PromptSize {
+        public long promptTokens;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        geminiService = new GeminiService(HttpClient.newHttpClient(),
+                new AnalysisMetrics(new SimpleMeterRegistry()), "http://localhost", 60000, 1, 1,
+                60, 10, 1, 1, 0, 0, 2048, true);
+        skillExtractor = new SkillExtractor("", false, 0, "", true, 0.7f, "");
+        skillExtractor.init();
+        blueprint = skillExtractor.getRoleDefinition("backend");
+        blueprintJson = geminiService.describeBlueprint(blueprint);
+        resumeText = ResumeCorpus.resumeText(ResumeCorpus.bundledCatalog(), resumeChars, 7);
+    }
+
+    @Benchmark
+    public String fullPrompt(PromptSize size) {
+        String prompt = geminiService.buildAnalysisPrompt(resumeText, "backend", blueprintJson);
+        size.promptTokens = AnalysisMetrics.estimateTokens(prompt.length());
+        return prompt;
+    }
+
+    @Benchmark
+    public String hybridPrompt(PromptSize size) {
+        ResumeEvidence evidence = skillExtractor.collectEvidence(resumeText, blueprint, 2, 40, 160);
+        String prompt = geminiService.buildHybridPrompt(evidence, resumeText.length(), "backend", blueprintJson);
+        size.promptTokens = AnalysisMetrics.estimateTokens(prompt.length());
+        return prompt;
+    }
+}
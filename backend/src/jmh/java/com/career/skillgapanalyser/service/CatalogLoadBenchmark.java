@@ -0,0 +1,58 @@
+package com.career.skillgapanalyser.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog startup for catalogs of increasing size: mapping the compiled
+ * file of a known version (a restart) against compiling the JSON (a new
+ * version). Run with -prof gc to compare the allocation of both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CatalogLoadBenchmark {
+
+    @Param({ "500", "5000", "50000" })
+    public int catalogSkills;
+
+    private String catalog;
+    private String compiledDirectory;
+
+    @Setup
+    public void setup() throws Exception {
+        catalog = ResumeCorpus.scaledCatalog(catalogSkills, 42).toString();
+        compiledDirectory = Files.createTempDirectory("catalog-bench").toString();
+        // Compiles the catalog into the directory once
+        new SkillExtractor(catalog, false, 0, compiledDirectory, false, 0.7f, "").init();
+    }
+
+    @Benchmark
+    public SkillExtractor mapCompiled() {
+        SkillExtractor skillExtractor = new SkillExtractor(catalog, false, 0, compiledDirectory, false, 0.7f, "");
+        skillExtractor.init();
+        return skillExtractor;
+    }
+
+    @Benchmark
+    public SkillExtractor compileJson() {
+        SkillExtractor skillExtractor = new SkillExtractor(catalog, false, 0, "", false, 0.7f, "");
+        skillExtractor.init();
+        return skillExtractor;
+    }
+}
@@ -0,0 +1,144 @@
+package com.career.skillgapanalyser.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic inputs for the benchmarks: resumes of a given size
+ * (as text, PDF and DOCX) and skills catalogs scaled up from the bundled one.
+ */
+final class ResumeCorpus {
+
+    private static final String[] FILLER = {
+            "designed", "implemented", "maintained", "services", "for", "the", "team", "with", "focus", "on",
+            "reliability", "and", "delivery", "customers", "across", "regions", "improved", "latency", "by",
+            "migrating", "legacy", "modules", "to", "a", "modern", "stack", "while", "mentoring", "engineers" };
+
+    private static final String[] HEADERS = { "SUMMARY", "EXPERIENCE", "PROJECTS", "EDUCATION", "SKILLS" };
+
+    private ResumeCorpus() {
+    }
+
+    /**
+     * @return ASCII resume text of roughly {@code chars} characters, one line
+     * per bullet, sprinkled with keywords of the given catalog
+     */
+    static String resumeText(SkillExtractor.SkillData catalog, int chars, long seed) {
+        Random random = new Random(seed);
+        List<String> keywords = new ArrayList<>();
+        for (SkillExtractor.SkillDef skill : catalog.skills) {
+            keywords.addAll(skill.keywords);
+        }
+
+        StringBuilder text = new StringBuilder(chars + 200);
+        text.append("Jane Doe - Software Engineer\n");
+        int section = 0;
+        while (text.length() < chars) {
+            if (random.nextInt(12) == 0) {
+                text.append('\n').append(HEADERS[section++ % HEADERS.length]).append('\n');
+            }
+            text.append("- ");
+            int words = 8 + random.nextInt(10);
+            for (int w = 0; w < words; w++) {
+                text.append(random.nextInt(6) == 0
+                        ? keywords.get(random.nextInt(keywords.size()))
+                        : FILLER[random.nextInt(FILLER.length)]);
+                text.append(w + 1 < words ? ' ' : '.');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    static byte[] pdf(String text) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            String[] lines = text.split("\n");
+            int line = 0;
+            while (line < lines.length) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 9);
+                    content.setLeading(12);
+                    content.newLineAtOffset(40, 750);
+                    for (int n = 0; n < 60 && line < lines.length; n++, line++) {
+                        content.showText(lines[line]);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    static byte[] docx(String text) throws IOException {
+        try (XWPFDocument document = new XWPFDocument()) {
+            for (String line : text.split("\n")) {
+                document.createParagraph().createRun().setText(line);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    static SkillExtractor.SkillData bundledCatalog() throws IOException {
+        try (InputStream is = ResumeCorpus.class.getResourceAsStream("/skills.json")) {
+            return JsonSupport.GSON.fromJson(new InputStreamReader(is, StandardCharsets.UTF_8),
+                    SkillExtractor.SkillData.class);
+        }
+    }
+
+    /**
+     * The bundled catalog plus synthetic skills and roles until it holds
+     * {@code skills} skills, written to a temp file for
+     * {@code skills.catalog.path}.
+     */
+    static Path scaledCatalog(int skills, long seed) throws IOException {
+        SkillExtractor.SkillData catalog = bundledCatalog();
+        Random random = new Random(seed);
+        for (int i = catalog.skills.size(); i < skills; i++) {
+            SkillExtractor.SkillDef skill = new SkillExtractor.SkillDef();
+            skill.name = "Skill" + i;
+            skill.type = "technical";
+            skill.keywords = List.of("skill" + i, "framework " + i, "sk" + i + "-lib");
+            catalog.skills.add(skill);
+        }
+
+        // Roughly one role per 10 skills, each requiring a random handful of them
+        LinkedHashMap<String, SkillExtractor.SkillData.RoleDef> roles = new LinkedHashMap<>(catalog.roles);
+        for (int r = roles.size(); r < skills / 10; r++) {
+            SkillExtractor.SkillData.RoleDef role = new SkillExtractor.SkillData.RoleDef();
+            for (int k = 0; k < 8; k++) {
+                role.tech.add(catalog.skills.get(random.nextInt(catalog.skills.size())).name);
+            }
+            role.aliases.add("synthetic role " + r);
+            roles.put("role-" + r, role);
+        }
+        catalog.roles = roles;
+
+        Path file = Files.createTempFile("skills-bench-", ".json");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, JsonSupport.GSON.toJson(catalog));
+        return file;
+    }
+}
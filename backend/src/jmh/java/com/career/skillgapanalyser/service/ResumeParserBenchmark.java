@@ -0,0 +1,65 @@
+package com.career.skillgapanalyser.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text extraction per format. The parser's text cache is disabled so every
+ * invocation really parses the document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResumeParserBenchmark {
+
+    @Param({ "pdf", "docx", "txt" })
+    public String format;
+
+    @Param({ "2000", "15000", "60000" })
+    public int resumeChars;
+
+    private ResumeParser resumeParser;
+    private String fileName;
+    private byte[] content;
+
+    @Setup
+    public void setup() throws Exception {
+        resumeParser = new ResumeParser(new AnalysisMetrics(new SimpleMeterRegistry()), 15000, 1048576, 0);
+        String text = ResumeCorpus.resumeText(ResumeCorpus.bundledCatalog(), resumeChars, 7);
+        fileName = "resume." + format;
+        content = switch (format) {
+            case "pdf" -> ResumeCorpus.pdf(text);
+            case "docx" -> ResumeCorpus.docx(text);
+            default -> text.getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    /**
+     * What the analysis path does: extraction bounded by the character budget.
+     */
+    @Benchmark
+    public String extractTextWithBudget() throws Exception {
+        return resumeParser.extractText(fileName, content, resumeParser.getMaxChars());
+    }
+
+    @Benchmark
+    public String extractTextFull() throws Exception {
+        return resumeParser.extractText(fileName, content, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,75 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.RoleRankingResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static analysis, role ranking and role lookup against catalogs of
+ * increasing size (about one role per 10 skills).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SkillExtractorBenchmark {
+
+    @Param({ "25", "500", "5000" })
+    public int catalogSkills;
+
+    @Param({ "2000", "15000" })
+    public int resumeChars;
+
+    private SkillExtractor skillExtractor;
+    private SkillExtractor.SkillData.RoleDef blueprint;
+    private String resumeText;
+
+    @Setup
+    public void setup() throws Exception {
+        Path catalog = ResumeCorpus.scaledCatalog(catalogSkills, 42);
+        skillExtractor = new SkillExtractor(catalog.toString(), false, 0, "", true, 0.7f, "");
+        skillExtractor.init();
+        blueprint = skillExtractor.getRoleDefinition("backend");
+        resumeText = ResumeCorpus.resumeText(ResumeCorpus.bundledCatalog(), resumeChars, 7);
+    }
+
+    @Benchmark
+    public AnalysisResponse analyze() {
+        return skillExtractor.analyze(resumeText, "backend", blueprint);
+    }
+
+    @Benchmark
+    public RoleRankingResponse rankRoles() {
+        return skillExtractor.rankRoles(resumeText, 5);
+    }
+
+    @Benchmark
+    public SkillExtractor.SkillData.RoleDef getRoleDefinitionExact() {
+        return skillExtractor.getRoleDefinition("Back-End");
+    }
+
+    @Benchmark
+    public SkillExtractor.SkillData.RoleDef getRoleDefinitionFuzzy() {
+        return skillExtractor.getRoleDefinition("Senior Backend Developer");
+    }
+
+    @Benchmark
+    public SkillExtractor.SkillData.RoleDef getRoleDefinitionMiss() {
+        return skillExtractor.getRoleDefinition("underwater basket weaving");
+    }
+}
@@ -0,0 +1,30 @@
+package com.career.skillgapanalyser.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class GeminiClientConfig {
+
+    /**
+     * Shared client for all Gemini calls. The JDK client pools connections,
+     * negotiates HTTP/2 and sends requests without holding a thread.
+     * In virtual-thread mode its response handling runs on virtual threads too.
+     */
+    @Bean
+    public HttpClient geminiHttpClient(@Value("${gemini.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
+    }
+}
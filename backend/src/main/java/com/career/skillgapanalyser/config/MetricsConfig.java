@@ -0,0 +1,95 @@
+package com.career.skillgapanalyser.config;
+
+import com.career.skillgapanalyser.service.AnalysisCache;
+import com.career.skillgapanalyser.service.AssessmentService;
+import com.career.skillgapanalyser.service.GeminiRateLimiter;
+import com.career.skillgapanalyser.service.GeminiService;
+import com.career.skillgapanalyser.service.InFlightLimiter;
+import com.career.skillgapanalyser.service.QuestionBank;
+import com.career.skillgapanalyser.service.SkillExtractor;
+import com.career.skillgapanalyser.service.TranslationMemory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges and counters read from state the services already keep (catalog
+ * size, cache hit counts, limiter queues), so they cost nothing per request.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder catalogMetrics(SkillExtractor skillExtractor) {
+        return registry -> {
+            Gauge.builder("catalog.skills", skillExtractor, SkillExtractor::getSkillCount)
+                    .description("Skills in the active catalog")
+                    .register(registry);
+            Gauge.builder("catalog.roles", skillExtractor, SkillExtractor::getRoleCount)
+                    .description("Role blueprints in the active catalog")
+                    .register(registry);
+            Gauge.builder("catalog.keywords", skillExtractor, SkillExtractor::getKeywordCount)
+                    .description("Keywords compiled into the matching automaton")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder analysisCacheMetrics(AnalysisCache analysisCache) {
+        return registry -> {
+            FunctionCounter.builder("analysis.cache", analysisCache, AnalysisCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("analysis.cache", analysisCache, AnalysisCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("analysis.cache.size", analysisCache, AnalysisCache::size)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder translationMemoryMetrics(TranslationMemory translationMemory) {
+        return registry -> Gauge.builder("translation.memory.size", translationMemory, TranslationMemory::size)
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder questionBankMetrics(AssessmentService assessmentService) {
+        QuestionBank questionBank = assessmentService.getQuestionBank();
+        return registry -> {
+            Gauge.builder("assessment.bank.questions", questionBank, QuestionBank::getQuestionCount)
+                    .register(registry);
+            Gauge.builder("assessment.bank.shelves", questionBank, bank -> bank.getShelves().size())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder geminiMetrics(GeminiService geminiService) {
+        GeminiRateLimiter rateLimiter = geminiService.getRateLimiter();
+        InFlightLimiter inFlightLimiter = geminiService.getInFlightLimiter();
+        return registry -> {
+            FunctionCounter.builder("gemini.ratelimit.acquired", rateLimiter, GeminiRateLimiter::getAcquiredCount)
+                    .register(registry);
+            FunctionCounter.builder("gemini.ratelimit.delayed", rateLimiter, GeminiRateLimiter::getDelayedCount)
+                    .description("Calls that had to wait for a rate-limit token")
+                    .register(registry);
+            FunctionCounter.builder("gemini.ratelimit.rejected", rateLimiter, GeminiRateLimiter::getRejectedCount)
+                    .register(registry);
+            Gauge.builder("gemini.ratelimit.queued", rateLimiter, GeminiRateLimiter::getQueued)
+                    .register(registry);
+            Gauge.builder("gemini.http.inflight", inFlightLimiter, InFlightLimiter::getInFlight)
+                    .register(registry);
+            Gauge.builder("gemini.http.queued", inFlightLimiter, InFlightLimiter::getQueued)
+                    .register(registry);
+            FunctionCounter.builder("gemini.coalesced", geminiService, GeminiService::getCoalescedCount)
+                    .description("Prompts answered by an identical call already in flight")
+                    .register(registry);
+            FunctionCounter.builder("gemini.retries", geminiService, GeminiService::getRetryCount)
+                    .register(registry);
+        };
+    }
+}
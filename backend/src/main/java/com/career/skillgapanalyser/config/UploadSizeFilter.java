@@ -0,0 +1,53 @@
+package com.career.skillgapanalyser.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The servlet multipart limits are sized for batch uploads of ZIP archives.
+ * Every other endpoint takes a single resume, so its multipart requests are
+ * held to {@code resume.max-request-bytes} here, before the container reads
+ * the body.
+ */
+@Component
+public class UploadSizeFilter extends OncePerRequestFilter {
+
+    private static final String BATCH_PATH = "/api/resume/batch";
+
+    private final long maxRequestBytes;
+
+    public UploadSizeFilter(@Value("${resume.max-request-bytes:5242880}") long maxRequestBytes) {
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")
+                || request.getRequestURI().startsWith(request.getContextPath() + BATCH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        // A chunked upload of unknown size could only be checked after reading it
+        if (length < 0) {
+            response.sendError(HttpServletResponse.SC_LENGTH_REQUIRED);
+            return;
+        }
+        if (length > maxRequestBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
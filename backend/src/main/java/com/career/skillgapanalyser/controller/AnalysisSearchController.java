@@ -0,0 +1,44 @@
+package com.career.skillgapanalyser.controller;
+
+import com.career.skillgapanalyser.dto.AnalysisSearchResponse;
+import com.career.skillgapanalyser.service.AnalysisStore;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/analyses")
+@CrossOrigin(origins = "*") // Allow frontend access
+public class AnalysisSearchController {
+
+    private final AnalysisStore analysisStore;
+
+    public AnalysisSearchController(AnalysisStore analysisStore) {
+        this.analysisStore = analysisStore;
+    }
+
+    /**
+     * Finds stored analyses by skill set, e.g.
+     * {@code q=Java AND Docker AND NOT Kubernetes, overallScore > 70}; see
+     * {@link AnalysisStore} for the query language.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<AnalysisSearchResponse> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+
+        if (!analysisStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(analysisStore.search(query, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.career.skillgapanalyser.controller;
+
+import com.career.skillgapanalyser.dto.BatchJobStatus;
+import com.career.skillgapanalyser.service.BatchAnalysisService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/resume/batch")
+@CrossOrigin(origins = "*") // Allow frontend access
+public class BatchController {
+
+    private final BatchAnalysisService batchAnalysisService;
+
+    @Value("${batch.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    public BatchController(BatchAnalysisService batchAnalysisService) {
+        this.batchAnalysisService = batchAnalysisService;
+    }
+
+    /**
+     * Accepts several resumes and/or ZIP archives and starts a background job.
+     * Poll {@link #status} or subscribe to {@link #stream} for results.
+     */
+    @PostMapping
+    public ResponseEntity<BatchJobStatus> submit(
+            @RequestParam("files") MultipartFile[] files,
+            @RequestParam(value = "roleId", defaultValue = "backend") String roleId,
+            @RequestHeader(value = "X-Gemini-API-Key", required = false) String apiKey) {
+
+        try {
+            List<BatchAnalysisService.BatchFile> batch = batchAnalysisService.collectFiles(files);
+            if (batch.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.accepted().body(batchAnalysisService.submit(batch, roleId, apiKey));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BatchJobStatus> status(
+            @PathVariable String jobId,
+            @RequestParam(value = "includeResults", defaultValue = "true") boolean includeResults) {
+
+        BatchJobStatus status = batchAnalysisService.getStatus(jobId, includeResults);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Server-Sent Events: one "result" event per finished resume followed by a
+     * "progress" event; the stream closes when the job completes.
+     */
+    @GetMapping(value = "/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        if (!batchAnalysisService.subscribe(jobId, new SseEventSink(emitter))) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
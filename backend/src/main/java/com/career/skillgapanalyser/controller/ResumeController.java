@@ -1,11 +1,15 @@
 package com.career.skillgapanalyser.controller;
 
 import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.RoleRankingResponse;
 import com.career.skillgapanalyser.service.ResumeService;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 
@@ -16,6 +20,12 @@ public class ResumeController {
 
     private final ResumeService resumeService;
 
+    @org.springframework.beans.factory.annotation.Value("${analysis.stream.timeout-ms:120000}")
+    private long streamTimeoutMs;
+
+    @org.springframework.beans.factory.annotation.Value("${resume.max-file-bytes:5242880}")
+    private long maxFileBytes;
+
     public ResumeController(ResumeService resumeService) {
         this.resumeService = resumeService;
     }
@@ -26,6 +36,9 @@ public class ResumeController {
             @RequestParam(value = "roleId", defaultValue = "backend") String roleId,
             @RequestHeader(value = "X-Gemini-API-Key", required = false) String apiKey) {
 
+        if (file.getSize() > maxFileBytes) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
         try {
             AnalysisResponse response = resumeService.analyzeResume(file, roleId, apiKey);
             return ResponseEntity.ok(response);
@@ -33,4 +46,46 @@ public class ResumeController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Scores the resume against every role of the catalog in one pass and
+     * returns the {@code top} best fitting ones.
+     */
+    @PostMapping("/rank-roles")
+    public ResponseEntity<RoleRankingResponse> rankRoles(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "top", defaultValue = "5") int top) {
+
+        if (file.getSize() > maxFileBytes) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            return ResponseEntity.ok(resumeService.rankRoles(file, top));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Server-Sent Events variant of {@link #analyze}: pushes text stats and
+     * static skills immediately, then AI sections as they arrive.
+     */
+    @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter analyzeStream(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "roleId", defaultValue = "backend") String roleId,
+            @RequestHeader(value = "X-Gemini-API-Key", required = false) String apiKey) {
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        if (file.getSize() > maxFileBytes) {
+            emitter.completeWithError(new IOException("File exceeds the limit of " + maxFileBytes + " bytes"));
+            return emitter;
+        }
+        try {
+            resumeService.streamAnalysis(file, roleId, apiKey, new SseEventSink(emitter));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
 }
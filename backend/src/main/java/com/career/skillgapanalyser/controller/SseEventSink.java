@@ -0,0 +1,44 @@
+package com.career.skillgapanalyser.controller;
+
+import com.career.skillgapanalyser.service.AnalysisEventSink;
+import com.google.gson.JsonElement;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Adapts an {@link SseEmitter} to the service-level event sink. Raw Gson
+ * sections are written as JSON text; DTOs go through the regular message
+ * converters.
+ */
+class SseEventSink implements AnalysisEventSink {
+
+    private final SseEmitter emitter;
+
+    SseEventSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(String event, Object data) {
+        try {
+            if (data instanceof JsonElement) {
+                emitter.send(SseEmitter.event().name(event).data(data.toString(), MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(SseEmitter.event().name(event).data(data));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter timed out; remaining events are dropped
+        }
+    }
+
+    @Override
+    public void complete() {
+        try {
+            emitter.complete();
+        } catch (IllegalStateException e) {
+            // Already completed
+        }
+    }
+}
@@ -13,6 +13,8 @@ public class AnalysisResponse {
     private int overallScore; // 0-100
     private java.util.Map<String, Integer> skillScores; // Explicit map for frontend
     private String aiError; // New field for error reporting
+    private String catalogVersion; // skills catalog the analysis was computed against
+    private String detectedLanguage; // ISO code of the resume's language, "und" if undetermined
 
     public AnalysisResponse() {
     }
@@ -20,6 +22,21 @@ public class AnalysisResponse {
     public AnalysisResponse(List<SkillDto> extracted, List<SkillDto> missing, List<CriticalGap> criticalGaps,
             List<RoadmapPhase> roadmap, ResumeFeedback resumeFeedback, String readinessLevel, String gapSummary,
             int overallScore, java.util.Map<String, Integer> skillScores, String aiError) {
+        this(extracted, missing, criticalGaps, roadmap, resumeFeedback, readinessLevel, gapSummary, overallScore,
+                skillScores, aiError, null);
+    }
+
+    public AnalysisResponse(List<SkillDto> extracted, List<SkillDto> missing, List<CriticalGap> criticalGaps,
+            List<RoadmapPhase> roadmap, ResumeFeedback resumeFeedback, String readinessLevel, String gapSummary,
+            int overallScore, java.util.Map<String, Integer> skillScores, String aiError, String catalogVersion) {
+        this(extracted, missing, criticalGaps, roadmap, resumeFeedback, readinessLevel, gapSummary, overallScore,
+                skillScores, aiError, catalogVersion, null);
+    }
+
+    public AnalysisResponse(List<SkillDto> extracted, List<SkillDto> missing, List<CriticalGap> criticalGaps,
+            List<RoadmapPhase> roadmap, ResumeFeedback resumeFeedback, String readinessLevel, String gapSummary,
+            int overallScore, java.util.Map<String, Integer> skillScores, String aiError, String catalogVersion,
+            String detectedLanguage) {
         this.extracted = extracted;
         this.missing = missing;
         this.criticalGaps = criticalGaps;
@@ -30,12 +47,33 @@ public class AnalysisResponse {
         this.overallScore = overallScore;
         this.skillScores = skillScores;
         this.aiError = aiError;
+        this.catalogVersion = catalogVersion;
+        this.detectedLanguage = detectedLanguage;
     }
 
     public static Builder builder() {
         return new Builder();
     }
 
+    /**
+     * @return a builder pre-filled with this response's values
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .extracted(extracted)
+                .missing(missing)
+                .criticalGaps(criticalGaps)
+                .roadmap(roadmap)
+                .resumeFeedback(resumeFeedback)
+                .readinessLevel(readinessLevel)
+                .gapSummary(gapSummary)
+                .overallScore(overallScore)
+                .skillScores(skillScores)
+                .aiError(aiError)
+                .catalogVersion(catalogVersion)
+                .detectedLanguage(detectedLanguage);
+    }
+
     public List<SkillDto> getExtracted() {
         return extracted;
     }
@@ -76,6 +114,14 @@ public class AnalysisResponse {
         return aiError;
     }
 
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public String getDetectedLanguage() {
+        return detectedLanguage;
+    }
+
     @Override
     public String toString() {
         return "AnalysisResponse{" +
@@ -86,6 +132,8 @@ public class AnalysisResponse {
                 ", resumeFeedback=" + resumeFeedback +
                 ", readinessLevel='" + readinessLevel + '\'' +
                 ", gapSummary='" + gapSummary + '\'' +
+                ", catalogVersion='" + catalogVersion + '\'' +
+                ", detectedLanguage='" + detectedLanguage + '\'' +
                 '}';
     }
 
@@ -100,6 +148,8 @@ public class AnalysisResponse {
         private int overallScore;
         private java.util.Map<String, Integer> skillScores;
         private String aiError;
+        private String catalogVersion;
+        private String detectedLanguage;
 
         public Builder extracted(List<SkillDto> extracted) {
             this.extracted = extracted;
@@ -159,9 +209,19 @@ public class AnalysisResponse {
             return this;
         }
 
+        public Builder catalogVersion(String catalogVersion) {
+            this.catalogVersion = catalogVersion;
+            return this;
+        }
+
+        public Builder detectedLanguage(String detectedLanguage) {
+            this.detectedLanguage = detectedLanguage;
+            return this;
+        }
+
         public AnalysisResponse build() {
             return new AnalysisResponse(extracted, missing, criticalGaps, roadmap, resumeFeedback, readinessLevel,
-                    gapSummary, overallScore, skillScores, aiError);
+                    gapSummary, overallScore, skillScores, aiError, catalogVersion, detectedLanguage);
         }
     }
 
@@ -0,0 +1,94 @@
+package com.career.skillgapanalyser.dto;
+
+import java.util.List;
+
+public class AnalysisSearchResponse {
+    private String query;
+    private int searched; // analyses in the store
+    private int total; // analyses matching the query
+    private List<StoredAnalysis> results; // most recent first, at most the requested limit
+
+    public AnalysisSearchResponse() {
+    }
+
+    public AnalysisSearchResponse(String query, int searched, int total, List<StoredAnalysis> results) {
+        this.query = query;
+        this.searched = searched;
+        this.total = total;
+        this.results = results;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public int getSearched() {
+        return searched;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public List<StoredAnalysis> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisSearchResponse{" +
+                "query='" + query + '\'' +
+                ", searched=" + searched +
+                ", total=" + total +
+                '}';
+    }
+
+    public static class StoredAnalysis {
+        private int id;
+        private long analyzedAt; // epoch millis
+        private String roleId;
+        private int overallScore; // 0-100
+        private List<SkillDto> extracted;
+
+        public StoredAnalysis() {
+        }
+
+        public StoredAnalysis(int id, long analyzedAt, String roleId, int overallScore, List<SkillDto> extracted) {
+            this.id = id;
+            this.analyzedAt = analyzedAt;
+            this.roleId = roleId;
+            this.overallScore = overallScore;
+            this.extracted = extracted;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public long getAnalyzedAt() {
+            return analyzedAt;
+        }
+
+        public String getRoleId() {
+            return roleId;
+        }
+
+        public int getOverallScore() {
+            return overallScore;
+        }
+
+        public List<SkillDto> getExtracted() {
+            return extracted;
+        }
+
+        @Override
+        public String toString() {
+            return "StoredAnalysis{" +
+                    "id=" + id +
+                    ", analyzedAt=" + analyzedAt +
+                    ", roleId='" + roleId + '\'' +
+                    ", overallScore=" + overallScore +
+                    '}';
+        }
+    }
+}
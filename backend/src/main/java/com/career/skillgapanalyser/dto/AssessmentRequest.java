@@ -7,4 +7,6 @@ import java.util.List;
 public class AssessmentRequest {
     private List<String> skills;
     private String role;
+    private String userId; // Client id of the browser; questions already served to it are not repeated
+    private String difficulty; // beginner | intermediate | advanced
 }
@@ -7,6 +7,8 @@ import java.util.List;
 public class AssessmentResponse {
     private String difficulty;
     private List<Question> questions;
+    private List<String> failedSkills; // Skills no questions could be generated for
+    private boolean partial; // true when failedSkills is not empty
 
     @Data
     public static class Question {
@@ -0,0 +1,116 @@
+package com.career.skillgapanalyser.dto;
+
+import java.util.List;
+
+public class BatchJobStatus {
+    private String jobId;
+    private String roleId;
+    private String state; // RUNNING | COMPLETED
+    private int total;
+    private int completed;
+    private int failed;
+    private List<BatchItemResult> results;
+
+    public BatchJobStatus() {
+    }
+
+    public BatchJobStatus(String jobId, String roleId, String state, int total, int completed, int failed,
+            List<BatchItemResult> results) {
+        this.jobId = jobId;
+        this.roleId = roleId;
+        this.state = state;
+        this.total = total;
+        this.completed = completed;
+        this.failed = failed;
+        this.results = results;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getRoleId() {
+        return roleId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResult> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchJobStatus{" +
+                "jobId='" + jobId + '\'' +
+                ", roleId='" + roleId + '\'' +
+                ", state='" + state + '\'' +
+                ", total=" + total +
+                ", completed=" + completed +
+                ", failed=" + failed +
+                '}';
+    }
+
+    public static class BatchItemResult {
+        private int index;
+        private String fileName;
+        private String status; // OK | FAILED
+        private AnalysisResponse analysis;
+        private String error;
+
+        public BatchItemResult() {
+        }
+
+        public BatchItemResult(int index, String fileName, String status, AnalysisResponse analysis, String error) {
+            this.index = index;
+            this.fileName = fileName;
+            this.status = status;
+            this.analysis = analysis;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public AnalysisResponse getAnalysis() {
+            return analysis;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "BatchItemResult{" +
+                    "index=" + index +
+                    ", fileName='" + fileName + '\'' +
+                    ", status='" + status + '\'' +
+                    ", error='" + error + '\'' +
+                    '}';
+        }
+    }
+}
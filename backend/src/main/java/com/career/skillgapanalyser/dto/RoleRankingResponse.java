@@ -0,0 +1,109 @@
+package com.career.skillgapanalyser.dto;
+
+import java.util.List;
+
+public class RoleRankingResponse {
+    private String catalogVersion;
+    private int rolesRanked; // catalog roles the resume was scored against
+    private List<SkillDto> extracted;
+    private List<RoleMatch> roles; // best fit first
+
+    public RoleRankingResponse() {
+    }
+
+    public RoleRankingResponse(String catalogVersion, int rolesRanked, List<SkillDto> extracted,
+            List<RoleMatch> roles) {
+        this.catalogVersion = catalogVersion;
+        this.rolesRanked = rolesRanked;
+        this.extracted = extracted;
+        this.roles = roles;
+    }
+
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public int getRolesRanked() {
+        return rolesRanked;
+    }
+
+    public List<SkillDto> getExtracted() {
+        return extracted;
+    }
+
+    public List<RoleMatch> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public String toString() {
+        return "RoleRankingResponse{" +
+                "catalogVersion='" + catalogVersion + '\'' +
+                ", rolesRanked=" + rolesRanked +
+                ", roles=" + roles +
+                '}';
+    }
+
+    public static class RoleMatch {
+        private String roleId;
+        private int score; // 0-100, as /api/resume/analyze scores this role
+        private int coverage; // 0-100, share of the role's requirements found
+        private int matchedCount;
+        private int requiredCount;
+        private String readinessLevel;
+        private List<SkillDto> missing;
+
+        public RoleMatch() {
+        }
+
+        public RoleMatch(String roleId, int score, int coverage, int matchedCount, int requiredCount,
+                String readinessLevel, List<SkillDto> missing) {
+            this.roleId = roleId;
+            this.score = score;
+            this.coverage = coverage;
+            this.matchedCount = matchedCount;
+            this.requiredCount = requiredCount;
+            this.readinessLevel = readinessLevel;
+            this.missing = missing;
+        }
+
+        public String getRoleId() {
+            return roleId;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getCoverage() {
+            return coverage;
+        }
+
+        public int getMatchedCount() {
+            return matchedCount;
+        }
+
+        public int getRequiredCount() {
+            return requiredCount;
+        }
+
+        public String getReadinessLevel() {
+            return readinessLevel;
+        }
+
+        public List<SkillDto> getMissing() {
+            return missing;
+        }
+
+        @Override
+        public String toString() {
+            return "RoleMatch{" +
+                    "roleId='" + roleId + '\'' +
+                    ", score=" + score +
+                    ", coverage=" + coverage +
+                    ", matchedCount=" + matchedCount +
+                    ", requiredCount=" + requiredCount +
+                    '}';
+        }
+    }
+}
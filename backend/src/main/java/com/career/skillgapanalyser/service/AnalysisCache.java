@@ -0,0 +1,103 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MODULE: Analysis Result Cache
+ * Content-addressed cache of finished analyses. The key is derived from the
+ * uploaded file bytes plus everything else that changes the result (role,
+ * response language, catalog version and whether the AI engine was used), so
+ * a re-upload of the same resume skips parsing and every Gemini round trip.
+ */
+@Service
+public class AnalysisCache {
+
+    private final boolean enabled;
+    private final AnalysisCacheStore store;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AnalysisCache(
+            @Value("${analysis.cache.enabled:true}") boolean enabled,
+            @Value("${analysis.cache.store:memory}") String storeType,
+            @Value("${analysis.cache.max-entries:500}") int maxEntries,
+            @Value("${analysis.cache.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${analysis.cache.dir:${java.io.tmpdir}/skill-gap-cache}") String directory) {
+        this.enabled = enabled;
+        long ttlMillis = ttlMinutes * 60_000L;
+        if ("disk".equalsIgnoreCase(storeType)) {
+            this.store = new DiskAnalysisCacheStore(Paths.get(directory), maxEntries, ttlMillis);
+        } else {
+            this.store = new InMemoryAnalysisCacheStore(maxEntries, ttlMillis);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Builds the cache key for an upload. The file hash makes the key
+     * independent of the original filename.
+     */
+    public String key(byte[] content, String roleId, String language, String catalogVersion, boolean aiEnabled) {
+        String composite = sha256(content) + "|" +
+                (roleId == null ? "" : roleId.trim().toLowerCase()) + "|" +
+                (language == null ? "" : language.toLowerCase()) + "|" +
+                catalogVersion + "|" +
+                (aiEnabled ? "ai" : "static");
+        return sha256(composite.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public AnalysisResponse get(String key) {
+        if (!enabled)
+            return null;
+        AnalysisResponse response = store.get(key);
+        if (response != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return response;
+    }
+
+    public void put(String key, AnalysisResponse response) {
+        // Responses carrying an AI error are degraded fallbacks; let the next upload retry the AI path
+        if (!enabled || response == null || response.getAiError() != null)
+            return;
+        store.put(key, response);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public void clear() {
+        store.clear();
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
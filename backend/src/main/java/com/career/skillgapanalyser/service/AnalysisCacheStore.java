@@ -0,0 +1,21 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+
+/**
+ * Storage backend for {@link AnalysisCache}. Implementations own their
+ * eviction policy (entry limit and time-to-live).
+ */
+public interface AnalysisCacheStore {
+
+    /**
+     * @return the stored response, or null if absent or expired
+     */
+    AnalysisResponse get(String key);
+
+    void put(String key, AnalysisResponse response);
+
+    int size();
+
+    void clear();
+}
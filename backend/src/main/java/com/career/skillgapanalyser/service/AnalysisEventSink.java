@@ -0,0 +1,16 @@
+package com.career.skillgapanalyser.service;
+
+/**
+ * Receiver for progressively produced analysis results (e.g. an SSE
+ * connection). Implementations must tolerate calls from any thread.
+ */
+public interface AnalysisEventSink {
+
+    /**
+     * @param event event name, e.g. "stats" or "roadmap"
+     * @param data  a DTO, or a Gson JsonElement for raw AI sections
+     */
+    void send(String event, Object data);
+
+    void complete();
+}
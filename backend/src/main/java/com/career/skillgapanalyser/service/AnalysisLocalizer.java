@@ -0,0 +1,180 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.SkillDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+/**
+ * MODULE: Response Localization
+ * Translates an analysis field by field instead of round-tripping the whole
+ * response through Gemini as JSON. The user-facing text fields are split
+ * into segments; segments the {@link TranslationMemory} already knows are
+ * filled from it, the rest are translated in batched calls and remembered.
+ * Identifiers, URLs, scores and metadata are never sent.
+ */
+@Service
+public class AnalysisLocalizer {
+
+    private final GeminiService geminiService;
+    private final TranslationMemory translationMemory;
+    private final AnalysisMetrics metrics;
+    private final int batchSize;
+
+    public AnalysisLocalizer(GeminiService geminiService, TranslationMemory translationMemory,
+            AnalysisMetrics metrics, @Value("${translation.batch-size:80}") int batchSize) {
+        this.geminiService = geminiService;
+        this.translationMemory = translationMemory;
+        this.metrics = metrics;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Completes with the localized response; segments whose translation
+     * failed stay in English.
+     */
+    public CompletableFuture<AnalysisResponse> localize(AnalysisResponse response, String language, String apiKey) {
+        Set<String> segments = new LinkedHashSet<>();
+        rewrite(response, segment -> {
+            if (isTranslatable(segment))
+                segments.add(segment);
+            return segment;
+        });
+
+        Map<String, String> translations = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (String segment : segments) {
+            String known = translationMemory.get(language, segment);
+            if (known != null) {
+                translations.put(segment, known);
+            } else {
+                unknown.add(segment);
+            }
+        }
+        metrics.recordTranslationMemory(language, translations.size(), unknown.size());
+        if (unknown.isEmpty())
+            return CompletableFuture.completedFuture(rewrite(response, s -> translations.getOrDefault(s, s)));
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int i = 0; i < unknown.size(); i += batchSize) {
+            List<String> batch = unknown.subList(i, Math.min(unknown.size(), i + batchSize));
+            batches.add(geminiService.translateSegmentsAsync(batch, language, apiKey)
+                    .thenAccept(translated -> {
+                        // Failures are counted by GeminiService, which knows whether the call or the answer failed
+                        if (translated == null)
+                            return;
+                        translationMemory.putAll(language, batch, translated);
+                        synchronized (translations) {
+                            for (int j = 0; j < batch.size(); j++) {
+                                translations.put(batch.get(j), translated.get(j));
+                            }
+                        }
+                    }));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    synchronized (translations) {
+                        return rewrite(response, s -> translations.getOrDefault(s, s));
+                    }
+                });
+    }
+
+    // Nothing to translate in numbers, URLs and the like
+    private static boolean isTranslatable(String segment) {
+        if (segment == null || segment.isBlank() || segment.startsWith("http://") || segment.startsWith("https://"))
+            return false;
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isLetter(segment.charAt(i)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Copies the response with {@code text} applied to every user-facing
+     * text field. Used both to collect the segments and to put the
+     * translations back, so the two always agree on what is translated.
+     */
+    static AnalysisResponse rewrite(AnalysisResponse response, UnaryOperator<String> text) {
+        AnalysisResponse.ResumeFeedback feedback = response.getResumeFeedback();
+        AnalysisResponse.ResumeFeedback localizedFeedback = null;
+        if (feedback != null) {
+            List<AnalysisResponse.ActionableTip> tips = null;
+            if (feedback.getActionableFeedback() != null) {
+                tips = new ArrayList<>();
+                for (AnalysisResponse.ActionableTip tip : feedback.getActionableFeedback()) {
+                    tips.add(tip == null ? null : new AnalysisResponse.ActionableTip(tip.getType(), apply(text, tip.getTip())));
+                }
+            }
+            localizedFeedback = AnalysisResponse.ResumeFeedback.builder()
+                    .score(feedback.getScore())
+                    .strengths(apply(text, feedback.getStrengths()))
+                    .summary(apply(text, feedback.getSummary()))
+                    .missingKeywords(apply(text, feedback.getMissingKeywords()))
+                    .actionableFeedback(tips)
+                    .build();
+        }
+
+        List<AnalysisResponse.CriticalGap> gaps = null;
+        if (response.getCriticalGaps() != null) {
+            gaps = new ArrayList<>();
+            for (AnalysisResponse.CriticalGap gap : response.getCriticalGaps()) {
+                gaps.add(gap == null ? null : new AnalysisResponse.CriticalGap(apply(text, gap.getSkill()),
+                        apply(text, gap.getReason()), gap.getLearningUrl(), gap.getSourceName()));
+            }
+        }
+
+        List<AnalysisResponse.RoadmapPhase> roadmap = null;
+        if (response.getRoadmap() != null) {
+            roadmap = new ArrayList<>();
+            for (AnalysisResponse.RoadmapPhase phase : response.getRoadmap()) {
+                roadmap.add(phase == null ? null : new AnalysisResponse.RoadmapPhase(apply(text, phase.getTitle()),
+                        apply(text, phase.getDuration()), apply(text, phase.getTasks())));
+            }
+        }
+
+        return response.toBuilder()
+                .extracted(skills(response.getExtracted(), text))
+                .missing(skills(response.getMissing(), text))
+                .criticalGaps(gaps)
+                .roadmap(roadmap)
+                .resumeFeedback(localizedFeedback)
+                .readinessLevel(apply(text, response.getReadinessLevel()))
+                .gapSummary(apply(text, response.getGapSummary()))
+                .build();
+    }
+
+    private static List<SkillDto> skills(List<SkillDto> skills, UnaryOperator<String> text) {
+        if (skills == null)
+            return null;
+        List<SkillDto> localized = new ArrayList<>(skills.size());
+        for (SkillDto skill : skills) {
+            localized.add(skill == null ? null
+                    : new SkillDto(apply(text, skill.getName()), skill.getType(), skill.getId(), skill.getScore()));
+        }
+        return localized;
+    }
+
+    private static String apply(UnaryOperator<String> text, String value) {
+        return value == null ? null : text.apply(value);
+    }
+
+    private static List<String> apply(UnaryOperator<String> text, List<String> values) {
+        if (values == null)
+            return null;
+        List<String> localized = new ArrayList<>(values.size());
+        for (String value : values) {
+            localized.add(apply(text, value));
+        }
+        return localized;
+    }
+}
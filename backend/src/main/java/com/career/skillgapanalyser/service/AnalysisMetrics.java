@@ -0,0 +1,169 @@
+package com.career.skillgapanalyser.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MODULE: Pipeline Metrics
+ * Timers and counters for each stage of the analysis pipeline, exposed
+ * through Actuator at /actuator/prometheus. Tag values are kept to a
+ * bounded set: roles are tagged with their catalog name ("dynamic" for
+ * roles outside the catalog) and languages with their ISO code.
+ */
+@Service
+public class AnalysisMetrics {
+
+    public static final String STAGE_TRANSLATE = "translate";
+    public static final String STAGE_ANALYZE = "analyze";
+    public static final String STAGE_LOCALIZE = "localize";
+    public static final String STAGE_ASSESSMENT = "assessment";
+    public static final String STAGE_GENERATE = "generate";
+
+    private final MeterRegistry registry;
+
+    public AnalysisMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * One text extraction, per file format.
+     */
+    public void recordParse(Timer.Sample sample, String format, boolean success) {
+        sample.stop(registry.timer("resume.parse", "format", format, "outcome", success ? "success" : "error"));
+    }
+
+    public void recordTextCache(boolean hit) {
+        registry.counter("resume.parse.text.cache", "result", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * One HTTP attempt against Gemini, including the wait for a rate-limit
+     * token and a connection slot.
+     *
+     * @param status HTTP status code, or "none" when no response arrived
+     */
+    public void recordGeminiCall(long nanos, String stage, String outcome, String status) {
+        registry.timer("gemini.requests", "stage", stage, "outcome", outcome, "status", status)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time one Gemini call waited for a rate-limit token, zero when none was
+     * needed, so averages and percentiles cover every call.
+     */
+    public void recordRateLimitWait(long nanos) {
+        registry.timer("gemini.ratelimit.wait").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gemini answered but the answer could not be used.
+     */
+    public void recordGeminiParseFailure(String stage) {
+        registry.counter("gemini.parse.failures", "stage", stage).increment();
+    }
+
+    /**
+     * One resume analysis from extracted text to response.
+     *
+     * @param mode    "ai" or "static"
+     * @param outcome "success", "fallback" or "empty"
+     */
+    public void recordAnalysis(Timer.Sample sample, String role, String language, String mode, String outcome) {
+        sample.stop(registry.timer("analysis.requests", "role", role, "language", languageTag(language),
+                "mode", mode, "outcome", outcome));
+    }
+
+    /**
+     * The AI pipeline failed and the static SkillExtractor result was served.
+     *
+     * @param reason "timeout", "error" or "no_result"
+     */
+    public void recordFallback(String role, String language, String reason) {
+        Counter.builder("analysis.fallbacks")
+                .tags("role", role, "language", languageTag(language), "reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * @param outcome "bank" (no Gemini call on the request path), "generated",
+     *                "partial" (some skills failed) or "error"
+     */
+    public void recordAssessment(Timer.Sample sample, String language, String outcome) {
+        sample.stop(registry.timer("assessment.generate", "language", languageTag(language), "outcome", outcome));
+    }
+
+    /**
+     * Size of one analysis prompt in estimated tokens (about four characters
+     * each). For a hybrid prompt {@code fullChars} is the size the full-text
+     * prompt would have had, so the saving is recorded next to the cost.
+     *
+     * @param prompt "full" or "hybrid"
+     */
+    public void recordAnalysisPrompt(String prompt, int chars, int fullChars) {
+        DistributionSummary.builder("gemini.prompt.tokens")
+                .tags("prompt", prompt)
+                .baseUnit("tokens")
+                .register(registry)
+                .record(estimateTokens(chars));
+        if (fullChars > chars) {
+            DistributionSummary.builder("gemini.prompt.tokens.saved")
+                    .baseUnit("tokens")
+                    .register(registry)
+                    .record(estimateTokens(fullChars - chars));
+        }
+    }
+
+    static int estimateTokens(int chars) {
+        return (chars + 3) / 4;
+    }
+
+    /**
+     * Language detected in an analyzed resume, and whether parts of it had
+     * to be translated to English.
+     */
+    public void recordDetectedLanguage(String language, boolean translated) {
+        registry.counter("resume.language", "language", languageTag(language),
+                "translated", String.valueOf(translated)).increment();
+    }
+
+    /**
+     * Segments of one localized response found in the translation memory
+     * and segments that had to be sent to Gemini.
+     */
+    public void recordTranslationMemory(String language, int hits, int misses) {
+        registry.counter("translation.memory.segments", "language", languageTag(language), "result", "hit")
+                .increment(hits);
+        registry.counter("translation.memory.segments", "language", languageTag(language), "result", "miss")
+                .increment(misses);
+    }
+
+    /**
+     * One skill of an assessment: served from the question bank, or the
+     * bank had nothing new for the user.
+     */
+    public void recordQuestionBank(boolean hit) {
+        registry.counter("assessment.bank.lookups", "result", hit ? "hit" : "miss").increment();
+    }
+
+    // Same shape LanguageController accepts; anything else is folded into "other"
+    static String languageTag(String language) {
+        if (language == null)
+            return "other";
+        String tag = language.toLowerCase();
+        return tag.matches("[a-z]{2,5}") ? tag : "other";
+    }
+}
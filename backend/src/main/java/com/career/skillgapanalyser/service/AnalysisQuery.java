@@ -0,0 +1,152 @@
+package com.career.skillgapanalyser.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MODULE: Analysis Query Parser
+ * Parses the search language of {@link AnalysisStore}: clauses joined by
+ * {@code AND} or commas, all of which must hold.
+ * - {@code Java}, {@code Spring Boot}, {@code "CI/CD"}: the skill was
+ *   extracted (names are matched case-insensitively)
+ * - {@code Docker OR Podman}: any of the skills was extracted
+ * - {@code NOT Kubernetes}, {@code NOT Helm OR Kubernetes}: none was
+ * - {@code overallScore > 70} (also {@code >=}, {@code <}, {@code <=},
+ *   {@code =}): a bound on the overall score
+ * - {@code role = backend}: analyzed for that role
+ * Operators are upper case, so "and" inside a skill name is part of it.
+ *
+ * Example: {@code Java AND Docker AND NOT Kubernetes, overallScore > 70}
+ */
+final class AnalysisQuery {
+
+    // Each clause: any of the skill keys
+    final List<List<String>> required = new ArrayList<>();
+    final List<List<String>> excluded = new ArrayList<>();
+    String role;
+    int minScore = 0;
+    int maxScore = 100;
+
+    private AnalysisQuery() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the query is empty or malformed
+     */
+    static AnalysisQuery parse(String query) {
+        if (query == null || query.isBlank())
+            throw new IllegalArgumentException("Empty query");
+        AnalysisQuery parsed = new AnalysisQuery();
+        List<String> clause = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            if (token.equals(",") || token.equals("AND")) {
+                parsed.addClause(clause);
+                clause.clear();
+            } else {
+                clause.add(token);
+            }
+        }
+        parsed.addClause(clause);
+        if (parsed.minScore > parsed.maxScore)
+            throw new IllegalArgumentException("No overall score satisfies " + query);
+        return parsed;
+    }
+
+    /**
+     * @return the key a skill name is indexed and looked up by
+     */
+    static String key(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private void addClause(List<String> tokens) {
+        if (tokens.isEmpty())
+            throw new IllegalArgumentException("Empty clause");
+        String first = tokens.get(0).toLowerCase(Locale.ROOT);
+        if (first.equals("overallscore") || first.equals("score")) {
+            addScoreBound(tokens);
+        } else if (first.equals("role") && tokens.size() >= 3 && tokens.get(1).equals("=")) {
+            if (role != null)
+                throw new IllegalArgumentException("Only one role can be required");
+            role = words(tokens, 2, tokens.size());
+        } else if (tokens.get(0).equals("NOT")) {
+            excluded.add(alternatives(tokens, 1));
+        } else {
+            required.add(alternatives(tokens, 0));
+        }
+    }
+
+    private void addScoreBound(List<String> tokens) {
+        if (tokens.size() != 3)
+            throw new IllegalArgumentException("Expected overallScore <op> <number>, got " + String.join(" ", tokens));
+        int value;
+        try {
+            value = Integer.parseInt(tokens.get(2));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a score: " + tokens.get(2));
+        }
+        switch (tokens.get(1)) {
+            case ">" -> minScore = Math.max(minScore, value + 1);
+            case ">=" -> minScore = Math.max(minScore, value);
+            case "<" -> maxScore = Math.min(maxScore, value - 1);
+            case "<=" -> maxScore = Math.min(maxScore, value);
+            case "=" -> {
+                minScore = Math.max(minScore, value);
+                maxScore = Math.min(maxScore, value);
+            }
+            default -> throw new IllegalArgumentException("Unknown comparison: " + tokens.get(1));
+        }
+    }
+
+    private static List<String> alternatives(List<String> tokens, int from) {
+        List<String> keys = new ArrayList<>();
+        int start = from;
+        for (int i = from; i <= tokens.size(); i++) {
+            if (i == tokens.size() || tokens.get(i).equals("OR")) {
+                keys.add(words(tokens, start, i));
+                start = i + 1;
+            }
+        }
+        return keys;
+    }
+
+    private static String words(List<String> tokens, int from, int to) {
+        if (from >= to)
+            throw new IllegalArgumentException("Missing skill name in " + String.join(" ", tokens));
+        return key(String.join(" ", tokens.subList(from, to)));
+    }
+
+    // Words, quoted strings (quotes removed), commas and comparison operators
+    private static List<String> tokenize(String query) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end < 0)
+                    throw new IllegalArgumentException("Unterminated quote in " + query);
+                tokens.add(query.substring(i + 1, end));
+                i = end + 1;
+            } else if (c == ',') {
+                tokens.add(",");
+                i++;
+            } else if (c == '<' || c == '>' || c == '=') {
+                boolean orEqual = c != '=' && i + 1 < query.length() && query.charAt(i + 1) == '=';
+                tokens.add(orEqual ? c + "=" : String.valueOf(c));
+                i += orEqual ? 2 : 1;
+            } else {
+                int end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end))
+                        && ",<>=\"".indexOf(query.charAt(end)) < 0)
+                    end++;
+                tokens.add(query.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,188 @@
+package com.career.skillgapanalyser.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * MODULE: Analysis Scratch
+ * Everything one static analysis computes before its response is built,
+ * kept in primitive arrays indexed by skill id and reused from one analysis
+ * to the next: the section layout of the resume, the found skills as a
+ * bitset, per found skill its mention counts by section and the dated
+ * entries mentioning it, and the scored results in output order. Once its
+ * arrays have grown to the catalog and the largest resume seen, an analysis
+ * allocates nothing until the response DTOs are materialized.
+ *
+ * Used by one analysis at a time; {@link SkillExtractor} pools instances.
+ */
+final class AnalysisScratch implements KeywordAutomaton.MatchListener {
+
+    private static final int KINDS = SkillScorer.KINDS;
+    private static final int EXPERIENCE = ResumeSegmenter.Kind.EXPERIENCE.ordinal();
+    private static final int PROJECTS = ResumeSegmenter.Kind.PROJECTS.ordinal();
+
+    final ResumeSegmenter.Layout layout = new ResumeSegmenter.Layout();
+    final SemanticSkillIndex.Scratch semantic = new SemanticSkillIndex.Scratch();
+    final BitSet found = new BitSet();
+
+    private RoleIndex roleIndex;
+
+    // Per skill id: the slot of its mentions, valid when stamps[id] == generation
+    private int[] stamps = new int[0];
+    private int[] slots = new int[0];
+    private int generation;
+
+    // Per slot: mention counts by section kind at [slot * KINDS], dated entries as a bitset of range
+    // indexes at [slot * rangeWords]
+    private int slotCount;
+    private int[] mentions = new int[16 * KINDS];
+    private int rangeWords;
+    private long[] ranges = new long[16];
+
+    // Found skills in output order: skill id, catalog index named in the response, score
+    private int resultCount;
+    private int[] resultIds = new int[16];
+    private int[] resultCatalogIndexes = new int[16];
+    private int[] resultScores = new int[16];
+
+    /**
+     * Segments the resume and forgets the previous analysis.
+     */
+    void begin(RoleIndex roleIndex, CharSequence resumeText) {
+        this.roleIndex = roleIndex;
+        int skillCount = roleIndex.getSkillCount();
+        if (stamps.length < skillCount) {
+            stamps = new int[skillCount];
+            slots = new int[skillCount];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        found.clear();
+        slotCount = 0;
+        resultCount = 0;
+        layout.segment(resumeText);
+        rangeWords = (layout.getRangeCount() + 63) >>> 6;
+    }
+
+    /**
+     * Notes a keyword match of the automaton's scan.
+     */
+    @Override
+    public void onMatch(int skillIndex, int keywordIndex, int start, int end) {
+        int skillId = roleIndex.skillIdOf(skillIndex);
+        int slot;
+        if (stamps[skillId] == generation) {
+            slot = slots[skillId];
+        } else {
+            slot = newSlot();
+            stamps[skillId] = generation;
+            slots[skillId] = slot;
+            found.set(skillId);
+        }
+
+        int section = layout.sectionAt(start);
+        int kind = layout.getKindOrdinal(section);
+        mentions[slot * KINDS + kind]++;
+        if (kind != EXPERIENCE && kind != PROJECTS)
+            return;
+        int range = layout.rangeAt(section, start);
+        if (range >= 0)
+            ranges[slot * rangeWords + (range >>> 6)] |= 1L << range;
+    }
+
+    private int newSlot() {
+        int slot = slotCount++;
+        if (slotCount * KINDS > mentions.length)
+            mentions = Arrays.copyOf(mentions, 2 * mentions.length);
+        if (slotCount * rangeWords > ranges.length)
+            ranges = Arrays.copyOf(ranges, Math.max(2 * ranges.length, slotCount * rangeWords));
+        Arrays.fill(mentions, slot * KINDS, slotCount * KINDS, 0);
+        Arrays.fill(ranges, slot * rangeWords, slotCount * rangeWords, 0L);
+        return slot;
+    }
+
+    /**
+     * Scores the skills found by keyword, in skill id order (the catalog
+     * order of their first skill), as the first results.
+     */
+    void scoreMentions(int currentMonth) {
+        for (int skillId = found.nextSetBit(0); skillId >= 0; skillId = found.nextSetBit(skillId + 1)) {
+            int slot = slots[skillId];
+            int months = 0;
+            int lastMonth = SkillScorer.NO_DATES;
+            for (int w = 0; w < rangeWords; w++) {
+                long bits = ranges[slot * rangeWords + w];
+                while (bits != 0) {
+                    int range = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    int to = layout.getRangeTo(range, currentMonth);
+                    months += to - layout.getRangeFrom(range) + 1;
+                    lastMonth = Math.max(lastMonth, to);
+                    bits &= bits - 1;
+                }
+            }
+            addResult(skillId, roleIndex.catalogIndexOf(skillId),
+                    SkillScorer.score(mentions, slot * KINDS, months, lastMonth, currentMonth));
+        }
+    }
+
+    void addResult(int skillId, int catalogIndex, int score) {
+        if (resultCount == resultIds.length) {
+            resultIds = Arrays.copyOf(resultIds, 2 * resultCount);
+            resultCatalogIndexes = Arrays.copyOf(resultCatalogIndexes, 2 * resultCount);
+            resultScores = Arrays.copyOf(resultScores, 2 * resultCount);
+        }
+        found.set(skillId);
+        resultIds[resultCount] = skillId;
+        resultCatalogIndexes[resultCount] = catalogIndex;
+        resultScores[resultCount] = score;
+        resultCount++;
+    }
+
+    int getResultCount() {
+        return resultCount;
+    }
+
+    int getResultId(int result) {
+        return resultIds[result];
+    }
+
+    int getResultCatalogIndex(int result) {
+        return resultCatalogIndexes[result];
+    }
+
+    int getResultScore(int result) {
+        return resultScores[result];
+    }
+
+    /**
+     * @return the position of the best scored result not in
+     * {@code exclude[0 .. excluded)}, the earliest on ties; -1 if none is left
+     */
+    int best(int[] exclude, int excluded) {
+        int best = -1;
+        for (int r = 0; r < resultCount; r++) {
+            if ((best < 0 || resultScores[r] > resultScores[best]) && !contains(exclude, excluded, r))
+                best = r;
+        }
+        return best;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops the catalog reference, so a pooled scratch does not keep a
+     * replaced catalog reachable.
+     */
+    void end() {
+        roleIndex = null;
+    }
+}
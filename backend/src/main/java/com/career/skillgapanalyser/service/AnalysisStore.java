@@ -0,0 +1,382 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisSearchResponse;
+import com.career.skillgapanalyser.dto.SkillDto;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MODULE: Analysis Store
+ * Embedded, append-only record of every completed analysis (the catalog
+ * skills it found with their scores, role, overall score and time), with an
+ * in-process inverted index to find candidates by skill set without
+ * scanning the records: a {@link PostingList} of record ids per skill name,
+ * per role and per overall score value. A query intersects the postings of
+ * its required skills smallest first, subtracts those of its excluded
+ * skills and reads only the records it returns from the log.
+ *
+ * Log layout: a header (magic, format), then one record per analysis: its
+ * length in bytes, then the time (epoch millis), overall score, role, skill
+ * count and per skill its name, type and score. Record ids number the
+ * records in log order. The index is rebuilt from the log at startup; a
+ * record cut short by a crash is dropped and the log truncated before it.
+ */
+@Service
+public class AnalysisStore {
+
+    private static final String LOG_FILE = "analyses.log";
+    private static final int MAGIC = 0x534B4131; // "SKA1"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_SCORE = 100;
+
+    private final int maxResults;
+    private final Path logFile;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel log;
+    private long logEnd;
+
+    // Per record: log offset and overall score; postings by skill key, role key and overall score
+    private int count;
+    private long[] offsets = new long[1024];
+    private byte[] scores = new byte[1024];
+    private final Map<String, PostingList> skills = new HashMap<>();
+    private final Map<String, PostingList> roles = new HashMap<>();
+    private final PostingList[] scoreLists = new PostingList[MAX_SCORE + 1];
+
+    public AnalysisStore(
+            @Value("${analysis.store.enabled:true}") boolean enabled,
+            @Value("${analysis.store.dir:${java.io.tmpdir}/skill-gap-analyses}") String directory,
+            @Value("${analysis.store.max-results:100}") int maxResults) {
+        this.maxResults = Math.max(1, maxResults);
+        this.logFile = enabled ? Paths.get(directory).resolve(LOG_FILE) : null;
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            scoreLists[score] = new PostingList();
+        }
+        if (logFile != null) {
+            try {
+                Files.createDirectories(logFile.getParent());
+                log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                replay();
+            } catch (IOException e) {
+                System.err.println("Analysis store disabled, cannot open " + logFile + ": " + e.getMessage());
+                closeLog();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lock.writeLock().lock();
+        try {
+            closeLog();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return log != null;
+    }
+
+    /**
+     * @return the number of stored analyses
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a completed analysis and indexes it; a failed write is logged
+     * and leaves the store as it was.
+     *
+     * @param skills the catalog skills found, by their canonical names, so
+     *               the index does not depend on the UI language
+     */
+    public void record(String roleId, int overallScore, List<SkillDto> skills) {
+        if (log == null)
+            return;
+        List<SkillDto> extracted = skills != null ? skills : List.of();
+        int score = clampScore(overallScore);
+        String role = roleId != null ? roleId : "";
+        byte[] record;
+        try {
+            record = encode(System.currentTimeMillis(), score, role, extracted);
+        } catch (IOException e) {
+            System.err.println("Analysis store cannot encode analysis: " + e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (log == null)
+                return;
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining())
+                log.write(buffer, logEnd + buffer.position());
+            long offset = logEnd;
+            logEnd += record.length;
+            List<String> keys = new ArrayList<>(extracted.size());
+            for (SkillDto skill : extracted) {
+                if (skill != null && skill.getName() != null)
+                    keys.add(AnalysisQuery.key(skill.getName()));
+            }
+            index(offset, score, role, keys);
+        } catch (IOException e) {
+            // The next record overwrites whatever part of this one was written
+            System.err.println("Analysis store write failed: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query of the {@link AnalysisQuery} language.
+     *
+     * @param limit how many of the matching analyses to return, most recent first
+     * @throws IllegalArgumentException if the query is malformed
+     */
+    public AnalysisSearchResponse search(String query, int limit) throws IOException {
+        AnalysisQuery parsed = AnalysisQuery.parse(query);
+        lock.readLock().lock();
+        try {
+            PostingList matches = evaluate(parsed);
+            int[] ids = matches.last(Math.max(0, Math.min(limit, maxResults)));
+            List<AnalysisSearchResponse.StoredAnalysis> results = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                results.add(read(id));
+            }
+            return new AnalysisSearchResponse(query, count, matches.cardinality(), results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PostingList evaluate(AnalysisQuery query) {
+        List<PostingList> required = new ArrayList<>();
+        for (List<String> clause : query.required) {
+            required.add(union(skills, clause));
+        }
+        if (query.role != null)
+            required.add(roles.getOrDefault(query.role, new PostingList()));
+
+        boolean scoreBounded = query.minScore > 0 || query.maxScore < MAX_SCORE;
+        PostingList result;
+        if (required.isEmpty()) {
+            // Nothing to intersect: start from the score buckets, or from every record
+            if (scoreBounded) {
+                result = new PostingList();
+                for (int score = query.minScore; score <= query.maxScore; score++) {
+                    result = result.or(scoreLists[score]);
+                }
+                scoreBounded = false;
+            } else {
+                result = PostingList.range(count);
+            }
+        } else {
+            required.sort(Comparator.comparingInt(PostingList::cardinality));
+            result = required.get(0);
+            for (int i = 1; i < required.size() && !result.isEmpty(); i++) {
+                result = result.and(required.get(i));
+            }
+        }
+
+        for (List<String> clause : query.excluded) {
+            for (String key : clause) {
+                PostingList excluded = skills.get(key);
+                if (excluded != null && !result.isEmpty())
+                    result = result.andNot(excluded);
+            }
+        }
+        if (scoreBounded && !result.isEmpty()) {
+            // Few candidates are left by now: checking their scores beats merging the score buckets
+            int min = query.minScore;
+            int max = query.maxScore;
+            result = result.filter(id -> scores[id] >= min && scores[id] <= max);
+        }
+        return result;
+    }
+
+    private static PostingList union(Map<String, PostingList> postings, List<String> keys) {
+        PostingList result = null;
+        for (String key : keys) {
+            PostingList list = postings.get(key);
+            if (list != null)
+                result = result == null ? list : result.or(list);
+        }
+        return result != null ? result : new PostingList();
+    }
+
+    private void index(long offset, int score, String role, List<String> skillKeys) {
+        int id = count;
+        if (id == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * id);
+            scores = Arrays.copyOf(scores, 2 * id);
+        }
+        offsets[id] = offset;
+        scores[id] = (byte) score;
+        for (String key : skillKeys) {
+            // A skill listed twice in one analysis is added once: add ignores a repeated last id
+            skills.computeIfAbsent(key, k -> new PostingList()).add(id);
+        }
+        roles.computeIfAbsent(AnalysisQuery.key(role), k -> new PostingList()).add(id);
+        scoreLists[score].add(id);
+        count++;
+    }
+
+    private static byte[] encode(long analyzedAt, int score, String role, List<SkillDto> extracted)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 32 * extracted.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // length, filled in below
+        out.writeLong(analyzedAt);
+        out.writeByte(score);
+        out.writeUTF(role);
+        int skillCount = 0;
+        for (SkillDto skill : extracted) {
+            if (skill != null && skill.getName() != null)
+                skillCount++;
+        }
+        out.writeShort(skillCount);
+        for (SkillDto skill : extracted) {
+            if (skill == null || skill.getName() == null)
+                continue;
+            out.writeUTF(skill.getName());
+            out.writeUTF(skill.getType() != null ? skill.getType() : "");
+            out.writeByte(clampScore(skill.getScore()));
+        }
+        out.flush();
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(0, record.length - Integer.BYTES);
+        return record;
+    }
+
+    private AnalysisSearchResponse.StoredAnalysis read(int id) throws IOException {
+        long offset = offsets[id];
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(length, offset);
+        ByteBuffer body = ByteBuffer.allocate(length.getInt(0));
+        readFully(body, offset + Integer.BYTES);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array()));
+        long analyzedAt = in.readLong();
+        int score = in.readUnsignedByte();
+        String role = in.readUTF();
+        int skillCount = in.readUnsignedShort();
+        List<SkillDto> extracted = new ArrayList<>(skillCount);
+        for (int s = 0; s < skillCount; s++) {
+            String name = in.readUTF();
+            String type = in.readUTF();
+            int skillScore = in.readUnsignedByte();
+            extracted.add(new SkillDto(name, type.isEmpty() ? null : type, "id_" + name, skillScore));
+        }
+        return new AnalysisSearchResponse.StoredAnalysis(id, analyzedAt, role, score, extracted);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("Analysis log ends inside a record at " + position);
+        }
+    }
+
+    // Rebuilds the index from the log, dropping a torn last record
+    private void replay() throws IOException {
+        long size = log.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT).flip();
+            while (header.hasRemaining())
+                log.write(header, header.position());
+            logEnd = HEADER_BYTES;
+            return;
+        }
+
+        if (size < HEADER_BYTES)
+            throw new IOException("Not an analysis log of format " + FORMAT);
+        long offset = HEADER_BYTES;
+        try (InputStream stream = Files.newInputStream(logFile);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT)
+                throw new IOException("Not an analysis log of format " + FORMAT);
+            List<String> keys = new ArrayList<>();
+            while (offset + Integer.BYTES <= size) {
+                int length = in.readInt();
+                if (length < 0 || offset + Integer.BYTES + length > size)
+                    break;
+                byte[] body = new byte[length];
+                in.readFully(body);
+                try {
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                    record.readLong(); // analyzedAt
+                    int score = record.readUnsignedByte();
+                    String role = record.readUTF();
+                    int skillCount = record.readUnsignedShort();
+                    keys.clear();
+                    for (int s = 0; s < skillCount; s++) {
+                        keys.add(AnalysisQuery.key(record.readUTF()));
+                        record.readUTF(); // type
+                        record.readUnsignedByte(); // score
+                    }
+                    index(offset, Math.min(score, MAX_SCORE), role, keys);
+                } catch (IOException e) {
+                    // Framed by its length, so a damaged record is skipped without losing the ones after it
+                    System.err.println("Skipping unreadable analysis record at " + offset + ": " + e.getMessage());
+                }
+                offset += Integer.BYTES + length;
+            }
+        } catch (EOFException e) {
+            // Torn record, handled below
+        }
+        if (offset < size) {
+            System.err.println("Analysis log " + logFile + " ends in a partial record, truncating at " + offset);
+            log.truncate(offset);
+        }
+        logEnd = offset;
+    }
+
+    private void closeLog() {
+        if (log == null)
+            return;
+        try {
+            log.close();
+        } catch (IOException e) {
+            // Nothing left to flush: every record was written through
+        }
+        log = null;
+    }
+
+    private static int clampScore(int score) {
+        return Math.max(0, Math.min(MAX_SCORE, score));
+    }
+}
@@ -2,36 +2,336 @@ package com.career.skillgapanalyser.service;
 
 import com.career.skillgapanalyser.dto.AssessmentRequest;
 import com.career.skillgapanalyser.dto.AssessmentResponse;
-import com.google.gson.Gson;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * MODULE: Assessment Generator
+ * Assessments are assembled from the {@link QuestionBank}; Gemini is only
+ * called on the request path for skills whose shelf has nothing left that
+ * the user has not seen. A background worker keeps recently asked-for
+ * shelves topped up, so popular skills are served in milliseconds. It only
+ * runs with the server's own Gemini key: a caller's key is used for that
+ * caller's request and never kept for later.
+ *
+ * Generation on the request path is split into shards of a few skills,
+ * run concurrently (a bounded number at a time) with their own output
+ * budget and timeout, so a large skill list neither truncates one huge
+ * answer nor waits longer than its slowest shard. Skills whose shard
+ * failed are reported in {@code failedSkills}.
+ */
 @Service
 public class AssessmentService {
 
+  private static final Map<String, String> LEVELS = Map.of(
+      "beginner", "Beginner to Intermediate",
+      "intermediate", "Intermediate to Advanced",
+      "advanced", "Advanced");
+  private static final String DEFAULT_DIFFICULTY = "intermediate";
+
   private final GeminiService geminiService;
-  private final Gson gson = new Gson();
+  private final AnalysisMetrics metrics;
+  private final QuestionBank questionBank;
+  private final String serverApiKey;
+  private final int questionsPerSkill;
+  private final int targetShelfSize;
+  private final int refillBatch;
+  private final long refillIntervalMs;
+  private final boolean refillEnabled;
+  private final long shelfIdleMs;
+  private final Semaphore refillSlots;
+  private final int skillsPerShard;
+  private final int maxConcurrentShards;
+  private final long shardTimeoutMs;
+  private final int tokensPerQuestion;
+  private final int maxOutputTokens;
+  private ScheduledExecutorService refillWorker;
+
+  public AssessmentService(GeminiService geminiService, AnalysisMetrics metrics,
+      @Value("${gemini.api.key:}") String serverApiKey,
+      @Value("${assessment.questions-per-skill:4}") int questionsPerSkill,
+      @Value("${assessment.bank.shelf-capacity:200}") int shelfCapacity,
+      @Value("${assessment.bank.target-size:40}") int targetShelfSize,
+      @Value("${assessment.bank.refill-batch:10}") int refillBatch,
+      @Value("${assessment.bank.refill-interval-ms:30000}") long refillIntervalMs,
+      @Value("${assessment.bank.max-concurrent-refills:4}") int maxConcurrentRefills,
+      @Value("${assessment.bank.idle-minutes:60}") long shelfIdleMinutes,
+      @Value("${assessment.bank.max-users:10000}") int maxUsers,
+      @Value("${assessment.bank.max-served-per-user:2000}") int maxServedPerUser,
+      @Value("${assessment.generation.skills-per-shard:1}") int skillsPerShard,
+      @Value("${assessment.generation.max-concurrent-shards:4}") int maxConcurrentShards,
+      @Value("${assessment.generation.shard-timeout-ms:30000}") long shardTimeoutMs,
+      @Value("${assessment.generation.tokens-per-question:400}") int tokensPerQuestion,
+      @Value("${assessment.generation.max-output-tokens:8192}") int maxOutputTokens) {
+    this.geminiService = geminiService;
+    this.metrics = metrics;
+    this.questionBank = new QuestionBank(shelfCapacity, maxUsers, maxServedPerUser);
+    this.serverApiKey = serverApiKey;
+    this.questionsPerSkill = Math.max(1, questionsPerSkill);
+    this.targetShelfSize = Math.min(targetShelfSize, shelfCapacity);
+    this.refillBatch = Math.max(1, refillBatch);
+    this.refillIntervalMs = refillIntervalMs;
+    this.refillEnabled = refillIntervalMs > 0 && serverApiKey != null && !serverApiKey.isBlank();
+    this.shelfIdleMs = TimeUnit.MINUTES.toMillis(shelfIdleMinutes);
+    this.refillSlots = new Semaphore(Math.max(1, maxConcurrentRefills));
+    this.skillsPerShard = Math.max(1, skillsPerShard);
+    this.maxConcurrentShards = Math.max(1, maxConcurrentShards);
+    this.shardTimeoutMs = shardTimeoutMs;
+    this.tokensPerQuestion = tokensPerQuestion;
+    this.maxOutputTokens = maxOutputTokens;
+  }
 
-  // Helper to get current language
-  private String getLanguage() {
-    try {
-      if (org.springframework.context.i18n.LocaleContextHolder.getLocale() != null) {
-        return org.springframework.context.i18n.LocaleContextHolder.getLocale().getDisplayName();
+  @PostConstruct
+  public void startRefillWorker() {
+    if (!refillEnabled)
+      return;
+    refillWorker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "question-bank-refill");
+      thread.setDaemon(true);
+      return thread;
+    });
+    refillWorker.scheduleWithFixedDelay(this::refillShelves, refillIntervalMs, refillIntervalMs,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (refillWorker != null)
+      refillWorker.shutdownNow();
+  }
+
+  public QuestionBank getQuestionBank() {
+    return questionBank;
+  }
+
+  public AssessmentResponse generateAssessment(AssessmentRequest request, String apiKey) {
+    Timer.Sample sample = metrics.start();
+    String language = org.springframework.context.i18n.LocaleContextHolder.getLocale().getLanguage();
+    String difficulty = LEVELS.containsKey(lower(request.getDifficulty())) ? lower(request.getDifficulty())
+        : DEFAULT_DIFFICULTY;
+    String userId = historyId(request.getUserId(), apiKey);
+
+    Map<String, QuestionBank.Shelf> shelves = new LinkedHashMap<>();
+    if (request.getSkills() != null) {
+      for (String skill : request.getSkills()) {
+        if (skill != null && !skill.isBlank())
+          shelves.putIfAbsent(QuestionBank.normalize(skill), questionBank.shelf(skill, difficulty, language));
       }
-    } catch (Exception e) {
-      System.err.println("Locale context missing, defaulting to English");
     }
-    return "English";
+
+    List<AssessmentResponse.Question> questions = new ArrayList<>();
+    List<QuestionBank.Shelf> empty = new ArrayList<>();
+    for (QuestionBank.Shelf shelf : shelves.values()) {
+      shelf.demanded();
+      List<AssessmentResponse.Question> taken = questionBank.take(userId, shelf, questionsPerSkill);
+      metrics.recordQuestionBank(!taken.isEmpty());
+      if (taken.isEmpty()) {
+        empty.add(shelf);
+        continue;
+      }
+      questions.addAll(taken);
+      if (taken.size() < questionsPerSkill || shelf.size() < targetShelfSize)
+        refill(shelf);
+    }
+
+    List<String> failedSkills = new ArrayList<>();
+    if (!empty.isEmpty()) {
+      List<List<QuestionBank.Shelf>> shards = new ArrayList<>();
+      for (int i = 0; i < empty.size(); i += skillsPerShard) {
+        shards.add(empty.subList(i, Math.min(empty.size(), i + skillsPerShard)));
+      }
+      List<List<AssessmentResponse.Question>> generated = generateShards(shards, difficulty, language, apiKey);
+
+      for (int i = 0; i < shards.size(); i++) {
+        if (generated.get(i) != null)
+          shelve(generated.get(i), shards.get(i));
+        for (QuestionBank.Shelf shelf : shards.get(i)) {
+          List<AssessmentResponse.Question> taken = questionBank.take(userId, shelf, questionsPerSkill);
+          if (taken.isEmpty())
+            failedSkills.add(shelf.getSkill());
+          questions.addAll(taken);
+        }
+      }
+      if (questions.isEmpty()) {
+        metrics.recordAssessment(sample, language, "error");
+        throw new RuntimeException("Gemini Generation Failed or Returned Empty");
+      }
+      // Only now, so the refill does not compete with the calls the user is waiting for
+      for (QuestionBank.Shelf shelf : empty) {
+        refill(shelf);
+      }
+    }
+
+    AssessmentResponse response = new AssessmentResponse();
+    response.setDifficulty(difficulty);
+    response.setQuestions(questions);
+    response.setFailedSkills(failedSkills);
+    response.setPartial(!failedSkills.isEmpty());
+    metrics.recordAssessment(sample, language,
+        empty.isEmpty() ? "bank" : failedSkills.isEmpty() ? "generated" : "partial");
+    return response;
   }
 
-  public AssessmentService(GeminiService geminiService) {
-    this.geminiService = geminiService;
+  /**
+   * Whose served questions to skip: the client id the frontend keeps per
+   * browser, else the caller's own API key. Callers with neither (on the
+   * server key) are anonymous and get no history, rather than all sharing
+   * one that would empty every shelf after a single pass. Hashed, so a
+   * client cannot make the bank hold arbitrarily long ids.
+   */
+  private String historyId(String userId, String apiKey) {
+    if (userId != null && !userId.isBlank())
+      return "user:" + AnalysisCache.sha256(userId.getBytes(StandardCharsets.UTF_8));
+    if (apiKey != null && !apiKey.equals(serverApiKey))
+      return "key:" + AnalysisCache.sha256(apiKey.getBytes(StandardCharsets.UTF_8));
+    return null;
   }
 
-  public AssessmentResponse generateAssessment(AssessmentRequest request, String apiKey) {
-    String skills = String.join(", ", request.getSkills());
+  /**
+   * Runs one Gemini call per shard, at most max-concurrent-shards at a time.
+   * Each shard has its own timeout; a failed or late shard yields null
+   * without affecting the others.
+   *
+   * @return the questions of each shard, in shard order
+   */
+  private List<List<AssessmentResponse.Question>> generateShards(List<List<QuestionBank.Shelf>> shards,
+      String difficulty, String language, String apiKey) {
+    List<CompletableFuture<List<AssessmentResponse.Question>>> results = new ArrayList<>();
+    for (int i = 0; i < shards.size(); i++) {
+      results.add(new CompletableFuture<>());
+    }
+    AtomicInteger next = new AtomicInteger();
+    Runnable[] lane = new Runnable[1];
+    lane[0] = () -> {
+      int i = next.getAndIncrement();
+      if (i >= shards.size())
+        return;
+      List<String> skills = new ArrayList<>();
+      for (QuestionBank.Shelf shelf : shards.get(i)) {
+        skills.add(shelf.getSkill());
+      }
+      CompletableFuture<List<AssessmentResponse.Question>> call = generateQuestions(skills, questionsPerSkill,
+          difficulty, language, apiKey);
+      CompletableFuture<List<AssessmentResponse.Question>> shard = shardTimeoutMs > 0
+          ? call.copy().orTimeout(shardTimeoutMs, TimeUnit.MILLISECONDS)
+          : call;
+      shard.whenComplete((questions, error) -> {
+        if (error != null) {
+          System.err.println("Assessment shard " + skills + " failed: " + error);
+          // A late answer is still worth shelving for the next request
+          call.thenAccept(late -> {
+            if (late != null)
+              shelve(late, shards.get(i));
+          });
+        }
+        results.get(i).complete(error == null ? questions : null);
+        lane[0].run();
+      });
+    };
+    for (int l = 0; l < Math.min(maxConcurrentShards, shards.size()); l++) {
+      lane[0].run();
+    }
 
+    List<List<AssessmentResponse.Question>> generated = new ArrayList<>();
+    for (CompletableFuture<List<AssessmentResponse.Question>> result : results) {
+      generated.add(result.join());
+    }
+    return generated;
+  }
+
+  /**
+   * Tops up shelves asked for within the idle window that are below their
+   * target size.
+   */
+  private void refillShelves() {
+    long activeSince = System.currentTimeMillis() - shelfIdleMs;
+    for (QuestionBank.Shelf shelf : questionBank.getShelves()) {
+      if (shelf.getLastDemandAt() >= activeSince && shelf.size() < targetShelfSize)
+        refill(shelf);
+    }
+  }
+
+  // One refill per shelf at a time, at most max-concurrent-refills overall
+  private void refill(QuestionBank.Shelf shelf) {
+    if (!refillEnabled || !shelf.startRefill())
+      return;
+    if (!refillSlots.tryAcquire()) {
+      shelf.finishRefill();
+      return;
+    }
+    generateQuestions(List.of(shelf.getSkill()), refillBatch, shelf.getDifficulty(), shelf.getLanguage(),
+        serverApiKey)
+        .whenComplete((generated, error) -> {
+          try {
+            if (generated != null)
+              shelve(generated, List.of(shelf));
+          } finally {
+            refillSlots.release();
+            shelf.finishRefill();
+          }
+        });
+  }
+
+  // Files generated questions on the shelf of the skill they were asked for
+  private void shelve(List<AssessmentResponse.Question> generated, List<QuestionBank.Shelf> shelves) {
+    Map<QuestionBank.Shelf, List<AssessmentResponse.Question>> bySkill = new LinkedHashMap<>();
+    for (AssessmentResponse.Question question : generated) {
+      QuestionBank.Shelf target = shelves.size() == 1 ? shelves.get(0) : null;
+      for (int i = 0; target == null && i < shelves.size(); i++) {
+        if (question.getSkill() != null
+            && QuestionBank.normalize(question.getSkill()).equals(QuestionBank.normalize(shelves.get(i).getSkill())))
+          target = shelves.get(i);
+      }
+      if (target != null)
+        bySkill.computeIfAbsent(target, s -> new ArrayList<>()).add(question);
+    }
+    bySkill.forEach(questionBank::add);
+  }
+
+  /**
+   * @return the parsed questions, or null if Gemini failed or its answer
+   * could not be parsed
+   */
+  private CompletableFuture<List<AssessmentResponse.Question>> generateQuestions(List<String> skills,
+      int countPerSkill, String difficulty, String language, String apiKey) {
+    String prompt = buildPrompt(skills, countPerSkill, LEVELS.get(difficulty), displayLanguage(language));
+    // Budget the answer to what was asked for instead of one fixed size for any number of skills
+    int outputTokens = Math.min(maxOutputTokens, skills.size() * countPerSkill * tokensPerQuestion + 256);
+    return geminiService.generateContentAsync(prompt, apiKey, AnalysisMetrics.STAGE_ASSESSMENT, outputTokens)
+        .thenApply(jsonResponse -> {
+          if (jsonResponse == null)
+            return null;
+          // Clean up potentially accidentally included markdown
+          jsonResponse = JsonSupport.stripCodeFence(jsonResponse);
+          try {
+            AssessmentResponse parsed = JsonSupport.GSON.fromJson(jsonResponse, AssessmentResponse.class);
+            return parsed != null && parsed.getQuestions() != null ? parsed.getQuestions() : null;
+          } catch (Exception e) {
+            System.err.println("Failed to parse Gemini response: " + jsonResponse);
+            metrics.recordGeminiParseFailure(AnalysisMetrics.STAGE_ASSESSMENT);
+            return null;
+          }
+        });
+  }
+
+  private static String buildPrompt(List<String> skills, int countPerSkill, String level, String language) {
     String uniqueSeed = UUID.randomUUID().toString() + "-" + System.currentTimeMillis();
 
     String prompt = """
@@ -71,26 +371,23 @@ public class AssessmentService {
         - Seed: {{SEED}} (Ensure randomness).
         """;
 
-    prompt = prompt
-        .replace("{{SKILLS_FROM_RESUME}}", skills)
-        .replace("{{LEVEL}}", "Intermediate to Advanced")
-        .replace("{{COUNT_PER_SKILL}}", "4") // Increased count to ensure mix
-        .replace("{{LANGUAGE}}", getLanguage())
+    return prompt
+        .replace("{{SKILLS_FROM_RESUME}}", String.join(", ", skills))
+        .replace("{{LEVEL}}", level)
+        .replace("{{COUNT_PER_SKILL}}", String.valueOf(countPerSkill))
+        .replace("{{LANGUAGE}}", language)
         .replace("{{SEED}}", uniqueSeed);
+  }
 
-    String jsonResponse = geminiService.generateContent(prompt, apiKey);
-
-    if (jsonResponse != null) {
-      // Clean up potentially accidentally included markdown
-      jsonResponse = jsonResponse.replace("```json", "").replace("```", "").trim();
-      try {
-        return gson.fromJson(jsonResponse, AssessmentResponse.class);
-      } catch (Exception e) {
-        System.err.println("Failed to parse Gemini response: " + jsonResponse);
-        throw new RuntimeException("Gemini Response Parse Failed", e);
-      }
-    }
+  // Shelves are keyed by ISO code; the prompt wants the language's name
+  private static String displayLanguage(String language) {
+    if (language == null || language.isBlank())
+      return "English";
+    String name = Locale.forLanguageTag(language).getDisplayLanguage(Locale.ENGLISH);
+    return name.isEmpty() ? "English" : name;
+  }
 
-    throw new RuntimeException("Gemini Generation Failed or Returned Empty");
+  private static String lower(String value) {
+    return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
   }
 }
@@ -0,0 +1,390 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.BatchJobStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * MODULE: Batch Resume Analysis
+ * Analyzes many resumes against one role as a background job. Files are
+ * parsed on a bounded CPU pool; Gemini calls are handed to a separate, paced
+ * pool so a large batch cannot exhaust the API quota or starve interactive
+ * requests. The role blueprint is resolved once per job.
+ */
+@Service
+public class BatchAnalysisService {
+
+    private final ResumeParser resumeParser;
+    private final SkillExtractor skillExtractor;
+    private final ResumeService resumeService;
+    private final AnalysisCache analysisCache;
+
+    private final ThreadPoolExecutor parsePool;
+    private final ExecutorService geminiPool;
+    private final long geminiIntervalNanos;
+    private final int maxFiles;
+    private final long maxFileBytes;
+    private final long maxTotalBytes;
+    private final int maxZipEntries;
+    private final long retentionMillis;
+
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+    private long nextGeminiSlot;
+
+    public BatchAnalysisService(ResumeParser resumeParser, SkillExtractor skillExtractor,
+            ResumeService resumeService, AnalysisCache analysisCache,
+            @Value("${batch.parse-threads:0}") int parseThreads,
+            @Value("${batch.parse-queue:2000}") int parseQueue,
+            @Value("${batch.gemini-threads:4}") int geminiThreads,
+            @Value("${batch.gemini-requests-per-minute:60}") int geminiRequestsPerMinute,
+            @Value("${batch.max-files:500}") int maxFiles,
+            @Value("${resume.max-file-bytes:5242880}") long maxFileBytes,
+            @Value("${batch.max-total-bytes:104857600}") long maxTotalBytes,
+            @Value("${batch.max-zip-entries:2000}") int maxZipEntries,
+            @Value("${batch.retention-minutes:60}") long retentionMinutes) {
+        this.resumeParser = resumeParser;
+        this.skillExtractor = skillExtractor;
+        this.resumeService = resumeService;
+        this.analysisCache = analysisCache;
+
+        int threads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        this.parsePool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parseQueue), daemonThreads("batch-parse-"));
+        this.geminiPool = Executors.newFixedThreadPool(geminiThreads, daemonThreads("batch-gemini-"));
+        this.geminiIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, geminiRequestsPerMinute);
+        this.maxFiles = maxFiles;
+        this.maxFileBytes = maxFileBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxZipEntries = maxZipEntries;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+    }
+
+    /**
+     * Flattens the upload into individual resumes: ZIP archives are expanded,
+     * unsupported and oversized files are skipped.
+     *
+     * @throws IllegalArgumentException if the batch has too many files, an
+     * archive too many entries, or all of it inflates to more than
+     * batch.max-total-bytes
+     */
+    public List<BatchFile> collectFiles(MultipartFile[] uploads) throws IOException {
+        List<BatchFile> files = new ArrayList<>();
+        if (uploads == null)
+            return files;
+
+        long totalBytes = 0;
+        for (MultipartFile upload : uploads) {
+            String name = upload.getOriginalFilename();
+            if (name == null)
+                continue;
+            if (name.toLowerCase().endsWith(".zip")) {
+                try (InputStream is = upload.getInputStream()) {
+                    totalBytes += unzip(is, files, maxTotalBytes - totalBytes);
+                }
+            } else if (resumeParser.isSupported(name) && upload.getSize() <= maxFileBytes) {
+                totalBytes += upload.getSize();
+                if (totalBytes <= maxTotalBytes)
+                    files.add(new BatchFile(name, upload.getBytes()));
+            }
+            if (files.size() > maxFiles)
+                throw new IllegalArgumentException("Batch exceeds the limit of " + maxFiles + " files");
+            if (totalBytes > maxTotalBytes)
+                throw new IllegalArgumentException("Batch exceeds the limit of " + maxTotalBytes + " bytes");
+        }
+        return files;
+    }
+
+    public BatchJobStatus submit(List<BatchFile> files, String roleId, String apiKey) {
+        if ("null".equals(apiKey)) {
+            apiKey = null;
+        }
+        if (parsePool.getQueue().remainingCapacity() < files.size()) {
+            throw new RejectedExecutionException("Batch queue is full, retry later");
+        }
+        purgeExpiredJobs();
+
+        String key = apiKey;
+        String language = org.springframework.context.i18n.LocaleContextHolder.getLocale().getLanguage();
+        String catalogVersion = skillExtractor.getCatalogVersion();
+
+        // Resolved once for the whole batch
+        SkillExtractor.SkillData.RoleDef blueprint = skillExtractor.getRoleDefinition(roleId);
+
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), roleId, files.size());
+        jobs.put(job.id, job);
+
+        for (int i = 0; i < files.size(); i++) {
+            int index = i;
+            BatchFile file = files.get(i);
+            try {
+                parsePool.execute(() -> parseAndAnalyze(job, index, file, roleId, blueprint, key, language,
+                        catalogVersion));
+            } catch (RejectedExecutionException e) {
+                job.record(index, file.name, null, "Server busy, file was not processed");
+            }
+        }
+        return job.status(false);
+    }
+
+    private void parseAndAnalyze(BatchJob job, int index, BatchFile file, String roleId,
+            SkillExtractor.SkillData.RoleDef blueprint, String apiKey, String language, String catalogVersion) {
+        boolean aiEnabled = apiKey != null && !apiKey.isEmpty();
+        try {
+            String cacheKey = analysisCache.key(file.content, roleId, language, catalogVersion, aiEnabled);
+            AnalysisResponse cached = analysisCache.get(cacheKey);
+            if (cached != null) {
+                job.record(index, file.name, cached, null);
+                return;
+            }
+
+            String text = resumeParser.extractText(file.name, file.content, resumeParser.getMaxChars());
+            if (!aiEnabled) {
+                AnalysisResponse response = resumeService.analyzeText(text, roleId, blueprint, null, language, null);
+                analysisCache.put(cacheKey, response);
+                job.record(index, file.name, response, null);
+                return;
+            }
+
+            // Only the name is captured, so the file's bytes are not held while the task waits in the queue
+            String fileName = file.name;
+            geminiPool.execute(() -> {
+                try {
+                    awaitGeminiSlot();
+                    AnalysisResponse response = resumeService.analyzeText(text, roleId, blueprint, apiKey, language,
+                            cacheKey);
+                    analysisCache.put(cacheKey, response);
+                    job.record(index, fileName, response, null);
+                } catch (Exception e) {
+                    job.record(index, fileName, null, e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            job.record(index, file.name, null, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the job's progress, optionally with the results so far; null if unknown
+     */
+    public BatchJobStatus getStatus(String jobId, boolean includeResults) {
+        BatchJob job = jobs.get(jobId);
+        return job == null ? null : job.status(includeResults);
+    }
+
+    /**
+     * Replays finished results to the sink and then pushes every new one
+     * ("result" and "progress" events) until the job completes.
+     *
+     * @return false if the job is unknown
+     */
+    public boolean subscribe(String jobId, AnalysisEventSink sink) {
+        BatchJob job = jobs.get(jobId);
+        if (job == null)
+            return false;
+        job.subscribe(sink);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsePool.shutdownNow();
+        geminiPool.shutdownNow();
+    }
+
+    // Spaces Gemini calls evenly: each caller reserves the next free slot and sleeps until it
+    private void awaitGeminiSlot() throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextGeminiSlot);
+            nextGeminiSlot = slot + geminiIntervalNanos;
+            wait = slot - now;
+        }
+        if (wait > 0)
+            TimeUnit.NANOSECONDS.sleep(wait);
+    }
+
+    /**
+     * Expands the supported entries of an archive into {@code files}. Every
+     * inflated byte counts against {@code maxBytes}, skipped entries too, so
+     * neither what is kept nor what is thrown away can inflate without bound.
+     *
+     * @return the number of bytes inflated, at most {@code maxBytes + 1}
+     */
+    private long unzip(InputStream is, List<BatchFile> files, long maxBytes) throws IOException {
+        ZipInputStream zip = new ZipInputStream(is);
+        ZipEntry entry;
+        long inflated = 0;
+        int entries = 0;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (++entries > maxZipEntries)
+                throw new IllegalArgumentException("Archive exceeds the limit of " + maxZipEntries + " entries");
+            String name = entry.getName();
+            if (!entry.isDirectory() && !name.startsWith("__MACOSX/") && resumeParser.isSupported(name)) {
+                // Read one byte past the limit to detect oversized entries without trusting the header
+                byte[] content = zip.readNBytes((int) Math.min(Integer.MAX_VALUE - 8,
+                        Math.min(maxFileBytes, maxBytes - inflated) + 1));
+                inflated += content.length;
+                if (content.length <= maxFileBytes && inflated <= maxBytes)
+                    files.add(new BatchFile(name.substring(name.lastIndexOf('/') + 1), content));
+                if (files.size() > maxFiles)
+                    throw new IllegalArgumentException("Batch exceeds the limit of " + maxFiles + " files");
+            }
+            // Whatever is left of the entry is inflated too when moving on to the next one
+            inflated += zip.skip(maxBytes - inflated + 1);
+            if (inflated > maxBytes)
+                break;
+        }
+        return inflated;
+    }
+
+    private void purgeExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.isExpired(cutoff));
+    }
+
+    private static java.util.concurrent.ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static class BatchFile {
+        private final String name;
+        private final byte[] content;
+
+        public BatchFile(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class BatchJob {
+        private final String id;
+        private final String roleId;
+        private final int total;
+        private final List<BatchJobStatus.BatchItemResult> results = new ArrayList<>();
+        private final List<AnalysisEventSink> subscribers = new ArrayList<>();
+        // Events queued under the lock and sent outside it, so a slow client cannot stall the job
+        private final Deque<Runnable> outbox = new ArrayDeque<>();
+        private boolean delivering;
+        private int failed;
+        private long finishedAt;
+
+        BatchJob(String id, String roleId, int total) {
+            this.id = id;
+            this.roleId = roleId;
+            this.total = total;
+        }
+
+        void record(int index, String fileName, AnalysisResponse analysis, String error) {
+            BatchJobStatus.BatchItemResult result = analysis != null
+                    ? new BatchJobStatus.BatchItemResult(index, fileName, "OK", analysis, null)
+                    : new BatchJobStatus.BatchItemResult(index, fileName, "FAILED", null, error);
+            synchronized (this) {
+                results.add(result);
+                if (analysis == null)
+                    failed++;
+
+                BatchJobStatus progress = status(false);
+                for (AnalysisEventSink sink : subscribers) {
+                    outbox.add(() -> sink.send("result", result));
+                    outbox.add(() -> sink.send("progress", progress));
+                }
+                if (isDone()) {
+                    finishedAt = System.currentTimeMillis();
+                    for (AnalysisEventSink sink : subscribers) {
+                        outbox.add(sink::complete);
+                    }
+                    subscribers.clear();
+                }
+            }
+            deliver();
+        }
+
+        void subscribe(AnalysisEventSink sink) {
+            synchronized (this) {
+                for (BatchJobStatus.BatchItemResult result : results) {
+                    outbox.add(() -> sink.send("result", result));
+                }
+                BatchJobStatus progress = status(false);
+                outbox.add(() -> sink.send("progress", progress));
+                if (isDone()) {
+                    outbox.add(sink::complete);
+                } else {
+                    subscribers.add(sink);
+                }
+            }
+            deliver();
+        }
+
+        // One thread at a time drains the outbox, so every subscriber sees the events in the order queued
+        private void deliver() {
+            synchronized (this) {
+                if (delivering)
+                    return;
+                delivering = true;
+            }
+            while (true) {
+                List<Runnable> events;
+                synchronized (this) {
+                    if (outbox.isEmpty()) {
+                        delivering = false;
+                        return;
+                    }
+                    events = new ArrayList<>(outbox);
+                    outbox.clear();
+                }
+                for (Runnable event : events) {
+                    try {
+                        event.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Batch event delivery failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        synchronized BatchJobStatus status(boolean includeResults) {
+            return new BatchJobStatus(id, roleId, isDone() ? "COMPLETED" : "RUNNING", total, results.size(), failed,
+                    includeResults ? new ArrayList<>(results) : null);
+        }
+
+        synchronized boolean isExpired(long cutoff) {
+            return isDone() && finishedAt < cutoff;
+        }
+
+        private boolean isDone() {
+            return results.size() >= total;
+        }
+    }
+}
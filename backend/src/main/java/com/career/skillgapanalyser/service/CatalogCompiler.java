@@ -0,0 +1,211 @@
+package com.career.skillgapanalyser.service;
+
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MODULE: Skill Catalog Compiler
+ * Turns skills.json into the binary {@link CatalogFile}: the string pool,
+ * the skill and keyword tables, the keyword automaton and the role index,
+ * all as flat arrays. The build runs it on the bundled catalog (see the
+ * exec-maven-plugin execution in pom.xml), so the service maps the result
+ * instead of parsing JSON at startup; an external catalog is compiled once
+ * per version when it is first loaded.
+ *
+ * Usage: {@code CatalogCompiler <skills.json> <skills.bin>}
+ */
+public final class CatalogCompiler {
+
+    /**
+     * Classpath name of the bundled catalog, compiled
+     */
+    public static final String COMPILED_RESOURCE = "skills.bin";
+
+    private CatalogCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CatalogCompiler <skills.json> <skills.bin>");
+            System.exit(2);
+        }
+        byte[] json = Files.readAllBytes(Paths.get(args[0]));
+        Path target = Paths.get(args[1]).toAbsolutePath();
+        ByteBuffer compiled = compile(json);
+        int size = compiled.remaining();
+        CatalogFile.write(compiled, target);
+        System.out.println("Compiled " + args[0] + " (version " + version(json) + ") into " + target + ", "
+                + size + " bytes");
+    }
+
+    /**
+     * Content hash of a skills.json; changes whenever a skill or role
+     * blueprint changes.
+     */
+    public static String version(byte[] json) {
+        return AnalysisCache.sha256(json).substring(0, 12);
+    }
+
+    public static ByteBuffer compile(byte[] json) throws IOException {
+        SkillExtractor.SkillData data;
+        try {
+            data = JsonSupport.GSON.fromJson(new String(json, StandardCharsets.UTF_8), SkillExtractor.SkillData.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Invalid catalog JSON: " + e.getMessage(), e);
+        }
+        if (data == null || data.skills == null || data.roles == null)
+            throw new IOException("Catalog must define both 'skills' and 'roles'");
+
+        Writer out = new Writer();
+        writeSkills(data.skills, out);
+        KeywordAutomaton.compile(data.skills, out);
+        RoleIndex.compile(data, out);
+        return out.finish(version(json));
+    }
+
+    private static void writeSkills(List<SkillExtractor.SkillDef> skills, Writer out) {
+        int[] names = new int[skills.size()];
+        int[] types = new int[skills.size()];
+        List<Integer> keywordStart = new ArrayList<>();
+        List<Integer> keywords = new ArrayList<>();
+        List<Integer> contextStart = new ArrayList<>();
+        List<Integer> context = new ArrayList<>();
+        for (int i = 0; i < skills.size(); i++) {
+            SkillExtractor.SkillDef skill = skills.get(i);
+            names[i] = out.string(skill == null ? null : skill.name);
+            types[i] = out.string(skill == null ? null : skill.type);
+            keywordStart.add(keywords.size());
+            contextStart.add(context.size());
+            if (skill == null)
+                continue;
+            if (skill.keywords != null) {
+                for (String keyword : skill.keywords) {
+                    keywords.add(out.string(keyword));
+                }
+            }
+            if (skill.context != null) {
+                for (String phrase : skill.context) {
+                    context.add(out.string(phrase));
+                }
+            }
+        }
+        keywordStart.add(keywords.size());
+        contextStart.add(context.size());
+
+        out.put(CatalogFile.Section.SKILL_NAMES, names);
+        out.put(CatalogFile.Section.SKILL_TYPES, types);
+        out.put(CatalogFile.Section.SKILL_KEYWORD_START, toArray(keywordStart));
+        out.put(CatalogFile.Section.SKILL_KEYWORDS, toArray(keywords));
+        out.put(CatalogFile.Section.SKILL_CONTEXT_START, toArray(contextStart));
+        out.put(CatalogFile.Section.SKILL_CONTEXT, toArray(context));
+    }
+
+    static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Collects the sections of one catalog file. Strings are pooled: the
+     * same string is stored once whatever table refers to it.
+     */
+    static final class Writer {
+        private final Map<String, Integer> stringRefs = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private final ByteBuffer[] sections = new ByteBuffer[CatalogFile.Section.values().length];
+
+        /**
+         * @return the string's ref, -1 for null
+         */
+        int string(String s) {
+            if (s == null)
+                return -1;
+            return stringRefs.computeIfAbsent(s, key -> {
+                strings.add(key.getBytes(StandardCharsets.UTF_8));
+                return strings.size() - 1;
+            });
+        }
+
+        void put(CatalogFile.Section section, int[] values) {
+            ByteBuffer bytes = allocate(4 * values.length);
+            bytes.asIntBuffer().put(values);
+            sections[section.ordinal()] = bytes;
+        }
+
+        void put(CatalogFile.Section section, long[] values) {
+            ByteBuffer bytes = allocate(8 * values.length);
+            bytes.asLongBuffer().put(values);
+            sections[section.ordinal()] = bytes;
+        }
+
+        void put(CatalogFile.Section section, char[] values) {
+            ByteBuffer bytes = allocate(2 * values.length);
+            bytes.asCharBuffer().put(values);
+            sections[section.ordinal()] = bytes;
+        }
+
+        void put(CatalogFile.Section section, byte[] values) {
+            sections[section.ordinal()] = allocate(values.length).put(values).flip();
+        }
+
+        ByteBuffer finish(String version) {
+            int[] offsets = new int[strings.size() + 1];
+            int length = 0;
+            for (int i = 0; i < strings.size(); i++) {
+                offsets[i] = length;
+                length += strings.get(i).length;
+            }
+            offsets[strings.size()] = length;
+            ByteBuffer pool = allocate(length);
+            for (byte[] string : strings) {
+                pool.put(string);
+            }
+            put(CatalogFile.Section.STRING_OFFSETS, offsets);
+            sections[CatalogFile.Section.STRING_BYTES.ordinal()] = pool.flip();
+
+            int directory = CatalogFile.HEADER_BYTES + 8 * sections.length;
+            long size = align(directory);
+            for (ByteBuffer section : sections) {
+                size = align(size + (section == null ? 0 : section.remaining()));
+            }
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalStateException("Catalog too large for one file: " + size + " bytes");
+
+            ByteBuffer file = allocate((int) size);
+            file.putInt(CatalogFile.MAGIC).putInt(CatalogFile.FORMAT).putInt(sections.length).putInt(0);
+            byte[] versionBytes = version.getBytes(StandardCharsets.US_ASCII);
+            file.put(versionBytes, 0, Math.min(versionBytes.length, CatalogFile.VERSION_BYTES));
+            int offset = (int) align(directory);
+            for (int s = 0; s < sections.length; s++) {
+                ByteBuffer section = sections[s] == null ? allocate(0) : sections[s];
+                file.putInt(CatalogFile.HEADER_BYTES + 8 * s, offset);
+                file.putInt(CatalogFile.HEADER_BYTES + 8 * s + 4, section.remaining());
+                file.put(offset, section, section.position(), section.remaining());
+                offset = (int) align(offset + section.remaining());
+            }
+            return file.clear();
+        }
+
+        private static long align(long offset) {
+            return (offset + 7) & ~7L;
+        }
+
+        private static ByteBuffer allocate(int bytes) {
+            return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
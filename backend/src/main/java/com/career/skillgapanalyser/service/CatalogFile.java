@@ -0,0 +1,210 @@
+package com.career.skillgapanalyser.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MODULE: Compiled Skill Catalog
+ * Read-only view of a catalog compiled by {@link CatalogCompiler}. The file
+ * is memory-mapped and every table is read in place: opening a catalog reads
+ * the header and the section directory, nothing else, so startup time and
+ * heap use do not grow with the catalog, and every JVM on the host mapping
+ * the same file shares its pages through the OS page cache.
+ *
+ * Layout, little-endian: a header (magic, format, section count, a reserved
+ * int and the catalog version as 16 ASCII bytes), the (offset, length) in
+ * bytes of every {@link Section}, then the sections, each 8-byte aligned.
+ * Strings live once in a pool and are referred to by index ("ref", -1 for
+ * null); all other tables are int, char, byte or long arrays.
+ */
+public final class CatalogFile {
+
+    static final int MAGIC = 0x534B4331; // "SKC1"
+    static final int FORMAT = 2;
+    static final int HEADER_BYTES = 32;
+    static final int VERSION_BYTES = 16;
+
+    /**
+     * The sections, in directory order. The tables of the keyword automaton
+     * and of the role index are described in {@link KeywordAutomaton} and
+     * {@link RoleIndex}.
+     */
+    enum Section {
+        // String pool: UTF-8 bytes of string i in [offsets[i], offsets[i + 1])
+        STRING_OFFSETS, STRING_BYTES,
+        // Catalog skills: name and type refs; keyword and context refs of skill i in [start[i], start[i + 1])
+        SKILL_NAMES, SKILL_TYPES, SKILL_KEYWORD_START, SKILL_KEYWORDS, SKILL_CONTEXT_START, SKILL_CONTEXT,
+        // Keyword automaton
+        EDGE_START, EDGE_CHARS, EDGE_TARGETS, FAIL, DICT_LINK, FIRST_OUTPUT, OUTPUT_START, OUTPUTS, PATTERN_SKILLS,
+        PATTERN_LENGTHS, PATTERN_FLAGS, PATTERN_STRINGS,
+        // Role index: skill ids
+        SKILL_ID_NAMES, SKILL_ID_TABLE, CATALOG_SKILL_IDS, SKILL_ID_CATALOG_INDEXES,
+        // Role index: roles, their requirements and requirement bitsets
+        ROLE_KEYS, ROLE_REQUIREMENT_START, ROLE_REQUIREMENTS, ROLE_ALIAS_START, ROLE_ALIASES, ROLE_BIT_START,
+        ROLE_BIT_WORD_INDEXES, ROLE_BIT_WORDS,
+        // Role index: role names and aliases
+        NAMES, NAME_ROLES, NAME_TABLE, NAME_TRIGRAM_COUNTS, SHORT_NAMES, TRIGRAM_KEYS, TRIGRAM_POSTING_START,
+        TRIGRAM_POSTINGS
+    }
+
+    private final ByteBuffer buffer;
+    private final String version;
+    private final IntBuffer stringOffsets;
+    private final ByteBuffer stringBytes;
+    private final IntBuffer skillNames;
+    private final IntBuffer skillTypes;
+    private final IntBuffer skillKeywordStart;
+    private final IntBuffer skillKeywords;
+    private final IntBuffer skillContextStart;
+    private final IntBuffer skillContext;
+
+    private CatalogFile(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT
+                || buffer.getInt(8) != Section.values().length)
+            throw new IllegalStateException("Not a compiled skills catalog of format " + FORMAT);
+        this.version = version(buffer);
+        this.stringOffsets = ints(Section.STRING_OFFSETS);
+        this.stringBytes = bytes(Section.STRING_BYTES);
+        this.skillNames = ints(Section.SKILL_NAMES);
+        this.skillTypes = ints(Section.SKILL_TYPES);
+        this.skillKeywordStart = ints(Section.SKILL_KEYWORD_START);
+        this.skillKeywords = ints(Section.SKILL_KEYWORDS);
+        this.skillContextStart = ints(Section.SKILL_CONTEXT_START);
+        this.skillContext = ints(Section.SKILL_CONTEXT);
+    }
+
+    public static CatalogFile map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new CatalogFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * A catalog compiled into memory, for when it cannot be written to disk.
+     */
+    public static CatalogFile read(ByteBuffer content) {
+        return new CatalogFile(content.duplicate());
+    }
+
+    /**
+     * @return the catalog version stored in a header, without opening the rest
+     */
+    static String version(ByteBuffer header) {
+        byte[] version = new byte[VERSION_BYTES];
+        header.get(16, version);
+        int length = 0;
+        while (length < VERSION_BYTES && version[length] != 0)
+            length++;
+        return new String(version, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    // Written next to its final name and moved into place, so a concurrent reader never maps half a file
+    static void write(ByteBuffer content, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (content.hasRemaining())
+                channel.write(content);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Content hash of the skills.json the file was compiled from.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public int getSkillCount() {
+        return skillNames.limit();
+    }
+
+    public String getSkillName(int skill) {
+        return string(skillNames.get(skill));
+    }
+
+    public String getSkillType(int skill) {
+        return string(skillTypes.get(skill));
+    }
+
+    /**
+     * Materializes a catalog skill as its JSON model.
+     */
+    public SkillExtractor.SkillDef getSkill(int skill) {
+        SkillExtractor.SkillDef def = new SkillExtractor.SkillDef();
+        def.name = getSkillName(skill);
+        def.type = getSkillType(skill);
+        def.keywords = strings(skillKeywordStart, skillKeywords, skill);
+        def.context = strings(skillContextStart, skillContext, skill);
+        return def;
+    }
+
+    public List<String> getSkillKeywords(int skill) {
+        return strings(skillKeywordStart, skillKeywords, skill);
+    }
+
+    public List<String> getSkillContext(int skill) {
+        return strings(skillContextStart, skillContext, skill);
+    }
+
+    /**
+     * @return the pooled string, or null for ref -1
+     */
+    public String string(int ref) {
+        if (ref < 0)
+            return null;
+        int start = stringOffsets.get(ref);
+        byte[] utf8 = new byte[stringOffsets.get(ref + 1) - start];
+        stringBytes.get(start, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the refs in {@code refs[start[index] .. start[index + 1])} as strings
+     */
+    List<String> strings(IntBuffer start, IntBuffer refs, int index) {
+        int from = start.get(index);
+        int to = start.get(index + 1);
+        List<String> strings = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            strings.add(string(refs.get(i)));
+        }
+        return strings;
+    }
+
+    IntBuffer ints(Section section) {
+        return slice(section).asIntBuffer();
+    }
+
+    LongBuffer longs(Section section) {
+        return slice(section).asLongBuffer();
+    }
+
+    CharBuffer chars(Section section) {
+        return slice(section).asCharBuffer();
+    }
+
+    ByteBuffer bytes(Section section) {
+        return slice(section);
+    }
+
+    private ByteBuffer slice(Section section) {
+        int entry = HEADER_BYTES + 8 * section.ordinal();
+        return buffer.slice(buffer.getInt(entry), buffer.getInt(entry + 4)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,121 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AnalysisCacheStore} keeping one JSON file per entry in a directory,
+ * so cached analyses survive restarts. The write time of each entry is kept
+ * in memory (rebuilt from the directory at startup) to drive TTL and
+ * oldest-first eviction without touching the disk.
+ */
+public class DiskAnalysisCacheStore implements AnalysisCacheStore {
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Long> writtenAt = new ConcurrentHashMap<>();
+
+    public DiskAnalysisCacheStore(Path directory, int maxEntries, long ttlMillis) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    writtenAt.put(name.substring(0, name.length() - SUFFIX.length()),
+                            Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open analysis cache directory " + directory, e);
+        }
+    }
+
+    @Override
+    public AnalysisResponse get(String key) {
+        Long written = writtenAt.get(key);
+        if (written == null)
+            return null;
+        if (written + ttlMillis < System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(fileFor(key), StandardCharsets.UTF_8)) {
+            return JsonSupport.GSON.fromJson(reader, AnalysisResponse.class);
+        } catch (Exception e) {
+            // Unreadable or concurrently evicted entry: treat as a miss
+            remove(key);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, AnalysisResponse response) {
+        Path target = fileFor(key);
+        try {
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                JsonSupport.GSON.toJson(response, writer);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenAt.put(key, System.currentTimeMillis());
+        } catch (IOException e) {
+            System.err.println("Analysis cache write failed: " + e.getMessage());
+            return;
+        }
+        evictOverflow();
+    }
+
+    @Override
+    public int size() {
+        return writtenAt.size();
+    }
+
+    @Override
+    public void clear() {
+        for (String key : writtenAt.keySet()) {
+            remove(key);
+        }
+    }
+
+    private void evictOverflow() {
+        int overflow = writtenAt.size() - maxEntries;
+        if (overflow <= 0)
+            return;
+        writtenAt.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                .limit(overflow)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(this::remove);
+    }
+
+    private void remove(String key) {
+        writtenAt.remove(key);
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            // Best effort; the entry is already dropped from the index
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+}
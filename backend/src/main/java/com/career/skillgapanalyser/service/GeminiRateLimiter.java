@@ -0,0 +1,157 @@
+package com.career.skillgapanalyser.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * MODULE: Gemini Rate Limiting
+ * One token bucket per API key, mirroring Gemini's per-key quota. Callers
+ * over the rate are not rejected but handed a future that completes once
+ * their token is due; only when a key already has {@code maxQueued} waiting
+ * calls do new ones fail with {@link RejectedExecutionException}. No thread
+ * is blocked while waiting.
+ */
+public class GeminiRateLimiter {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxQueued;
+    private final LongConsumer waitRecorder;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param waitRecorder receives the wait of every admitted call in nanos,
+     *                     zero when a token was available right away
+     */
+    public GeminiRateLimiter(int requestsPerMinute, int burst, int maxQueued, LongConsumer waitRecorder) {
+        this.tokensPerNano = Math.max(1, requestsPerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.maxQueued = maxQueued;
+        this.waitRecorder = waitRecorder;
+    }
+
+    /**
+     * Reserves the next token for the key.
+     *
+     * @return a future completing when the call may be sent
+     */
+    public CompletableFuture<Void> acquire(String apiKey) {
+        if (buckets.size() > PURGE_THRESHOLD) {
+            long now = System.nanoTime();
+            buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+        Bucket bucket = buckets.computeIfAbsent(apiKey == null ? "" : apiKey, k -> new Bucket());
+
+        long waitNanos = bucket.reserve(System.nanoTime());
+        if (waitNanos < 0) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Gemini rate limit queue is full for this API key"));
+        }
+
+        acquired.incrementAndGet();
+        waitRecorder.accept(waitNanos);
+        if (waitNanos == 0)
+            return CompletableFuture.completedFuture(null);
+
+        delayed.incrementAndGet();
+        return CompletableFuture.runAsync(bucket::release,
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Holds back every call for the key for the given time, e.g. after
+     * Gemini answered 429 with a Retry-After header.
+     */
+    public void penalize(String apiKey, long delayMillis) {
+        Bucket bucket = buckets.computeIfAbsent(apiKey == null ? "" : apiKey, k -> new Bucket());
+        bucket.blockFor(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(delayMillis));
+    }
+
+    public long getAcquiredCount() {
+        return acquired.get();
+    }
+
+    /**
+     * @return calls that had to wait for a token
+     */
+    public long getDelayedCount() {
+        return delayed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return calls currently waiting for a token, over all keys
+     */
+    public int getQueued() {
+        int queued = 0;
+        for (Bucket bucket : buckets.values()) {
+            queued += bucket.getWaiting();
+        }
+        return queued;
+    }
+
+    private class Bucket {
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+        private long blockedUntil;
+        private int waiting;
+
+        /**
+         * Takes a token, going into debt when none is left; the debt is what
+         * makes later callers wait in FIFO order.
+         *
+         * @return nanos to wait, or -1 if too many calls are already waiting
+         */
+        synchronized long reserve(long now) {
+            refill(now);
+            long blockedNanos = Math.max(0, blockedUntil - now);
+            if (tokens >= 1 && blockedNanos == 0) {
+                tokens -= 1;
+                return 0;
+            }
+            if (waiting >= maxQueued)
+                return -1;
+            tokens -= 1;
+            waiting++;
+            long tokenNanos = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+            return Math.max(1, Math.max(tokenNanos, blockedNanos));
+        }
+
+        synchronized void release() {
+            waiting--;
+        }
+
+        synchronized void blockFor(long now, long nanos) {
+            blockedUntil = Math.max(blockedUntil, now + nanos);
+        }
+
+        synchronized int getWaiting() {
+            return waiting;
+        }
+
+        synchronized boolean isIdle(long now) {
+            refill(now);
+            return waiting == 0 && tokens >= burst && blockedUntil - now <= 0;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
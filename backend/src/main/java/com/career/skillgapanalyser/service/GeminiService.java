@@ -1,22 +1,281 @@
 package com.career.skillgapanalyser.service;
 
-import com.google.gson.Gson;
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.SkillDto;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class GeminiService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final Gson gson = new Gson();
+    private static final String GENERATE_PATH = "/v1beta/models/gemini-1.5-flash:generateContent?key=";
+    private static final String STREAM_PATH = "/v1beta/models/gemini-1.5-flash:streamGenerateContent?alt=sse&key=";
+
+    // Skill categories of the model's answer and the DTO type each maps to
+    private static final List<String> SKILL_CATEGORIES = List.of("technical", "soft", "nonTechnical");
+    private static final List<String> SKILL_TYPES = List.of("technical", "soft", "professional");
+
+    private static final int MAX_TRANSLATION_TOKENS = 8192;
+    // The full-text prompt quotes at most this much of the resume
+    private static final int MAX_PROMPT_RESUME_CHARS = 15000;
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final InFlightLimiter inFlightLimiter;
+    private final AnalysisMetrics metrics;
+    private final GeminiRateLimiter rateLimiter;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+    private final int defaultMaxOutputTokens;
+    private final boolean coalesce;
+
+    // Identical prompts (same key) currently on the wire; later callers share the first call's result
+    private final Map<String, CompletableFuture<String>> pendingPrompts = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    public GeminiService(HttpClient geminiHttpClient, AnalysisMetrics metrics,
+            @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com}") String baseUrl,
+            @Value("${gemini.http.request-timeout-ms:60000}") long requestTimeoutMs,
+            @Value("${gemini.http.max-in-flight:32}") int maxInFlight,
+            @Value("${gemini.http.max-queued:256}") int maxQueued,
+            @Value("${gemini.rate.requests-per-minute:60}") int requestsPerMinute,
+            @Value("${gemini.rate.burst:10}") int burst,
+            @Value("${gemini.rate.max-queued-per-key:100}") int maxQueuedPerKey,
+            @Value("${gemini.retry.max-attempts:3}") int maxAttempts,
+            @Value("${gemini.retry.base-delay-ms:500}") long retryBaseDelayMs,
+            @Value("${gemini.retry.max-delay-ms:30000}") long retryMaxDelayMs,
+            @Value("${gemini.generation.max-output-tokens:2048}") int defaultMaxOutputTokens,
+            @Value("${gemini.coalesce.enabled:true}") boolean coalesce) {
+        this.httpClient = geminiHttpClient;
+        this.metrics = metrics;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.inFlightLimiter = new InFlightLimiter(maxInFlight, maxQueued);
+        this.rateLimiter = new GeminiRateLimiter(requestsPerMinute, burst, maxQueuedPerKey,
+                metrics::recordRateLimitWait);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        this.retryMaxDelayMs = retryMaxDelayMs;
+        this.defaultMaxOutputTokens = defaultMaxOutputTokens;
+        this.coalesce = coalesce;
+    }
+
+    public GeminiRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public InFlightLimiter getInFlightLimiter() {
+        return inFlightLimiter;
+    }
+
+    /**
+     * @return calls that were answered by an identical call already in flight
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getRetryCount() {
+        return retries.get();
+    }
 
     public String generateContent(String prompt, String apiKey) {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash:generateContent?key="
-                + apiKey;
+        return generateContent(prompt, apiKey, AnalysisMetrics.STAGE_GENERATE);
+    }
+
+    /**
+     * @param stage pipeline stage the call is accounted to in the metrics
+     */
+    public String generateContent(String prompt, String apiKey, String stage) {
+        return generateContentAsync(prompt, apiKey, stage).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #generateContent}. Completes with the
+     * model text, or null on any transport, HTTP or parse failure. Concurrent
+     * calls with the same prompt and key share one upstream request, unless
+     * {@code gemini.coalesce.enabled} is off.
+     */
+    public CompletableFuture<String> generateContentAsync(String prompt, String apiKey) {
+        return generateContentAsync(prompt, apiKey, AnalysisMetrics.STAGE_GENERATE);
+    }
+
+    public CompletableFuture<String> generateContentAsync(String prompt, String apiKey, String stage) {
+        return generateContentAsync(prompt, apiKey, stage, defaultMaxOutputTokens);
+    }
+
+    /**
+     * @param maxOutputTokens output budget of the call; answers cut off at the
+     * budget are usually invalid JSON, so size it to what the prompt asks for
+     */
+    public CompletableFuture<String> generateContentAsync(String prompt, String apiKey, String stage,
+            int maxOutputTokens) {
+        String promptKey = AnalysisCache.sha256((apiKey + "\n" + maxOutputTokens + "\n" + prompt)
+                .getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<String> shared = new CompletableFuture<>();
+        CompletableFuture<String> pending = coalesce ? pendingPrompts.putIfAbsent(promptKey, shared) : null;
+        if (pending != null) {
+            coalesced.incrementAndGet();
+            // A copy, so one caller cancelling or completing it cannot affect the others
+            return pending.copy();
+        }
+
+        HttpRequest request = buildRequest(GENERATE_PATH, prompt, apiKey, maxOutputTokens);
+        sendWithRetry(apiKey, stage, () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200)
+                        throw new GeminiHttpException(response.statusCode(), response.headers());
+                    String text = extractTextFromResponse(response.body());
+                    if (text == null)
+                        metrics.recordGeminiParseFailure(stage);
+                    return text;
+                }), 1)
+                .exceptionally(e -> {
+                    System.err.println("Gemini call failed: " + unwrap(e).getMessage());
+                    return null;
+                })
+                .whenComplete((text, error) -> {
+                    pendingPrompts.remove(promptKey, shared);
+                    shared.complete(text);
+                });
+        return shared.copy();
+    }
+
+    /**
+     * Streaming variant using Gemini's server-sent-events API. Every text
+     * fragment is handed to {@code onText} as soon as it arrives; the future
+     * completes with the full text, or exceptionally on transport or HTTP
+     * failure.
+     */
+    public CompletableFuture<String> streamContentAsync(String prompt, String apiKey, Consumer<String> onText) {
+        HttpRequest request = buildRequest(STREAM_PATH, prompt, apiKey, defaultMaxOutputTokens);
+
+        return sendWithRetry(apiKey, AnalysisMetrics.STAGE_ANALYZE, () -> {
+            SseTextSubscriber subscriber = new SseTextSubscriber(onText);
+            httpClient.sendAsync(request, responseInfo -> responseInfo.statusCode() == 200
+                    ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber)
+                    : HttpResponse.BodySubscribers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            subscriber.done.completeExceptionally(error);
+                        } else if (response.statusCode() != 200) {
+                            // Nothing was streamed yet, so the call can safely be retried
+                            subscriber.done.completeExceptionally(
+                                    new GeminiHttpException(response.statusCode(), response.headers()));
+                        }
+                    });
+            // The slot is held until the last event arrived, not just the response headers
+            return subscriber.done;
+        }, 1);
+    }
+
+    /**
+     * Runs the call once its API key has a rate-limit token and a connection
+     * slot is free. HTTP 429 and 5xx answers are retried with jittered
+     * exponential backoff; a Retry-After header takes precedence and also
+     * holds back every other call for the same key.
+     */
+    private <T> CompletableFuture<T> sendWithRetry(String apiKey, String stage, Supplier<CompletableFuture<T>> call,
+            int attempt) {
+        long startedAt = System.nanoTime();
+        return rateLimiter.acquire(apiKey)
+                .thenCompose(ignored -> inFlightLimiter.submit(call))
+                .handle((value, error) -> {
+                    Throwable cause = error == null ? null : unwrap(error);
+                    recordAttempt(System.nanoTime() - startedAt, stage, cause);
+                    if (cause == null)
+                        return CompletableFuture.completedFuture(value);
+
+                    if (!(cause instanceof GeminiHttpException http) || !http.isRetryable() || attempt >= maxAttempts)
+                        return CompletableFuture.<T>failedFuture(cause);
+
+                    long delayMs = http.retryAfterMillis >= 0 ? http.retryAfterMillis : backoffMillis(attempt);
+                    if (delayMs > retryMaxDelayMs)
+                        return CompletableFuture.<T>failedFuture(cause);
+                    if (http.statusCode == 429)
+                        rateLimiter.penalize(apiKey, delayMs);
+
+                    retries.incrementAndGet();
+                    System.err.println("Gemini returned HTTP " + http.statusCode + ", retry " + attempt + " of "
+                            + (maxAttempts - 1) + " in " + delayMs + " ms");
+                    return CompletableFuture.runAsync(() -> {
+                    }, CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> sendWithRetry(apiKey, stage, call, attempt + 1));
+                })
+                .thenCompose(result -> result);
+    }
+
+    private void recordAttempt(long nanos, String stage, Throwable cause) {
+        String outcome;
+        String status;
+        if (cause == null) {
+            outcome = "success";
+            status = "200";
+        } else if (cause instanceof GeminiHttpException http) {
+            outcome = http.statusCode == 429 ? "throttled" : "http_error";
+            status = String.valueOf(http.statusCode);
+        } else if (cause instanceof RejectedExecutionException) {
+            outcome = "rejected";
+            status = "none";
+        } else if (cause instanceof HttpTimeoutException) {
+            outcome = "timeout";
+            status = "none";
+        } else {
+            outcome = "error";
+            status = "none";
+        }
+        metrics.recordGeminiCall(nanos, stage, outcome, status);
+    }
+
+    // "Full jitter": uniform in [0, base * 2^(attempt-1)], capped
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private HttpRequest buildRequest(String path, String prompt, String apiKey, int maxOutputTokens) {
+        String url = baseUrl + path + apiKey;
 
         // Construct Request Body
         JsonObject part = new JsonObject();
@@ -37,42 +296,196 @@ public class GeminiService {
         // Add Generation Config for Randomness
         JsonObject generationConfig = new JsonObject();
         generationConfig.addProperty("temperature", 1.5); // High creativity
-        generationConfig.addProperty("maxOutputTokens", 2048);
+        generationConfig.addProperty("maxOutputTokens", maxOutputTokens);
         generationConfig.addProperty("topP", 0.95);
         generationConfig.addProperty("topK", 40);
         requestBody.add("generationConfig", generationConfig);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JsonSupport.GSON.toJson(requestBody)))
+                .build();
+    }
 
-        HttpEntity<String> entity = new HttpEntity<>(gson.toJson(requestBody), headers);
+    // Streams to candidates[0].content.parts[0].text without building a tree of the response
+    private static String extractTextFromResponse(String responseBody) {
+        try (JsonReader reader = new JsonReader(new StringReader(responseBody))) {
+            reader.beginObject();
+            if (!JsonSupport.seek(reader, "candidates"))
+                return null;
+            reader.beginArray();
+            if (!reader.hasNext())
+                return null;
+            reader.beginObject();
+            if (!JsonSupport.seek(reader, "content"))
+                return null;
+            reader.beginObject();
+            if (!JsonSupport.seek(reader, "parts"))
+                return null;
+            reader.beginArray();
+            if (!reader.hasNext())
+                return null;
+            reader.beginObject();
+            if (!JsonSupport.seek(reader, "text"))
+                return null;
+            return JsonSupport.nextStringOrNull(reader);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public AnalysisResponse analyzeResumeWithGemini(String resumeText, String roleId, String blueprint,
+            String apiKey) {
+        return analyzeResumeWithGeminiAsync(resumeText, roleId, blueprint, apiKey).join();
+    }
+
+    /**
+     * Completes with the model's analysis mapped onto the response DTO, or
+     * null when Gemini produced no usable answer.
+     */
+    public CompletableFuture<AnalysisResponse> analyzeResumeWithGeminiAsync(String resumeText, String roleId,
+            String blueprint, String apiKey) {
+        String prompt = buildAnalysisPrompt(resumeText, roleId, blueprint);
+        metrics.recordAnalysisPrompt("full", prompt.length(), prompt.length());
+        return generateContentAsync(prompt, apiKey, AnalysisMetrics.STAGE_ANALYZE)
+                .thenApply(this::parseAnalysis);
+    }
+
+    /**
+     * MODULE: Hybrid Analysis
+     * Sends the evidence of the static pass instead of the resume text:
+     * Gemini scores the depth of the skills already found and writes the
+     * gaps, roadmap and feedback, and the answer is completed with the
+     * locally matched (and, with a blueprint, missing) skills.
+     *
+     * @param resumeChars length of the text the evidence was collected from,
+     * to record how much smaller the prompt is than the full-text one
+     */
+    public CompletableFuture<AnalysisResponse> analyzeEvidenceWithGeminiAsync(ResumeEvidence evidence,
+            int resumeChars, String roleId, String blueprint, String apiKey) {
+        return generateContentAsync(buildHybridPrompt(evidence, resumeChars, roleId, blueprint), apiKey,
+                AnalysisMetrics.STAGE_ANALYZE)
+                .thenApply(answer -> mergeEvidence(evidence, parseAnalysis(answer)));
+    }
 
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            if (response.getStatusCode() == HttpStatus.OK) {
-                return extractTextFromResponse(response.getBody());
+    /**
+     * Streaming variant of {@link #analyzeEvidenceWithGeminiAsync}. The
+     * locally known "matchedSkills" (and "missingSkills" with a blueprint)
+     * sections are handed to {@code onSection} before the call is made.
+     */
+    public CompletableFuture<AnalysisResponse> streamAnalyzeEvidenceWithGemini(ResumeEvidence evidence,
+            int resumeChars, String roleId, String blueprint, String apiKey,
+            BiConsumer<String, JsonElement> onSection) {
+        onSection.accept("matchedSkills", evidence.matchedSection());
+        if (evidence.hasBlueprint())
+            onSection.accept("missingSkills", evidence.missingSection());
+        JsonSectionStreamer sections = new JsonSectionStreamer(onSection);
+        return streamContentAsync(buildHybridPrompt(evidence, resumeChars, roleId, blueprint), apiKey, sections::feed)
+                .thenApply(answer -> mergeEvidence(evidence, parseAnalysis(answer)));
+    }
+
+    private static AnalysisResponse mergeEvidence(ResumeEvidence evidence, AnalysisResponse aiResponse) {
+        return aiResponse == null ? null : evidence.merge(aiResponse);
+    }
+
+    // Package-private for AnalysisPromptBenchmark
+    String buildHybridPrompt(ResumeEvidence evidence, int resumeChars, String roleId, String blueprint) {
+        String prompt = """
+                You are a Domain-Based Skill Gap Analysis Engine.
+
+                A keyword matcher has already extracted the candidate's skills from the resume. Do NOT extract
+                skills again and do NOT add skills; judge the evidence below.
+
+                Selected domain: "{{ROLE}}"
+                Domain skill blueprint:
+                {{BLUEPRINT}}
+
+                DETECTED SKILLS (name [type] mentions; sections; evidence lines):
+                {{SKILLS}}
+
+                EVIDENCE LINES (resume section in parentheses):
+                {{LINES}}
+
+                {{MISSING}}
+
+                TASKS:
+                1. Score every detected skill 0-100 for the depth its evidence shows: hands-on use in experience
+                   or projects scores higher than a mention in a skills list.
+                2. Score the overall fit for "{{ROLE}}" 0-100.
+                3. Explain the critical gaps, build a learning roadmap and give resume feedback.
+
+                OUTPUT FORMAT (JSON ONLY):
+                {
+                  "overallScore": 80,
+                  "skillScores": { "DetectedSkill": 85 },{{MISSING_FIELD}}
+                  "criticalGaps": [
+                     { "skill": "Skill Name", "reason": "Why it is critical", "learningUrl": "https://google.com/search?q=learn+Skill", "sourceName": "Google" }
+                  ],
+                  "roadmap": [
+                     { "title": "Phase 1: Basics", "duration": "2 Weeks", "tasks": ["Learn X"] }
+                  ],
+                  "resumeFeedback": {
+                     "score": 70,
+                     "strengths": ["List strengths"],
+                     "summary": "Summary...",
+                     "missingKeywords": ["List missing"],
+                     "actionableFeedback": [{ "type": "content", "tip": "tip" }]
+                  },
+                  "readinessLevel": "Junior | Mid | Senior",
+                  "gapSummary": "Summary string"
+                }
+                """;
+
+        StringBuilder skills = new StringBuilder();
+        for (ResumeEvidence.SkillEvidence skill : evidence.getSkills()) {
+            skills.append(skills.length() > 0 ? "\n" : "").append("- ").append(skill.getName())
+                    .append(" [").append(skill.getType()).append("] x").append(skill.getMentions())
+                    .append("; ").append(String.join(", ", skill.getSections()));
+            if (!skill.getLines().isEmpty()) {
+                skills.append("; lines ");
+                for (int i = 0; i < skill.getLines().size(); i++) {
+                    skills.append(i > 0 ? "," : "").append(skill.getLines().get(i));
+                }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return null;
-    }
-
-    private String extractTextFromResponse(String responseBody) {
-        try {
-            JsonObject json = JsonParser.parseString(responseBody).getAsJsonObject();
-            return json.getAsJsonArray("candidates")
-                    .get(0).getAsJsonObject()
-                    .getAsJsonObject("content")
-                    .getAsJsonArray("parts")
-                    .get(0).getAsJsonObject()
-                    .get("text").getAsString();
-        } catch (Exception e) {
-            return null;
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < evidence.getLines().size(); i++) {
+            lines.append(i > 0 ? "\n" : "").append(i).append(": ").append(evidence.getLines().get(i));
         }
+
+        String missing;
+        String missingField;
+        if (evidence.hasBlueprint()) {
+            List<String> names = new ArrayList<>();
+            for (SkillDto skill : evidence.getMissing()) {
+                names.add(skill.getName());
+            }
+            missing = "BLUEPRINT SKILLS NOT FOUND IN THE RESUME: " + JsonSupport.GSON.toJson(names);
+            missingField = "";
+        } else {
+            // Without a blueprint only Gemini knows what the role requires
+            missing = "[DYNAMIC MODE] List in \"missingSkills\" the skills CRITICAL for \"{{ROLE}}\" that are"
+                    + " absent from the detected skills. Focus on HARD SKILLS first.";
+            missingField = "\n  \"missingSkills\": { \"technical\": [], \"soft\": [], \"nonTechnical\": [] },";
+        }
+
+        String hybrid = prompt
+                .replace("{{MISSING}}", missing)
+                .replace("{{MISSING_FIELD}}", missingField)
+                .replace("{{ROLE}}", roleId)
+                .replace("{{BLUEPRINT}}", blueprint)
+                .replace("{{SKILLS}}", skills)
+                .replace("{{LINES}}", lines);
+        // The full-text prompt minus its resume text costs no more than a blueprint lookup
+        int fullChars = buildAnalysisPrompt("", roleId, blueprint).length()
+                + Math.min(resumeChars, MAX_PROMPT_RESUME_CHARS);
+        metrics.recordAnalysisPrompt("hybrid", hybrid.length(), fullChars);
+        return hybrid;
     }
 
-    public String analyzeResumeWithGemini(String resumeText, String roleId, String blueprint, String apiKey) {
+    // Package-private for AnalysisPromptBenchmark
+    String buildAnalysisPrompt(String resumeText, String roleId, String blueprint) {
         String prompt = """
                                 You are a Domain-Based Skill Gap Analysis Engine.
 
@@ -147,143 +560,282 @@ public class GeminiService {
                                 {{RESUME_TEXT}}
                                 """;
 
-        prompt = prompt
+        return prompt
                 .replace("{{ROLE}}", roleId)
                 .replace("{{BLUEPRINT}}", blueprint)
-                .replace("{{RESUME_TEXT}}", resumeText.substring(0, Math.min(resumeText.length(), 15000)));
+                .replace("{{RESUME_TEXT}}", resumeText.substring(0, Math.min(resumeText.length(), MAX_PROMPT_RESUME_CHARS)));
+    }
 
-        String jsonResponse = generateContent(prompt, apiKey);
+    /**
+     * Streams the analysis: each top-level section of the model's JSON answer
+     * (matchedSkills, roadmap, ...) is handed to {@code onSection} as soon as
+     * it is complete. The future completes with the same response as
+     * {@link #analyzeResumeWithGeminiAsync}.
+     */
+    public CompletableFuture<AnalysisResponse> streamAnalyzeResumeWithGemini(String resumeText, String roleId, String blueprint,
+            String apiKey, BiConsumer<String, JsonElement> onSection) {
+        JsonSectionStreamer sections = new JsonSectionStreamer(onSection);
+        return streamContentAsync(buildAnalysisPrompt(resumeText, roleId, blueprint), apiKey, sections::feed)
+                .thenApply(this::parseAnalysis);
+    }
 
-        if (jsonResponse != null) {
-            try {
-                // Map the new JSON structure to the existing AnalysisResponse DTO for frontend
-                // compatibility
-                JsonObject root = JsonParser.parseString(jsonResponse.replace("```json", "").replace("```", "").trim())
-                        .getAsJsonObject();
-
-                com.career.skillgapanalyser.dto.AnalysisResponse.Builder builder = com.career.skillgapanalyser.dto.AnalysisResponse
-                        .builder();
-
-                // 0. Parse Overall Score and Skill Scores
-                int overallScore = 0;
-                if (root.has("overallScore")) {
-                    overallScore = root.get("overallScore").getAsInt();
-                    builder.overallScore(overallScore);
-                }
+    /**
+     * Renders a role blueprint as the prompt fragment expected by
+     * {@link #analyzeResumeWithGemini}.
+     */
+    public String describeBlueprint(SkillExtractor.SkillData.RoleDef blueprint) {
+        if (blueprint == null) {
+            return "   [DYNAMIC MODE] Strict Blueprint not found in database. Please infer industry standards for this role.";
+        }
+        return "   - Technical: " + JsonSupport.GSON.toJson(blueprint.tech) + "\n" +
+                "   - Soft: " + JsonSupport.GSON.toJson(blueprint.soft) + "\n" +
+                "   - Professional: " + JsonSupport.GSON.toJson(blueprint.prof);
+    }
 
-                java.util.Map<String, Integer> skillScores = new java.util.HashMap<>();
-                if (root.has("skillScores")) {
-                    JsonObject scoresObj = root.getAsJsonObject("skillScores");
-                    for (String key : scoresObj.keySet()) {
-                        skillScores.put(key, scoresObj.get(key).getAsInt());
-                    }
-                    builder.skillScores(skillScores);
+    /**
+     * Maps the model's answer (the schema requested in the analysis prompt)
+     * onto {@link AnalysisResponse} in a single streaming pass; no JSON tree
+     * or intermediate JSON string is built.
+     *
+     * @return null if the answer is not usable, so callers fall back to the
+     * static analysis
+     */
+    // Package-private for AnalysisJsonBenchmark
+    AnalysisResponse parseAnalysis(String modelAnswer) {
+        if (modelAnswer == null)
+            return null;
+        try (JsonReader reader = new JsonReader(new StringReader(JsonSupport.stripCodeFence(modelAnswer)))) {
+            // Lenient like JsonParser: models echo the prompt's "// comment" style now and then
+            reader.setLenient(true);
+
+            AnalysisResponse.Builder builder = AnalysisResponse.builder();
+            Map<String, Integer> skillScores = null;
+            List<List<String>> matched = null;
+            List<List<String>> missing = null;
+            List<String> extra = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
                 }
-
-                // 1. Flatten Matches + Extras -> Extracted
-                java.util.List<com.career.skillgapanalyser.dto.SkillDto> extracted = new java.util.ArrayList<>();
-
-                JsonObject matched = root.has("matchedSkills") ? root.getAsJsonObject("matchedSkills") : null;
-                if (matched != null) {
-                    if (matched.has("technical"))
-                        addSkills(extracted, matched.getAsJsonArray("technical"), "technical", skillScores);
-                    if (matched.has("soft"))
-                        addSkills(extracted, matched.getAsJsonArray("soft"), "soft", skillScores);
-                    if (matched.has("nonTechnical"))
-                        addSkills(extracted, matched.getAsJsonArray("nonTechnical"), "professional", skillScores);
+                switch (name) {
+                    case "overallScore" -> builder.overallScore((int) reader.nextDouble());
+                    case "skillScores" -> skillScores = readScores(reader);
+                    case "matchedSkills" -> matched = readCategories(reader);
+                    case "missingSkills" -> missing = readCategories(reader);
+                    case "extraSkills" -> extra = readStrings(reader);
+                    case "criticalGaps" -> builder.criticalGaps(
+                            JsonSupport.GSON.fromJson(reader, JsonSupport.CRITICAL_GAP_LIST));
+                    case "roadmap" -> builder.roadmap(
+                            JsonSupport.GSON.fromJson(reader, JsonSupport.ROADMAP_PHASE_LIST));
+                    case "resumeFeedback" -> builder.resumeFeedback(
+                            JsonSupport.GSON.fromJson(reader, AnalysisResponse.ResumeFeedback.class));
+                    case "readinessLevel" -> builder.readinessLevel(reader.nextString());
+                    case "gapSummary" -> builder.gapSummary(reader.nextString());
+                    default -> reader.skipValue();
                 }
+            }
 
-                JsonArray extra = root.getAsJsonArray("extraSkills");
-                if (extra != null) {
-                    for (com.google.gson.JsonElement e : extra) {
-                        String name = e.getAsString();
-                        int score = skillScores.getOrDefault(name, 50); // Default 50 for extra
-                        extracted.add(new com.career.skillgapanalyser.dto.SkillDto(name, "technical",
-                                "extra_" + name, score));
-                    }
-                }
-                builder.extracted(extracted);
-
-                // 2. Map Missing
-                java.util.List<com.career.skillgapanalyser.dto.SkillDto> missing = new java.util.ArrayList<>();
-                if (root.has("missingSkills")) {
-                    JsonObject missingObj = root.getAsJsonObject("missingSkills");
-                    if (missingObj != null) {
-                        if (missingObj.has("technical"))
-                            addSkills(missing, missingObj.getAsJsonArray("technical"), "technical", null);
-                        if (missingObj.has("soft"))
-                            addSkills(missing, missingObj.getAsJsonArray("soft"), "soft", null);
-                        if (missingObj.has("nonTechnical"))
-                            addSkills(missing, missingObj.getAsJsonArray("nonTechnical"), "professional", null);
-                    }
+            // Scores may come after the skill lists, so the DTOs are built once the object is read
+            if (skillScores != null)
+                builder.skillScores(skillScores);
+            Map<String, Integer> scores = skillScores != null ? skillScores : Map.of();
+
+            List<SkillDto> extracted = new ArrayList<>();
+            if (matched != null)
+                addSkills(extracted, matched, scores);
+            if (extra != null) {
+                for (String skill : extra) {
+                    extracted.add(new SkillDto(skill, "technical", "extra_" + skill, scores.getOrDefault(skill, 50)));
                 }
-                builder.missing(missing);
+            }
+            builder.extracted(extracted);
 
-                // 3. Map Critical Gaps
-                if (root.has("criticalGaps")) {
-                    java.lang.reflect.Type listType = new com.google.gson.reflect.TypeToken<java.util.List<com.career.skillgapanalyser.dto.AnalysisResponse.CriticalGap>>() {
-                    }.getType();
-                    builder.criticalGaps(gson.fromJson(root.get("criticalGaps"), listType));
-                }
+            List<SkillDto> missingSkills = new ArrayList<>();
+            if (missing != null)
+                addSkills(missingSkills, missing, Map.of());
+            builder.missing(missingSkills);
 
-                // 4. Map Roadmap
-                if (root.has("roadmap")) {
-                    java.lang.reflect.Type listType = new com.google.gson.reflect.TypeToken<java.util.List<com.career.skillgapanalyser.dto.AnalysisResponse.RoadmapPhase>>() {
-                    }.getType();
-                    builder.roadmap(gson.fromJson(root.get("roadmap"), listType));
-                }
+            return builder.build();
+        } catch (Exception e) {
+            System.err.println("Error mapping Gemini response: " + e.getMessage());
+            metrics.recordGeminiParseFailure(AnalysisMetrics.STAGE_ANALYZE);
+            return null; // Force fallback to Static Analysis (SkillExtractor)
+        }
+    }
 
-                // 5. Map Feedback
-                if (root.has("resumeFeedback")) {
-                    builder.resumeFeedback(gson.fromJson(root.get("resumeFeedback"),
-                            com.career.skillgapanalyser.dto.AnalysisResponse.ResumeFeedback.class));
-                }
+    // {"technical": [...], "soft": [...], "nonTechnical": [...]} -> lists in that fixed order
+    private static List<List<String>> readCategories(JsonReader reader) throws IOException {
+        List<List<String>> categories = new ArrayList<>(List.of(List.of(), List.of(), List.of()));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int index = SKILL_CATEGORIES.indexOf(reader.nextName());
+            if (index < 0 || reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+            } else {
+                categories.set(index, readStrings(reader));
+            }
+        }
+        reader.endObject();
+        return categories;
+    }
 
-                // 6. Others
-                if (root.has("readinessLevel"))
-                    builder.readinessLevel(root.get("readinessLevel").getAsString());
-                if (root.has("gapSummary"))
-                    builder.gapSummary(root.get("gapSummary").getAsString());
-
-                // Serialize back to JSON string to match the return type expected by
-                // ResumeService which deserializes it again
-                // Ideally ResumeService should accept the object, but we are fixing
-                // 'analyzeResumeWithGemini' which returns String in the interface (implied by
-                // usage)
-                // Wait, the original method returned String (JSON). ResumeService parses it.
-                // So we must return the JSON string corresponding to ANALYSIS_RESPONSE
-                // structure, NOT the user's strict structure.
-                // So we re-serialize effectively translation: AI_JSON -> DTO -> CLIENT_JSON
-
-                return gson.toJson(builder.build());
-
-            } catch (Exception e) {
-                System.err.println("Error mapping Gemini response: " + e.getMessage());
-                e.printStackTrace();
-                return null; // Force fallback to Static Analysis (SkillExtractor)
+    private static List<String> readStrings(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String value = JsonSupport.nextStringOrNull(reader);
+            if (value != null)
+                values.add(value);
+        }
+        reader.endArray();
+        return values;
+    }
+
+    private static Map<String, Integer> readScores(JsonReader reader) throws IOException {
+        Map<String, Integer> scores = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String skill = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else {
+                scores.put(skill, (int) reader.nextDouble());
+            }
+        }
+        reader.endObject();
+        return scores;
+    }
+
+    private static void addSkills(List<SkillDto> list, List<List<String>> categories, Map<String, Integer> scores) {
+        for (int c = 0; c < categories.size(); c++) {
+            String type = SKILL_TYPES.get(c);
+            for (String name : categories.get(c)) {
+                list.add(new SkillDto(name, type, "id_" + name, scores.getOrDefault(name, 0)));
             }
         }
-        return null;
     }
 
-    private void addSkills(java.util.List<com.career.skillgapanalyser.dto.SkillDto> list, JsonArray array,
-            String type, java.util.Map<String, Integer> scores) {
-        if (array == null)
-            return;
-        for (com.google.gson.JsonElement e : array) {
-            String name = e.getAsString();
-            int score = (scores != null) ? scores.getOrDefault(name, 0) : 0;
-            list.add(new com.career.skillgapanalyser.dto.SkillDto(name, type, "id_" + name, score));
+    /**
+     * Translates every segment to the target language in one call.
+     *
+     * @return the translations in segment order, or null if the call failed
+     * or the answer is not a JSON array of as many strings (only the latter
+     * counts as a parse failure)
+     */
+    public CompletableFuture<List<String>> translateSegmentsAsync(List<String> segments, String targetLanguage,
+            String apiKey) {
+        String prompt = "Translate each string of the following JSON array to " + languageName(targetLanguage)
+                + ". Keep technology, product and company names as they are. Answer with a JSON array of the"
+                + " translated strings only, in the same order and with the same number of elements:\n\n"
+                + JsonSupport.GSON.toJson(segments);
+        int sourceChars = 0;
+        for (String segment : segments) {
+            sourceChars += segment.length();
         }
+        // About one token per character covers scripts that tokenize poorly
+        int outputTokens = Math.max(defaultMaxOutputTokens, Math.min(MAX_TRANSLATION_TOKENS, sourceChars + 256));
+        // Into English is the resume on its way in, anything else an answer on its way out
+        String stage = LanguageDetector.ENGLISH.equals(targetLanguage) ? AnalysisMetrics.STAGE_TRANSLATE
+                : AnalysisMetrics.STAGE_LOCALIZE;
+        return generateContentAsync(prompt, apiKey, stage, outputTokens)
+                .thenApply(answer -> {
+                    if (answer == null)
+                        return null;
+                    try {
+                        List<String> translated = JsonSupport.GSON.fromJson(JsonSupport.stripCodeFence(answer),
+                                JsonSupport.STRING_LIST);
+                        if (translated != null && translated.size() == segments.size() && !translated.contains(null))
+                            return translated;
+                        System.err.println("Translated segments did not match the " + segments.size() + " sent");
+                    } catch (RuntimeException e) {
+                        System.err.println("Translated segments were not a JSON string array: " + e.getMessage());
+                    }
+                    metrics.recordGeminiParseFailure(stage);
+                    return null;
+                });
     }
 
-    public String localizeContent(String content, String targetLanguage, String apiKey) {
-        if ("English".equalsIgnoreCase(targetLanguage) || "en".equalsIgnoreCase(targetLanguage)
-                || targetLanguage == null) {
-            return content; // No op if English
+    // The model follows "French" more reliably than "fr"
+    private static String languageName(String language) {
+        String name = Locale.forLanguageTag(language).getDisplayLanguage(Locale.ENGLISH);
+        return name.isEmpty() ? language : name;
+    }
+
+    /**
+     * Non-200 answer from Gemini, carrying what is needed to decide on a retry.
+     */
+    private static class GeminiHttpException extends RuntimeException {
+        private final int statusCode;
+        private final long retryAfterMillis;
+
+        GeminiHttpException(int statusCode, HttpHeaders headers) {
+            super("Gemini call failed with HTTP " + statusCode);
+            this.statusCode = statusCode;
+            this.retryAfterMillis = parseRetryAfter(headers.firstValue("Retry-After").orElse(null));
+        }
+
+        boolean isRetryable() {
+            return statusCode == 429 || statusCode >= 500;
+        }
+
+        // Retry-After is either delta-seconds or an HTTP date; -1 if absent or unparseable
+        private static long parseRetryAfter(String value) {
+            if (value == null || value.isBlank())
+                return -1;
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+                } catch (Exception ignored) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the text fragments of a streamGenerateContent SSE response.
+     * Each "data:" line carries one partial GenerateContentResponse.
+     */
+    private static class SseTextSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> onText;
+        private final StringBuilder text = new StringBuilder();
+        private final CompletableFuture<String> done = new CompletableFuture<>();
+
+        SseTextSubscriber(Consumer<String> onText) {
+            this.onText = onText;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:"))
+                return;
+            String fragment = extractTextFromResponse(line.substring("data:".length()).trim());
+            if (fragment != null) {
+                text.append(fragment);
+                onText.accept(fragment);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(text.toString());
         }
-        String prompt = "Translate the following JSON or Text content to " + targetLanguage
-                + ". Preserve the JSON structure EXACTLY if it is JSON. Only translate values, not keys:\n\n" + content;
-        return generateContent(prompt, apiKey);
     }
 }
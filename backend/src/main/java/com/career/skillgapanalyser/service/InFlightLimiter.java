@@ -0,0 +1,99 @@
+package com.career.skillgapanalyser.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrently running asynchronous calls without
+ * blocking the caller. Calls beyond the cap wait in a bounded FIFO queue and
+ * are started by whichever call completes next; once the queue is full new
+ * calls fail fast with {@link RejectedExecutionException}.
+ */
+public class InFlightLimiter {
+
+    // Calls handed a slot by a release further up this thread's stack, run by that release's loop
+    private static final ThreadLocal<Deque<Runnable>> HANDOFFS = new ThreadLocal<>();
+
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    public InFlightLimiter(int maxInFlight, int maxQueued) {
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> running;
+            try {
+                running = call.get();
+            } catch (Throwable t) {
+                running = CompletableFuture.failedFuture(t);
+            }
+            running.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        synchronized (this) {
+            if (inFlight >= maxInFlight) {
+                if (waiting.size() >= maxQueued) {
+                    return CompletableFuture.failedFuture(
+                            new RejectedExecutionException("Too many pending calls (" + waiting.size() + ")"));
+                }
+                waiting.add(start);
+                return result;
+            }
+            inFlight++;
+        }
+        start.run();
+        return result;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiting.size();
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        // The finished call's slot is handed straight to the next waiting call. A call that completes
+        // at once releases again from inside next.run(); that hand-off is queued for the loop below
+        // instead of recursing, so a long queue of quick calls drains in constant stack depth
+        Deque<Runnable> handoffs = HANDOFFS.get();
+        if (handoffs != null) {
+            handoffs.add(next);
+            return;
+        }
+        handoffs = new ArrayDeque<>();
+        HANDOFFS.set(handoffs);
+        try {
+            do {
+                next.run();
+            } while ((next = handoffs.poll()) != null);
+        } finally {
+            HANDOFFS.remove();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Default {@link AnalysisCacheStore}: an access-ordered LRU map with a
+ * per-entry expiry. Lost on restart. Responses are kept as JSON, so every
+ * caller gets its own copy and changes to one never reach the cache.
+ */
+public class InMemoryAnalysisCacheStore implements AnalysisCacheStore {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public InMemoryAnalysisCacheStore(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public AnalysisResponse get(String key) {
+        String json;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null)
+                return null;
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            json = entry.json;
+        }
+        return JsonSupport.GSON.fromJson(json, AnalysisResponse.class);
+    }
+
+    @Override
+    public void put(String key, AnalysisResponse response) {
+        Entry entry = new Entry(JsonSupport.GSON.toJson(response), System.currentTimeMillis() + ttlMillis);
+        synchronized (this) {
+            entries.put(key, entry);
+            if (entries.size() > maxEntries) {
+                Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+                while (entries.size() > maxEntries && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        private final String json;
+        private final long expiresAt;
+
+        Entry(String json, long expiresAt) {
+            this.json = json;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
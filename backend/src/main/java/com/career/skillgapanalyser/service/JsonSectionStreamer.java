@@ -0,0 +1,112 @@
+package com.career.skillgapanalyser.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Incremental parser for a JSON object that arrives in arbitrary fragments
+ * (a streamed model answer). It tracks nesting and string state across
+ * {@link #feed} calls and reports each top-level member as soon as its value
+ * is complete, without waiting for the rest of the document.
+ *
+ * Anything before the opening brace (e.g. a ```json fence) is ignored.
+ */
+public class JsonSectionStreamer {
+
+    private final BiConsumer<String, JsonElement> listener;
+    private final StringBuilder buffer = new StringBuilder();
+
+    private int position;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private int stringStart;
+    private String lastKey;
+    private String currentKey;
+    private int valueStart = -1;
+    private boolean finished;
+
+    public JsonSectionStreamer(BiConsumer<String, JsonElement> listener) {
+        this.listener = listener;
+    }
+
+    public void feed(String fragment) {
+        if (finished)
+            return;
+        buffer.append(fragment);
+
+        for (; position < buffer.length() && !finished; position++) {
+            char c = buffer.charAt(position);
+
+            if (depth == 0) {
+                if (c == '{')
+                    depth = 1;
+                continue;
+            }
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 1 && valueStart < 0)
+                        lastKey = buffer.substring(stringStart + 1, position);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    stringStart = position;
+                }
+                case ':' -> {
+                    if (depth == 1) {
+                        currentKey = lastKey;
+                        valueStart = position + 1;
+                    }
+                }
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 1 && valueStart >= 0) {
+                        // A nested object/array member just closed
+                        emit(buffer.substring(valueStart, position + 1));
+                    } else if (depth == 0) {
+                        // Root closed; flush a trailing primitive member
+                        if (valueStart >= 0)
+                            emit(buffer.substring(valueStart, position));
+                        finished = true;
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1 && valueStart >= 0)
+                        emit(buffer.substring(valueStart, position));
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void emit(String rawValue) {
+        String key = currentKey;
+        valueStart = -1;
+        currentKey = null;
+        String trimmed = rawValue.trim();
+        if (key == null || trimmed.isEmpty())
+            return;
+        JsonElement value;
+        try {
+            value = JsonParser.parseString(trimmed);
+        } catch (RuntimeException e) {
+            // Malformed section: the final full parse decides what to do with it
+            return;
+        }
+        listener.accept(key, value);
+    }
+}
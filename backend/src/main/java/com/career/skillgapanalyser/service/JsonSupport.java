@@ -0,0 +1,68 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * MODULE: JSON Support
+ * The one JSON strategy of the service layer: a single shared Gson instance
+ * (thread-safe, so its reflective adapters are built once) and pre-built
+ * type tokens for the generic types we read. Spring MVC keeps using Jackson
+ * for request/response bodies only.
+ */
+public final class JsonSupport {
+
+    public static final Gson GSON = new Gson();
+
+    public static final Type CRITICAL_GAP_LIST = new TypeToken<List<AnalysisResponse.CriticalGap>>() {
+    }.getType();
+
+    public static final Type ROADMAP_PHASE_LIST = new TypeToken<List<AnalysisResponse.RoadmapPhase>>() {
+    }.getType();
+
+    public static final Type STRING_LIST = new TypeToken<List<String>>() {
+    }.getType();
+
+    private JsonSupport() {
+    }
+
+    /**
+     * Removes the ```json fences Gemini likes to wrap its answers in.
+     */
+    public static String stripCodeFence(String text) {
+        return text.replace("```json", "").replace("```", "").trim();
+    }
+
+    /**
+     * Advances inside the current object to the value of {@code name},
+     * skipping everything before it.
+     *
+     * @return false if the object ended without that member
+     */
+    public static boolean seek(JsonReader reader, String name) throws IOException {
+        while (reader.hasNext()) {
+            if (name.equals(reader.nextName()))
+                return true;
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * @return the next value as a string, or null for JSON null
+     */
+    public static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
@@ -0,0 +1,372 @@
+package com.career.skillgapanalyser.service;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MODULE: Keyword Matching Automaton
+ * Aho-Corasick automaton over every catalog keyword. It is built once per
+ * catalog and finds all keyword occurrences in a single left-to-right pass,
+ * so the cost of a scan depends on the text length, not on the catalog size.
+ * It is compiled into the catalog file by {@link CatalogCompiler} and its
+ * tables are read from the mapped file in place.
+ *
+ * Matching is case-insensitive and enforces word boundaries: a keyword that
+ * starts (or ends) with a letter or digit only matches when the neighbouring
+ * character is not a letter or digit ("js" does not match inside "json").
+ */
+public final class KeywordAutomaton {
+
+    private static final int ROOT = 0;
+    private static final byte BOUNDARY_BEFORE = 1;
+    private static final byte BOUNDARY_AFTER = 2;
+
+    // Trie edges, flattened: edges of node n live in [edgeStart[n], edgeStart[n + 1]), sorted by char
+    private final IntBuffer edgeStart;
+    private final CharBuffer edgeChars;
+    private final IntBuffer edgeTargets;
+
+    // Failure links, the nearest suffix node that terminates a keyword (-1 if none) and the
+    // first node to report from (the node itself if it terminates a keyword, else its dictLink)
+    private final IntBuffer fail;
+    private final IntBuffer dictLink;
+    private final IntBuffer firstOutput;
+
+    // Keywords terminating exactly at node n live in outputs[outputStart[n] .. outputStart[n + 1])
+    private final IntBuffer outputStart;
+    private final IntBuffer outputs;
+
+    // Per-keyword tables; the keyword strings are only read to report them
+    private final IntBuffer patternSkill;
+    private final IntBuffer patternLength;
+    private final ByteBuffer patternFlags;
+    private final IntBuffer patternStrings;
+    private final CatalogFile file;
+
+    private KeywordAutomaton(CatalogFile file) {
+        this.file = file;
+        this.edgeStart = file.ints(CatalogFile.Section.EDGE_START);
+        this.edgeChars = file.chars(CatalogFile.Section.EDGE_CHARS);
+        this.edgeTargets = file.ints(CatalogFile.Section.EDGE_TARGETS);
+        this.fail = file.ints(CatalogFile.Section.FAIL);
+        this.dictLink = file.ints(CatalogFile.Section.DICT_LINK);
+        this.firstOutput = file.ints(CatalogFile.Section.FIRST_OUTPUT);
+        this.outputStart = file.ints(CatalogFile.Section.OUTPUT_START);
+        this.outputs = file.ints(CatalogFile.Section.OUTPUTS);
+        this.patternSkill = file.ints(CatalogFile.Section.PATTERN_SKILLS);
+        this.patternLength = file.ints(CatalogFile.Section.PATTERN_LENGTHS);
+        this.patternFlags = file.bytes(CatalogFile.Section.PATTERN_FLAGS);
+        this.patternStrings = file.ints(CatalogFile.Section.PATTERN_STRINGS);
+    }
+
+    /**
+     * The automaton of a compiled catalog.
+     */
+    public static KeywordAutomaton read(CatalogFile file) {
+        return new KeywordAutomaton(file);
+    }
+
+    /**
+     * Builds the automaton for the given skills into the catalog file. The
+     * skill index reported by matches is the position of the skill in this
+     * list.
+     */
+    static void compile(List<SkillExtractor.SkillDef> skills, CatalogCompiler.Writer out) {
+        Builder builder = new Builder();
+        if (skills != null) {
+            for (int i = 0; i < skills.size(); i++) {
+                SkillExtractor.SkillDef skill = skills.get(i);
+                if (skill == null || skill.keywords == null)
+                    continue;
+                for (String keyword : skill.keywords) {
+                    builder.add(keyword, i);
+                }
+            }
+        }
+        builder.compile(out);
+    }
+
+    public int getNodeCount() {
+        return fail.limit();
+    }
+
+    public int getKeywordCount() {
+        return patternSkill.limit();
+    }
+
+    /**
+     * Scans the text once and reports every keyword occurrence that sits on
+     * word boundaries, in order of end position.
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int node = ROOT;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            node = step(node, normalize(text.charAt(i)));
+
+            int out = firstOutput.get(node);
+            while (out >= 0) {
+                for (int o = outputStart.get(out); o < outputStart.get(out + 1); o++) {
+                    int pattern = outputs.get(o);
+                    int start = i - patternLength.get(pattern) + 1;
+                    if (onBoundary(text, start, i + 1, patternFlags.get(pattern))) {
+                        listener.onMatch(patternSkill.get(pattern), pattern, start, i + 1);
+                    }
+                }
+                out = dictLink.get(out);
+            }
+        }
+    }
+
+    /**
+     * Convenience variant of {@link #scan} collecting every match.
+     */
+    public List<KeywordMatch> findAll(CharSequence text) {
+        List<KeywordMatch> matches = new ArrayList<>();
+        scan(text, (skill, pattern, start, end) -> matches.add(new KeywordMatch(skill, getKeyword(pattern), start, end)));
+        return matches;
+    }
+
+    public String getKeyword(int pattern) {
+        return file.string(patternStrings.get(pattern));
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int next = child(node, c);
+            if (next >= 0)
+                return next;
+            if (node == ROOT)
+                return ROOT;
+            node = fail.get(node);
+        }
+    }
+
+    private int child(int node, char c) {
+        int lo = edgeStart.get(node);
+        int hi = edgeStart.get(node + 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char midChar = edgeChars.get(mid);
+            if (midChar < c) {
+                lo = mid + 1;
+            } else if (midChar > c) {
+                hi = mid - 1;
+            } else {
+                return edgeTargets.get(mid);
+            }
+        }
+        return -1;
+    }
+
+    private static boolean onBoundary(CharSequence text, int start, int end, byte flags) {
+        if ((flags & BOUNDARY_BEFORE) != 0 && start > 0 && isWordChar(text.charAt(start - 1)))
+            return false;
+        if ((flags & BOUNDARY_AFTER) != 0 && end < text.length() && isWordChar(text.charAt(end)))
+            return false;
+        return true;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    // Case folding plus treating any whitespace (line breaks from PDF extraction) as a plain space
+    private static char normalize(char c) {
+        return Character.isWhitespace(c) ? ' ' : Character.toLowerCase(c);
+    }
+
+    /**
+     * Callback for {@link #scan}. Positions are char offsets into the scanned
+     * text, end exclusive.
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(int skillIndex, int keywordIndex, int start, int end);
+    }
+
+    public static class KeywordMatch {
+        private final int skillIndex;
+        private final String keyword;
+        private final int start;
+        private final int end;
+
+        public KeywordMatch(int skillIndex, String keyword, int start, int end) {
+            this.skillIndex = skillIndex;
+            this.keyword = keyword;
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getSkillIndex() {
+            return skillIndex;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "KeywordMatch{" +
+                    "skillIndex=" + skillIndex +
+                    ", keyword='" + keyword + '\'' +
+                    ", start=" + start +
+                    ", end=" + end +
+                    '}';
+        }
+    }
+
+    private static class Builder {
+        private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        private final List<List<Integer>> terminals = new ArrayList<>();
+        private final List<String> patterns = new ArrayList<>();
+        private final List<Integer> patternSkill = new ArrayList<>();
+
+        Builder() {
+            newNode();
+        }
+
+        private int newNode() {
+            children.add(new TreeMap<>());
+            terminals.add(new ArrayList<>());
+            return children.size() - 1;
+        }
+
+        void add(String keyword, int skillIndex) {
+            if (keyword == null)
+                return;
+            StringBuilder normalized = new StringBuilder(keyword.length());
+            for (int i = 0; i < keyword.length(); i++) {
+                normalized.append(normalize(keyword.charAt(i)));
+            }
+            String pattern = normalized.toString().trim();
+            if (pattern.isEmpty())
+                return;
+
+            int node = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = newNode();
+                    children.get(node).put(c, next);
+                }
+                node = next;
+            }
+            terminals.get(node).add(patterns.size());
+            patterns.add(pattern);
+            patternSkill.add(skillIndex);
+        }
+
+        void compile(CatalogCompiler.Writer out) {
+            int nodeCount = children.size();
+
+            // Flatten the trie edges (TreeMap keeps them sorted for binary search)
+            int[] edgeStart = new int[nodeCount + 1];
+            int edgeCount = 0;
+            for (int n = 0; n < nodeCount; n++) {
+                edgeStart[n] = edgeCount;
+                edgeCount += children.get(n).size();
+            }
+            edgeStart[nodeCount] = edgeCount;
+
+            char[] edgeChars = new char[edgeCount];
+            int[] edgeTargets = new int[edgeCount];
+            for (int n = 0; n < nodeCount; n++) {
+                int e = edgeStart[n];
+                for (Map.Entry<Character, Integer> edge : children.get(n).entrySet()) {
+                    edgeChars[e] = edge.getKey();
+                    edgeTargets[e] = edge.getValue();
+                    e++;
+                }
+            }
+
+            // Failure and dictionary links, breadth first from the root
+            int[] fail = new int[nodeCount];
+            int[] dictLink = new int[nodeCount];
+            dictLink[ROOT] = -1;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : children.get(ROOT).values()) {
+                fail[child] = ROOT;
+                dictLink[child] = -1;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                    char c = edge.getKey();
+                    int child = edge.getValue();
+
+                    int f = fail[node];
+                    Integer target = children.get(f).get(c);
+                    while (target == null && f != ROOT) {
+                        f = fail[f];
+                        target = children.get(f).get(c);
+                    }
+                    int failTarget = target != null ? target : ROOT;
+                    fail[child] = failTarget;
+                    dictLink[child] = !terminals.get(failTarget).isEmpty() ? failTarget : dictLink[failTarget];
+                    queue.add(child);
+                }
+            }
+
+            int[] outputStart = new int[nodeCount + 1];
+            int[] outputs = new int[patterns.size()];
+            int o = 0;
+            for (int n = 0; n < nodeCount; n++) {
+                outputStart[n] = o;
+                for (int pattern : terminals.get(n)) {
+                    outputs[o++] = pattern;
+                }
+            }
+            outputStart[nodeCount] = o;
+            int[] firstOutput = new int[nodeCount];
+            for (int n = 0; n < nodeCount; n++) {
+                firstOutput[n] = outputStart[n] < outputStart[n + 1] ? n : dictLink[n];
+            }
+
+            int[] skills = new int[patterns.size()];
+            int[] lengths = new int[patterns.size()];
+            byte[] flags = new byte[patterns.size()];
+            int[] strings = new int[patterns.size()];
+            for (int p = 0; p < patterns.size(); p++) {
+                String pattern = patterns.get(p);
+                skills[p] = patternSkill.get(p);
+                lengths[p] = pattern.length();
+                strings[p] = out.string(pattern);
+                if (isWordChar(pattern.charAt(0)))
+                    flags[p] |= BOUNDARY_BEFORE;
+                if (isWordChar(pattern.charAt(pattern.length() - 1)))
+                    flags[p] |= BOUNDARY_AFTER;
+            }
+
+            out.put(CatalogFile.Section.EDGE_START, edgeStart);
+            out.put(CatalogFile.Section.EDGE_CHARS, edgeChars);
+            out.put(CatalogFile.Section.EDGE_TARGETS, edgeTargets);
+            out.put(CatalogFile.Section.FAIL, fail);
+            out.put(CatalogFile.Section.DICT_LINK, dictLink);
+            out.put(CatalogFile.Section.FIRST_OUTPUT, firstOutput);
+            out.put(CatalogFile.Section.OUTPUT_START, outputStart);
+            out.put(CatalogFile.Section.OUTPUTS, outputs);
+            out.put(CatalogFile.Section.PATTERN_SKILLS, skills);
+            out.put(CatalogFile.Section.PATTERN_LENGTHS, lengths);
+            out.put(CatalogFile.Section.PATTERN_FLAGS, flags);
+            out.put(CatalogFile.Section.PATTERN_STRINGS, strings);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.career.skillgapanalyser.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MODULE: Language Detection
+ * Offline language identifier used to skip the translate-to-English Gemini
+ * call for text that is already English. Text in a non-Latin script is
+ * identified by its script; Latin-script text by comparing its most
+ * frequent character trigrams with the ranked trigram profiles bundled in
+ * language-profiles.json (Cavnar-Trenkle "out-of-place" distance), built
+ * from resume-style sample texts by LanguageProfileBuilder in src/test.
+ */
+@Service
+public class LanguageDetector {
+
+    public static final String ENGLISH = "en";
+    public static final String UNDETERMINED = "und";
+
+    private static final String PROFILES = "language-profiles.json";
+    private static final int MAX_LETTERS = 4000;
+    private static final int MIN_LETTERS = 20;
+    // Lines shorter than this are too short to judge and take the language of the document
+    private static final int MIN_SECTION_LETTERS = 40;
+    // ... as do lines with fewer letters in lower-case words: names, skills and acronyms
+    // (Java, AWS, GitHub) say nothing about the language around them
+    private static final int MIN_SECTION_EVIDENCE = 15;
+    // ... and lines whose best profile is not this much closer than the document language's;
+    // lists of skills stay within 0.10 of English, real sentences in another language beyond 0.18
+    private static final double MIN_SECTION_MARGIN = 0.15;
+
+    private final String[] languages;
+    private final int profileSize;
+    // Trigram -> its rank in each language's profile (profileSize when absent)
+    private final Map<Long, short[]> ranks = new HashMap<>();
+    private final Map<Character.UnicodeScript, String> scripts = new EnumMap<>(Character.UnicodeScript.class);
+
+    public LanguageDetector() {
+        JsonObject model;
+        try (InputStream in = new ClassPathResource(PROFILES).getInputStream()) {
+            model = JsonSupport.GSON.fromJson(new InputStreamReader(in, StandardCharsets.UTF_8), JsonObject.class);
+        } catch (IOException | JsonParseException e) {
+            throw new IllegalStateException("Failed to load " + PROFILES, e);
+        }
+
+        for (Map.Entry<String, JsonElement> script : model.getAsJsonObject("scripts").entrySet()) {
+            scripts.put(Character.UnicodeScript.valueOf(script.getKey()), script.getValue().getAsString());
+        }
+
+        JsonObject profiles = model.getAsJsonObject("profiles");
+        languages = profiles.keySet().toArray(new String[0]);
+        profileSize = model.get("profileSize").getAsInt();
+        for (int l = 0; l < languages.length; l++) {
+            JsonArray grams = profiles.getAsJsonArray(languages[l]);
+            for (int rank = 0; rank < grams.size(); rank++) {
+                short[] byLanguage = ranks.computeIfAbsent(encode(grams.get(rank).getAsString()), g -> {
+                    short[] absent = new short[languages.length];
+                    Arrays.fill(absent, (short) profileSize);
+                    return absent;
+                });
+                byLanguage[l] = (short) rank;
+            }
+        }
+    }
+
+    /**
+     * @return true for English, and for text too short to tell, which is
+     * passed through as if it were English
+     */
+    public static boolean isEnglish(String language) {
+        return ENGLISH.equals(language) || UNDETERMINED.equals(language);
+    }
+
+    /**
+     * @return the ISO 639-1 code of the text's language, or
+     * {@link #UNDETERMINED} if the text has too few letters
+     */
+    public String detect(String text) {
+        if (text == null || text.isEmpty())
+            return UNDETERMINED;
+
+        Map<Character.UnicodeScript, Integer> scriptLetters = new EnumMap<>(Character.UnicodeScript.class);
+        Map<Long, int[]> counts = new HashMap<>();
+        int letters = countTrigrams(text, MAX_LETTERS, counts, scriptLetters);
+        if (letters < MIN_LETTERS)
+            return UNDETERMINED;
+
+        Character.UnicodeScript dominant = dominantScript(scriptLetters);
+        if (dominant != Character.UnicodeScript.LATIN)
+            return byScript(text, dominant, scriptLetters);
+        return languages[closest(distances(counts), -1)];
+    }
+
+    /**
+     * Splits text into runs of consecutive lines in the same language, so
+     * only the runs that are not English need translating. A line keeps the
+     * language of the whole text unless it is clearly in another one: it has
+     * enough lower-case words, is not a list of names or skills, and another
+     * profile beats the document language by a clear margin.
+     */
+    public List<Section> sections(String text) {
+        return sections(text, detect(text));
+    }
+
+    /**
+     * @param documentLanguage the already detected language of the whole text
+     */
+    public List<Section> sections(String text, String documentLanguage) {
+        List<Section> sections = new ArrayList<>();
+        if (text == null || text.isEmpty())
+            return sections;
+
+        StringBuilder run = new StringBuilder();
+        String runLanguage = null;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            end = end < 0 ? text.length() : end + 1;
+            String line = text.substring(start, end);
+            String language = lineLanguage(line, documentLanguage);
+            if (runLanguage != null && !runLanguage.equals(language)) {
+                sections.add(new Section(run.toString(), runLanguage));
+                run.setLength(0);
+            }
+            runLanguage = language;
+            run.append(line);
+            start = end;
+        }
+        sections.add(new Section(run.toString(), runLanguage));
+        return sections;
+    }
+
+    private String lineLanguage(String line, String documentLanguage) {
+        if (letterCount(line) < MIN_SECTION_LETTERS)
+            return documentLanguage;
+        Map<Character.UnicodeScript, Integer> scriptLetters = new EnumMap<>(Character.UnicodeScript.class);
+        Map<Long, int[]> counts = new HashMap<>();
+        countTrigrams(line, MAX_LETTERS, counts, scriptLetters);
+        Character.UnicodeScript dominant = dominantScript(scriptLetters);
+        // A change of script is never ambiguous
+        if (dominant != Character.UnicodeScript.LATIN)
+            return byScript(line, dominant, scriptLetters);
+        if (!isProse(line))
+            return documentLanguage;
+
+        long[] distance = distances(counts);
+        int best = closest(distance, -1);
+        int reference = Arrays.asList(languages).indexOf(documentLanguage);
+        if (reference < 0)
+            reference = closest(distance, best);
+        if (best == reference || distance[reference] - distance[best] < MIN_SECTION_MARGIN * distance[reference])
+            return documentLanguage;
+        return languages[best];
+    }
+
+    /**
+     * @return false for lines that are mostly capitalized words or a list of
+     * short items (skills, tools, names), whatever their trigrams suggest
+     */
+    private static boolean isProse(String line) {
+        int words = 0;
+        int lowerWords = 0;
+        int lowerLetters = 0;
+        int separators = 0;
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (!Character.isLetter(c)) {
+                if (",;|•·/".indexOf(c) >= 0)
+                    separators++;
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean lower = true;
+            while (i < line.length() && (Character.isLetterOrDigit(line.charAt(i)) || line.charAt(i) == '\'')) {
+                if (!Character.isLowerCase(line.charAt(i)) && line.charAt(i) != '\'')
+                    lower = false;
+                i++;
+            }
+            words++;
+            if (lower) {
+                lowerWords++;
+                lowerLetters += i - start;
+            }
+        }
+        return lowerLetters >= MIN_SECTION_EVIDENCE && lowerWords * 3 >= words && separators * 3 < words;
+    }
+
+    private String byScript(String text, Character.UnicodeScript script, Map<Character.UnicodeScript, Integer> letters) {
+        // Japanese mixes kanji (Han) with kana; any real amount of kana decides it
+        int kana = letters.getOrDefault(Character.UnicodeScript.HIRAGANA, 0)
+                + letters.getOrDefault(Character.UnicodeScript.KATAKANA, 0);
+        if (script == Character.UnicodeScript.HAN && kana * 10 >= letters.get(script))
+            return "ja";
+        if (script == Character.UnicodeScript.CYRILLIC && containsAny(text, "іїєґІЇЄҐ"))
+            return "uk";
+        if (script == Character.UnicodeScript.ARABIC) {
+            if (containsAny(text, "ٹڈڑںے"))
+                return "ur";
+            if (containsAny(text, "پچژگ"))
+                return "fa";
+        }
+        return scripts.getOrDefault(script, UNDETERMINED);
+    }
+
+    private static Character.UnicodeScript dominantScript(Map<Character.UnicodeScript, Integer> scriptLetters) {
+        Character.UnicodeScript dominant = Character.UnicodeScript.LATIN;
+        int dominantLetters = 0;
+        for (Map.Entry<Character.UnicodeScript, Integer> script : scriptLetters.entrySet()) {
+            if (script.getValue() > dominantLetters) {
+                dominant = script.getKey();
+                dominantLetters = script.getValue();
+            }
+        }
+        return dominant;
+    }
+
+    // Out-of-place distance of the text's most frequent trigrams to each profile
+    private long[] distances(Map<Long, int[]> counts) {
+        List<Map.Entry<Long, int[]>> frequent = new ArrayList<>(counts.entrySet());
+        frequent.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        int size = Math.min(profileSize, frequent.size());
+
+        long[] distance = new long[languages.length];
+        for (int rank = 0; rank < size; rank++) {
+            short[] byLanguage = ranks.get(frequent.get(rank).getKey());
+            for (int l = 0; l < languages.length; l++) {
+                distance[l] += byLanguage == null ? profileSize : Math.abs(rank - byLanguage[l]);
+            }
+        }
+        return distance;
+    }
+
+    // Index of the smallest distance, skipping the one at skip
+    private static int closest(long[] distance, int skip) {
+        int best = -1;
+        for (int l = 0; l < distance.length; l++) {
+            if (l != skip && (best < 0 || distance[l] < distance[best]))
+                best = l;
+        }
+        return best;
+    }
+
+    /**
+     * Counts the trigrams of lower-cased words, each padded with a space on
+     * both sides, over at most {@code maxLetters} letters.
+     *
+     * @return the number of letters read
+     */
+    // Package-private for LanguageProfileBuilder (src/test), which builds the bundled profiles with it
+    static int countTrigrams(String text, int maxLetters, Map<Long, int[]> counts,
+            Map<Character.UnicodeScript, Integer> scriptLetters) {
+        int letters = 0;
+        char previous2 = ' ';
+        char previous1 = ' ';
+        for (int i = 0; i <= text.length() && letters < maxLetters; i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetter(c)) {
+                letters++;
+                scriptLetters.merge(Character.UnicodeScript.of(c), 1, Integer::sum);
+                c = Character.toLowerCase(c);
+            } else {
+                c = ' ';
+                if (previous1 == ' ')
+                    continue;
+            }
+            if (previous1 != ' ')
+                counts.computeIfAbsent(encode(previous2, previous1, c), g -> new int[1])[0]++;
+            // A word boundary starts the next word afresh: grams never span two words
+            previous2 = c == ' ' ? ' ' : previous1;
+            previous1 = c;
+        }
+        return letters;
+    }
+
+    static long encode(String gram) {
+        return encode(gram.charAt(0), gram.charAt(1), gram.charAt(2));
+    }
+
+    static long encode(char c0, char c1, char c2) {
+        return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    private static int letterCount(String text) {
+        int letters = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetter(text.charAt(i)))
+                letters++;
+        }
+        return letters;
+    }
+
+    private static boolean containsAny(String text, String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            if (text.indexOf(chars.charAt(i)) >= 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * A run of consecutive lines, with their line breaks, and its language.
+     */
+    public static final class Section {
+        private final String text;
+        private final String language;
+
+        Section(String text, String language) {
+            this.text = text;
+            this.language = language;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+    }
+}
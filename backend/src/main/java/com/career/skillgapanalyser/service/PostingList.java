@@ -0,0 +1,389 @@
+package com.career.skillgapanalyser.service;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * MODULE: Compressed Posting List
+ * Sorted set of record ids laid out like a Roaring bitmap: ids are split by
+ * their high 16 bits into chunks of 65536, and each chunk is stored as a
+ * sorted char array while it holds up to 4096 ids (2 bytes per id) and as a
+ * 65536-bit bitmap (8 KB) once it is denser, whichever is smaller. Set
+ * operations go chunk by chunk and pick the cheap path per pair of
+ * containers: merging two arrays, probing an array against a bitmap, or
+ * combining bitmap words.
+ *
+ * Ids are added in increasing order, as an append-only store hands them
+ * out. Results of set operations are new lists sharing nothing with their
+ * inputs. Not thread-safe.
+ */
+final class PostingList {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // Chunk c: high 16 bits keys[c], cardinality cardinalities[c], container a char[] or a long[]
+    private int chunkCount;
+    private char[] keys;
+    private int[] cardinalities;
+    private Object[] containers;
+
+    PostingList() {
+        this(4);
+    }
+
+    private PostingList(int capacity) {
+        keys = new char[capacity];
+        cardinalities = new int[capacity];
+        containers = new Object[capacity];
+    }
+
+    /**
+     * @return the ids {@code [0, count)}
+     */
+    static PostingList range(int count) {
+        PostingList all = new PostingList(Math.max(1, (count + 0xFFFF) >>> 16));
+        for (int high = 0; (high << 16) < count; high++) {
+            int size = Math.min(1 << 16, count - (high << 16));
+            long[] words = new long[BITMAP_WORDS];
+            Arrays.fill(words, 0, size >>> 6, -1L);
+            if ((size & 63) != 0)
+                words[size >>> 6] = (1L << size) - 1;
+            all.append((char) high, size, size > ARRAY_MAX ? words : toArray(words, size));
+        }
+        return all;
+    }
+
+    /**
+     * Adds an id greater than or equal to every id added before; adding the
+     * last id again does nothing.
+     */
+    void add(int id) {
+        char high = (char) (id >>> 16);
+        char low = (char) id;
+        int c = chunkCount - 1;
+        if (c < 0 || keys[c] != high) {
+            if (c >= 0 && keys[c] > high)
+                throw new IllegalArgumentException("Ids must be added in increasing order: " + id);
+            append(high, 0, new char[4]);
+            c++;
+        }
+
+        int cardinality = cardinalities[c];
+        if (containers[c] instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinalities[c]++;
+            }
+            return;
+        }
+        char[] values = (char[]) containers[c];
+        if (cardinality > 0) {
+            if (values[cardinality - 1] == low)
+                return;
+            if (values[cardinality - 1] > low)
+                throw new IllegalArgumentException("Ids must be added in increasing order: " + id);
+        }
+        if (cardinality == ARRAY_MAX) {
+            long[] words = toBitmap(values, cardinality);
+            words[low >>> 6] |= 1L << low;
+            containers[c] = words;
+        } else {
+            if (cardinality == values.length)
+                containers[c] = values = Arrays.copyOf(values, Math.min(ARRAY_MAX, 2 * cardinality));
+            values[cardinality] = low;
+        }
+        cardinalities[c]++;
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            cardinality += cardinalities[c];
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    PostingList and(PostingList other) {
+        PostingList result = new PostingList(Math.max(1, Math.min(chunkCount, other.chunkCount)));
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendOptimized(keys[i], and(containers[i], cardinalities[i], other.containers[j],
+                        other.cardinalities[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    PostingList andNot(PostingList other) {
+        PostingList result = new PostingList(Math.max(1, chunkCount));
+        int j = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            while (j < other.chunkCount && other.keys[j] < keys[i])
+                j++;
+            if (j < other.chunkCount && other.keys[j] == keys[i]) {
+                result.appendOptimized(keys[i], andNot(containers[i], cardinalities[i], other.containers[j],
+                        other.cardinalities[j]));
+            } else {
+                result.append(keys[i], cardinalities[i], copy(containers[i], cardinalities[i]));
+            }
+        }
+        return result;
+    }
+
+    PostingList or(PostingList other) {
+        PostingList result = new PostingList(Math.max(1, chunkCount + other.chunkCount));
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount || j < other.chunkCount) {
+            if (j == other.chunkCount || (i < chunkCount && keys[i] < other.keys[j])) {
+                result.append(keys[i], cardinalities[i], copy(containers[i], cardinalities[i]));
+                i++;
+            } else if (i == chunkCount || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.cardinalities[j],
+                        copy(other.containers[j], other.cardinalities[j]));
+                j++;
+            } else {
+                result.appendOptimized(keys[i], or(containers[i], cardinalities[i], other.containers[j],
+                        other.cardinalities[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids the predicate accepts
+     */
+    PostingList filter(IntPredicate accept) {
+        PostingList result = new PostingList(Math.max(1, chunkCount));
+        char[] kept = new char[1 << 16];
+        for (int c = 0; c < chunkCount; c++) {
+            int base = keys[c] << 16;
+            int count = 0;
+            if (containers[c] instanceof long[] words) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                        char low = (char) ((w << 6) + Long.numberOfTrailingZeros(bits));
+                        if (accept.test(base | low))
+                            kept[count++] = low;
+                    }
+                }
+            } else {
+                char[] values = (char[]) containers[c];
+                for (int v = 0; v < cardinalities[c]; v++) {
+                    if (accept.test(base | values[v]))
+                        kept[count++] = values[v];
+                }
+            }
+            if (count > 0)
+                result.append(keys[c], count, count > ARRAY_MAX ? toBitmap(kept, count) : Arrays.copyOf(kept, count));
+        }
+        return result;
+    }
+
+    /**
+     * @return up to {@code limit} of the largest ids, largest first
+     */
+    int[] last(int limit) {
+        int[] ids = new int[Math.min(limit, cardinality())];
+        int n = 0;
+        for (int c = chunkCount - 1; c >= 0 && n < ids.length; c--) {
+            int base = keys[c] << 16;
+            if (containers[c] instanceof long[] words) {
+                for (int w = BITMAP_WORDS - 1; w >= 0 && n < ids.length; w--) {
+                    for (long bits = words[w]; bits != 0 && n < ids.length; bits &= ~Long.highestOneBit(bits)) {
+                        ids[n++] = base | ((w << 6) + 63 - Long.numberOfLeadingZeros(bits));
+                    }
+                }
+            } else {
+                char[] values = (char[]) containers[c];
+                for (int v = cardinalities[c] - 1; v >= 0 && n < ids.length; v--) {
+                    ids[n++] = base | values[v];
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void append(char key, int cardinality, Object container) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * chunkCount);
+            cardinalities = Arrays.copyOf(cardinalities, 2 * chunkCount);
+            containers = Arrays.copyOf(containers, 2 * chunkCount);
+        }
+        keys[chunkCount] = key;
+        cardinalities[chunkCount] = cardinality;
+        containers[chunkCount] = container;
+        chunkCount++;
+    }
+
+    // Keeps a non-empty result in the smaller of the two forms
+    private void appendOptimized(char key, Object container) {
+        if (container instanceof long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_MAX) {
+                append(key, cardinality, words);
+            } else if (cardinality > 0) {
+                append(key, cardinality, toArray(words, cardinality));
+            }
+        } else {
+            char[] values = (char[]) container;
+            if (values.length > ARRAY_MAX) {
+                append(key, values.length, toBitmap(values, values.length));
+            } else if (values.length > 0) {
+                append(key, values.length, values);
+            }
+        }
+    }
+
+    private static Object and(Object a, int aCount, Object b, int bCount) {
+        if (a instanceof long[] aWords && b instanceof long[] bWords) {
+            long[] words = new long[BITMAP_WORDS];
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                words[w] = aWords[w] & bWords[w];
+            }
+            return words;
+        }
+        if (a instanceof long[] aWords)
+            return probe((char[]) b, bCount, aWords, true);
+        if (b instanceof long[] bWords)
+            return probe((char[]) a, aCount, bWords, true);
+
+        char[] x = (char[]) a;
+        char[] y = (char[]) b;
+        char[] values = new char[Math.min(aCount, bCount)];
+        int n = 0;
+        for (int i = 0, j = 0; i < aCount && j < bCount;) {
+            if (x[i] < y[j]) {
+                i++;
+            } else if (x[i] > y[j]) {
+                j++;
+            } else {
+                values[n++] = x[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    private static Object andNot(Object a, int aCount, Object b, int bCount) {
+        if (a instanceof long[] aWords) {
+            long[] words = aWords.clone();
+            if (b instanceof long[] bWords) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] &= ~bWords[w];
+                }
+            } else {
+                char[] y = (char[]) b;
+                for (int j = 0; j < bCount; j++) {
+                    words[y[j] >>> 6] &= ~(1L << y[j]);
+                }
+            }
+            return words;
+        }
+        if (b instanceof long[] bWords)
+            return probe((char[]) a, aCount, bWords, false);
+
+        char[] x = (char[]) a;
+        char[] y = (char[]) b;
+        char[] values = new char[aCount];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < aCount; i++) {
+            while (j < bCount && y[j] < x[i])
+                j++;
+            if (j == bCount || y[j] != x[i])
+                values[n++] = x[i];
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    private static Object or(Object a, int aCount, Object b, int bCount) {
+        if (a instanceof long[] || b instanceof long[]) {
+            long[] words = a instanceof long[] aWords ? aWords.clone() : toBitmap((char[]) a, aCount);
+            if (b instanceof long[] bWords) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] |= bWords[w];
+                }
+            } else {
+                char[] y = (char[]) b;
+                for (int j = 0; j < bCount; j++) {
+                    words[y[j] >>> 6] |= 1L << y[j];
+                }
+            }
+            return words;
+        }
+
+        char[] x = (char[]) a;
+        char[] y = (char[]) b;
+        char[] values = new char[aCount + bCount];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < aCount || j < bCount) {
+            if (j == bCount || (i < aCount && x[i] < y[j])) {
+                values[n++] = x[i++];
+            } else if (i == aCount || x[i] > y[j]) {
+                values[n++] = y[j++];
+            } else {
+                values[n++] = x[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    // The array values that are (or are not) in the bitmap
+    private static char[] probe(char[] values, int count, long[] words, boolean present) {
+        char[] kept = new char[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            char value = values[i];
+            if (((words[value >>> 6] & (1L << value)) != 0) == present)
+                kept[n++] = value;
+        }
+        return Arrays.copyOf(kept, n);
+    }
+
+    private static Object copy(Object container, int cardinality) {
+        return container instanceof long[] words ? words.clone() : Arrays.copyOf((char[]) container, cardinality);
+    }
+
+    private static long[] toBitmap(char[] values, int count) {
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < count; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    private static char[] toArray(long[] words, int cardinality) {
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        return values;
+    }
+}
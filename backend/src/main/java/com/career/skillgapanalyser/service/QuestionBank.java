@@ -0,0 +1,205 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AssessmentResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MODULE: Assessment Question Bank
+ * Previously generated questions, shelved by skill, difficulty and language.
+ * A shelf keeps each question once (by content hash) and holds at most
+ * {@code shelfCapacity} of them, the oldest making room for new ones. The
+ * hashes served to each user are remembered, so one user never gets the
+ * same question twice while others still can: the last
+ * {@code maxServedPerUser} of them, for the {@code maxUsers} most recent
+ * users.
+ */
+public class QuestionBank {
+
+    private final int shelfCapacity;
+    private final int maxServedPerUser;
+    private final Map<String, Shelf> shelves = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> served;
+
+    public QuestionBank(int shelfCapacity, int maxUsers, int maxServedPerUser) {
+        this.shelfCapacity = Math.max(1, shelfCapacity);
+        this.maxServedPerUser = Math.max(1, maxServedPerUser);
+        this.served = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public Shelf shelf(String skill, String difficulty, String language) {
+        String key = normalize(skill) + "|" + difficulty + "|" + language;
+        return shelves.computeIfAbsent(key, k -> new Shelf(skill.trim(), difficulty, language));
+    }
+
+    public Collection<Shelf> getShelves() {
+        return shelves.values();
+    }
+
+    /**
+     * Picks up to {@code count} questions the user has not been served yet,
+     * in random order so users asking at the same time get different sets,
+     * and remembers them as served.
+     *
+     * @param userId null for an anonymous caller, who has no history
+     */
+    public List<AssessmentResponse.Question> take(String userId, Shelf shelf, int count) {
+        Set<String> seen = userId != null ? servedTo(userId) : new LinkedHashSet<>();
+        List<Map.Entry<String, AssessmentResponse.Question>> unseen = new ArrayList<>();
+        synchronized (shelf) {
+            synchronized (seen) {
+                for (Map.Entry<String, AssessmentResponse.Question> entry : shelf.questions.entrySet()) {
+                    if (!seen.contains(entry.getKey()))
+                        unseen.add(entry);
+                }
+            }
+        }
+        Collections.shuffle(unseen, ThreadLocalRandom.current());
+
+        List<AssessmentResponse.Question> taken = new ArrayList<>();
+        for (Map.Entry<String, AssessmentResponse.Question> entry : unseen) {
+            if (taken.size() >= count)
+                break;
+            synchronized (seen) {
+                if (!seen.add(entry.getKey()))
+                    continue; // served to the same user by a concurrent request
+                if (seen.size() > maxServedPerUser) {
+                    Iterator<String> oldest = seen.iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+            }
+            taken.add(entry.getValue());
+        }
+        return taken;
+    }
+
+    /**
+     * @return how many of the questions were new to the shelf
+     */
+    public int add(Shelf shelf, List<AssessmentResponse.Question> questions) {
+        int added = 0;
+        synchronized (shelf) {
+            for (AssessmentResponse.Question question : questions) {
+                String hash = hash(question);
+                if (shelf.questions.containsKey(hash))
+                    continue;
+                question.setId(hash.substring(0, 16));
+                question.setSkill(shelf.skill);
+                shelf.questions.put(hash, question);
+                added++;
+                if (shelf.questions.size() > shelfCapacity) {
+                    Iterator<String> oldest = shelf.questions.keySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+            }
+        }
+        return added;
+    }
+
+    public int getQuestionCount() {
+        int count = 0;
+        for (Shelf shelf : shelves.values()) {
+            count += shelf.size();
+        }
+        return count;
+    }
+
+    private Set<String> servedTo(String userId) {
+        synchronized (served) {
+            return served.computeIfAbsent(userId, u -> new LinkedHashSet<>());
+        }
+    }
+
+    static String normalize(String skill) {
+        return skill.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Whitespace and case differences do not make a question new
+    static String hash(AssessmentResponse.Question question) {
+        StringBuilder content = new StringBuilder();
+        content.append(question.getType()).append('\n');
+        content.append(question.getQuestion()).append('\n');
+        content.append(question.getCodeSnippet()).append('\n');
+        if (question.getOptions() != null) {
+            for (String option : question.getOptions()) {
+                content.append(option).append('\n');
+            }
+        }
+        String canonical = content.toString().replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+        return AnalysisCache.sha256(canonical.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The questions for one skill, difficulty and language, plus the refill
+     * bookkeeping: when it was last asked for and whether a refill is running.
+     */
+    public static final class Shelf {
+        private final String skill;
+        private final String difficulty;
+        private final String language;
+        private final LinkedHashMap<String, AssessmentResponse.Question> questions = new LinkedHashMap<>();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile long lastDemandAt;
+
+        Shelf(String skill, String difficulty, String language) {
+            this.skill = skill;
+            this.difficulty = difficulty;
+            this.language = language;
+        }
+
+        public String getSkill() {
+            return skill;
+        }
+
+        public String getDifficulty() {
+            return difficulty;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public synchronized int size() {
+            return questions.size();
+        }
+
+        public void demanded() {
+            lastDemandAt = System.currentTimeMillis();
+        }
+
+        public long getLastDemandAt() {
+            return lastDemandAt;
+        }
+
+        /**
+         * @return false if a refill is already running
+         */
+        public boolean startRefill() {
+            return refilling.compareAndSet(false, true);
+        }
+
+        public void finishRefill() {
+            refilling.set(false);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.SkillDto;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * MODULE: Resume Evidence
+ * What the static pass found in a resume, condensed for the hybrid Gemini
+ * prompt: every matched catalog skill with its number of mentions, the
+ * sections it is mentioned in and a few of the lines mentioning it, plus the
+ * blueprint skills that were not found. Matching stays local; Gemini only
+ * judges depth and writes the gaps, roadmap and feedback.
+ */
+public final class ResumeEvidence {
+
+    private final List<SkillEvidence> skills;
+    private final List<String> lines;
+    private final List<SkillDto> missing;
+
+    ResumeEvidence(List<SkillEvidence> skills, List<String> lines, List<SkillDto> missing) {
+        this.skills = skills;
+        this.lines = lines;
+        this.missing = missing;
+    }
+
+    public List<SkillEvidence> getSkills() {
+        return skills;
+    }
+
+    /**
+     * @return the quoted resume lines, each prefixed with its section, e.g.
+     * "(experience) Built payment services in Java"; {@link SkillEvidence}
+     * refers to them by index
+     */
+    public List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return the blueprint skills not found, or null in dynamic mode
+     */
+    public List<SkillDto> getMissing() {
+        return missing;
+    }
+
+    public boolean hasBlueprint() {
+        return missing != null;
+    }
+
+    /**
+     * The matched skills in the shape of the analysis answer's
+     * "matchedSkills" section.
+     */
+    public JsonObject matchedSection() {
+        List<SkillDto> matched = new ArrayList<>();
+        for (SkillEvidence skill : skills) {
+            matched.add(new SkillDto(skill.name, skill.type, null));
+        }
+        return section(matched);
+    }
+
+    /**
+     * Same for "missingSkills"; null in dynamic mode, where Gemini names them.
+     */
+    public JsonObject missingSection() {
+        return missing == null ? null : section(missing);
+    }
+
+    /**
+     * Completes Gemini's answer to the hybrid prompt with the locally matched
+     * skills (scored by Gemini, 50 when it left one out) and, when there is a
+     * blueprint, the locally found missing skills.
+     */
+    public AnalysisResponse merge(AnalysisResponse aiResponse) {
+        Map<String, Integer> aiScores = new HashMap<>();
+        if (aiResponse.getSkillScores() != null) {
+            for (Map.Entry<String, Integer> score : aiResponse.getSkillScores().entrySet()) {
+                if (score.getValue() != null)
+                    aiScores.put(score.getKey().toLowerCase(Locale.ROOT), score.getValue());
+            }
+        }
+
+        List<SkillDto> extracted = new ArrayList<>();
+        Map<String, Integer> skillScores = new HashMap<>();
+        for (SkillEvidence skill : skills) {
+            int score = aiScores.getOrDefault(skill.name.toLowerCase(Locale.ROOT), 50);
+            extracted.add(new SkillDto(skill.name, skill.type, "id_" + skill.name, score));
+            skillScores.put(skill.name, score);
+        }
+        return aiResponse.toBuilder()
+                .extracted(extracted)
+                .skillScores(skillScores)
+                .missing(missing != null ? missing : aiResponse.getMissing())
+                .build();
+    }
+
+    // Skill types map onto the answer's categories: professional skills are "nonTechnical" there
+    private static JsonObject section(List<SkillDto> skills) {
+        JsonObject categories = new JsonObject();
+        categories.add("technical", new JsonArray());
+        categories.add("soft", new JsonArray());
+        categories.add("nonTechnical", new JsonArray());
+        for (SkillDto skill : skills) {
+            String category = "technical".equals(skill.getType()) || "soft".equals(skill.getType())
+                    ? skill.getType()
+                    : "nonTechnical";
+            categories.getAsJsonArray(category).add(skill.getName());
+        }
+        return categories;
+    }
+
+    /**
+     * One matched catalog skill.
+     */
+    public static final class SkillEvidence {
+        private final String name;
+        private final String type;
+        private final int mentions;
+        private final List<String> sections;
+        private final List<Integer> lines;
+
+        SkillEvidence(String name, String type, int mentions, List<String> sections, List<Integer> lines) {
+            this.name = name;
+            this.type = type;
+            this.mentions = mentions;
+            this.sections = sections;
+            this.lines = lines;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getMentions() {
+            return mentions;
+        }
+
+        /**
+         * @return labels of the sections the skill is mentioned in, in text order
+         */
+        public List<String> getSections() {
+            return sections;
+        }
+
+        /**
+         * @return indexes into {@link ResumeEvidence#getLines()}
+         */
+        public List<Integer> getLines() {
+            return lines;
+        }
+    }
+}
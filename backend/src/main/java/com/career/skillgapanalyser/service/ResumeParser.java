@@ -1,52 +1,364 @@
 package com.career.skillgapanalyser.service;
 
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Service
 public class ResumeParser {
 
-    public String extractText(MultipartFile file) throws IOException {
+    private static final String DOCX_MAIN_PART = "word/document.xml";
+    private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    // POI's zip bomb limits: past the first 100 KB, a part may inflate to at most 100x its compressed size
+    private static final long INFLATE_GRACE_BYTES = 100 * 1024;
+    private static final double MIN_INFLATE_RATIO = 0.01;
+    private static final XMLInputFactory XML_INPUT = XMLInputFactory.newFactory();
+
+    static {
+        XML_INPUT.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final int maxChars;
+    private final long pdfMainMemoryBytes;
+    private final Map<String, String> textCache;
+    private final AnalysisMetrics metrics;
+
+    public ResumeParser(AnalysisMetrics metrics,
+            @Value("${resume.parser.max-chars:15000}") int maxChars,
+            @Value("${resume.parser.pdf-main-memory-bytes:1048576}") long pdfMainMemoryBytes,
+            @Value("${resume.parser.text-cache-entries:100}") int textCacheEntries) {
+        this.metrics = metrics;
+        this.maxChars = maxChars;
+        this.pdfMainMemoryBytes = pdfMainMemoryBytes;
+        this.textCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > textCacheEntries;
+            }
+        };
+    }
+
+    /**
+     * Character budget used for analysis; the AI engine never looks past it.
+     */
+    public int getMaxChars() {
+        return maxChars;
+    }
+
+    public boolean isSupported(String filename) {
+        String lowerCaseName = filename.toLowerCase();
+        return lowerCaseName.endsWith(".pdf") || lowerCaseName.endsWith(".docx") || lowerCaseName.endsWith(".txt");
+    }
+
+    /**
+     * Extracts at most {@code charBudget} characters. Results are cached by
+     * content hash, so re-uploads of the same file are not parsed again.
+     */
+    public String extractText(MultipartFile file, int charBudget) throws IOException {
         String filename = file.getOriginalFilename();
         if (filename == null)
             return "";
+        return extractText(filename, file.getBytes(), charBudget);
+    }
 
-        String lowerCaseName = filename.toLowerCase();
+    /**
+     * Same as {@link #extractText(MultipartFile, int)} for content that is
+     * already in memory (e.g. entries of an uploaded ZIP).
+     */
+    public String extractText(String filename, byte[] content, int charBudget) throws IOException {
+        String cacheKey = AnalysisCache.sha256(content) + ":" + extension(filename) + ":" + charBudget;
+        synchronized (textCache) {
+            String cached = textCache.get(cacheKey);
+            metrics.recordTextCache(cached != null);
+            if (cached != null)
+                return cached;
+        }
+
+        StringBuilder text = new StringBuilder();
+        streamText(filename, new ByteArrayInputStream(content), charBudget, text::append);
+        String result = text.toString();
+        synchronized (textCache) {
+            textCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Streaming extraction: hands text to the consumer page by page (PDF),
+     * paragraph by paragraph (DOCX) or in buffered chunks (TXT), and stops
+     * reading the file as soon as {@code charBudget} characters were emitted.
+     */
+    public void streamText(MultipartFile file, int charBudget, Consumer<String> consumer) throws IOException {
+        String filename = file.getOriginalFilename();
+        if (filename == null)
+            return;
 
         try (InputStream is = file.getInputStream()) {
+            streamText(filename, is, charBudget, consumer);
+        }
+    }
+
+    private void streamText(String filename, InputStream is, int charBudget, Consumer<String> consumer)
+            throws IOException {
+        TextBudget budget = new TextBudget(charBudget, consumer);
+        String lowerCaseName = filename.toLowerCase();
+        if (!isSupported(lowerCaseName))
+            return;
+
+        String format = extension(lowerCaseName);
+        Timer.Sample sample = metrics.start();
+        boolean success = false;
+        try {
             if (lowerCaseName.endsWith(".pdf")) {
-                return parsePdf(is);
+                streamPdf(is, budget);
             } else if (lowerCaseName.endsWith(".docx")) {
-                return parseDocx(is);
-            } else if (lowerCaseName.endsWith(".txt")) {
-                return new String(is.readAllBytes());
+                streamDocx(is, budget);
+            } else {
+                streamTxt(is, budget);
             }
+            success = true;
+        } finally {
+            metrics.recordParse(sample, format, success);
         }
-        return "";
     }
 
-    private String parsePdf(InputStream is) throws IOException {
-        try (PDDocument document = PDDocument.load(is)) {
+    private void streamPdf(InputStream is, TextBudget budget) throws IOException {
+        // Mixed mode: small files stay in memory, anything larger (embedded images) spills to temp files
+        try (PDDocument document = PDDocument.load(is, MemoryUsageSetting.setupMixed(pdfMainMemoryBytes))) {
             PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+            int pages = document.getNumberOfPages();
+            for (int page = 1; page <= pages; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                if (!budget.offer(stripper.getText(document)))
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Reads word/document.xml straight from the ZIP with StAX instead of
+     * building the XWPFDocument tree. POI's zip bomb check is bypassed that
+     * way, so the same inflate ratio is enforced here.
+     */
+    private void streamDocx(InputStream is, TextBudget budget) throws IOException {
+        CountingInputStream compressed = new CountingInputStream(is);
+        ZipInputStream zip = new ZipInputStream(compressed);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (DOCX_MAIN_PART.equals(entry.getName())) {
+                InflationGuard guard = new InflationGuard(zip, compressed);
+                try {
+                    streamDocumentXml(guard, budget);
+                } catch (IOException e) {
+                    // The XML parser reports the guard's exception as a parse error
+                    throw guard.failure != null ? guard.failure : e;
+                }
+                return;
+            }
         }
     }
 
-    private String parseDocx(InputStream is) throws IOException {
-        try (XWPFDocument doc = new XWPFDocument(is)) {
-            StringBuilder text = new StringBuilder();
-            List<XWPFParagraph> paragraphs = doc.getParagraphs();
-            for (XWPFParagraph para : paragraphs) {
-                text.append(para.getText()).append("\n");
+    private void streamDocumentXml(InputStream xml, TextBudget budget) throws IOException {
+        try {
+            XMLStreamReader reader = XML_INPUT.createXMLStreamReader(xml, StandardCharsets.UTF_8.name());
+            try {
+                StringBuilder paragraph = new StringBuilder();
+                boolean inRun = false;
+                boolean inText = false;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT && WORD_NS.equals(reader.getNamespaceURI())) {
+                        String name = reader.getLocalName();
+                        if ("r".equals(name)) {
+                            inRun = true;
+                        } else if ("t".equals(name)) {
+                            inText = true;
+                        } else if (inRun && "tab".equals(name)) {
+                            paragraph.append('\t');
+                        } else if (inRun && ("br".equals(name) || "cr".equals(name))) {
+                            paragraph.append('\n');
+                        }
+                    } else if ((event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)
+                            && inText) {
+                        int length = Math.min(reader.getTextLength(), budget.remaining() - paragraph.length());
+                        paragraph.append(reader.getTextCharacters(), reader.getTextStart(), Math.max(0, length));
+                    } else if (event == XMLStreamConstants.END_ELEMENT
+                            && WORD_NS.equals(reader.getNamespaceURI())) {
+                        String name = reader.getLocalName();
+                        if ("r".equals(name)) {
+                            inRun = false;
+                        } else if ("t".equals(name)) {
+                            inText = false;
+                        } else if ("p".equals(name)) {
+                            paragraph.append('\n');
+                            if (!budget.offer(paragraph))
+                                return;
+                            paragraph.setLength(0);
+                        }
+                    }
+                    // A paragraph never grows past what the budget still takes; once it fills it, stop reading
+                    if (paragraph.length() > 0 && paragraph.length() >= budget.remaining()) {
+                        budget.offer(paragraph);
+                        return;
+                    }
+                }
+                if (paragraph.length() > 0)
+                    budget.offer(paragraph);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse DOCX content", e);
+        }
+    }
+
+    private void streamTxt(InputStream is, TextBudget budget) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            if (!budget.offer(new String(buffer, 0, read)))
+                return;
+        }
+    }
+
+    private static String extension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot + 1).toLowerCase();
+    }
+
+    /**
+     * Forwards chunks to the consumer until the character budget is spent,
+     * cutting the last chunk to fit.
+     */
+    private static class TextBudget {
+        private final Consumer<String> consumer;
+        private int remaining;
+
+        TextBudget(int budget, Consumer<String> consumer) {
+            this.remaining = budget;
+            this.consumer = consumer;
+        }
+
+        int remaining() {
+            return remaining;
+        }
+
+        /**
+         * @return false once the budget is exhausted and reading should stop
+         */
+        boolean offer(CharSequence chunk) {
+            if (remaining <= 0)
+                return false;
+            if (chunk.length() >= remaining) {
+                consumer.accept(chunk.subSequence(0, remaining).toString());
+                remaining = 0;
+                return false;
+            }
+            consumer.accept(chunk.toString());
+            remaining -= chunk.length();
+            return true;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0)
+                count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Fails once the ZIP entry being read has inflated past
+     * {@link #MIN_INFLATE_RATIO} of the compressed bytes read for it.
+     */
+    private static class InflationGuard extends FilterInputStream {
+        private final CountingInputStream compressed;
+        private final long compressedStart;
+        private long inflated;
+        private IOException failure;
+
+        InflationGuard(InputStream entry, CountingInputStream compressed) {
+            super(entry);
+            this.compressed = compressed;
+            this.compressedStart = compressed.getCount();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                inflated(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0)
+                inflated(read);
+            return read;
+        }
+
+        private void inflated(int bytes) throws IOException {
+            inflated += bytes;
+            if (inflated > INFLATE_GRACE_BYTES
+                    && compressed.getCount() - compressedStart < inflated * MIN_INFLATE_RATIO) {
+                failure = new IOException("DOCX part inflates more than " + Math.round(1 / MIN_INFLATE_RATIO)
+                        + " times its compressed size, possibly a zip bomb");
+                throw failure;
             }
-            return text.toString();
         }
     }
 }
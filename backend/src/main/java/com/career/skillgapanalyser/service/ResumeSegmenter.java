@@ -0,0 +1,442 @@
+package com.career.skillgapanalyser.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MODULE: Resume Section Segmentation
+ * Splits resume text into sections at the usual headings (Experience,
+ * Projects, Skills, Education, ...). A line is a heading when it is short and,
+ * stripped of case, punctuation and a trailing colon, is one of the known
+ * heading names; every line is looked at once, so the cost is linear in the
+ * text length. Text before the first heading is the {@link Kind#PROFILE}.
+ *
+ * Within a section, a line holding a date range ("Jan 2020 - Present",
+ * "03/2017 – 06/2019", "2015 to 2018") starts an entry: the range applies to
+ * that line and the lines after it, up to the next range.
+ *
+ * The analysis hot path segments into a reusable {@link Layout} of int
+ * arrays, which allocates nothing once its arrays have grown to the
+ * resume's size; {@link #segment(String)} builds the object form from it.
+ */
+public final class ResumeSegmenter {
+
+    private static final int MAX_HEADING_CHARS = 40;
+
+    private static final String MONTH = "(jan|feb|mar|apr|may|jun|jul|aug|sep|oct|nov|dec)[a-z]*\\.?\\s*";
+    private static final String MONTH_NUMBER = "(\\d{1,2})\\s*[/.]\\s*";
+    // Groups: start month name | number, start year, end month name | number, end year, open end
+    private static final Pattern DATE_RANGE = Pattern.compile(
+            "(?:" + MONTH + "|" + MONTH_NUMBER + ")?((?:19|20)\\d{2})\\s*(?:[-\u2013\u2014]|to|until)\\s*"
+                    + "(?:(?:" + MONTH + "|" + MONTH_NUMBER + ")?((?:19|20)\\d{2})|(present|current|now|today|date))",
+            Pattern.CASE_INSENSITIVE);
+    private static final String[] MONTHS = { "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct",
+            "nov", "dec" };
+
+    // Heading names by hash, open addressing, so a line is looked up without building a String
+    private static final int HEADING_SLOTS = 256;
+    private static final String[] HEADING_NAMES = new String[HEADING_SLOTS];
+    private static final Kind[] HEADING_KINDS = new Kind[HEADING_SLOTS];
+
+    static {
+        headings(Kind.SUMMARY, "summary", "professional summary", "career summary", "profile", "professional profile",
+                "about", "about me", "objective", "career objective", "overview");
+        headings(Kind.EXPERIENCE, "experience", "work experience", "professional experience", "relevant experience",
+                "employment", "employment history", "work history", "career history", "internship", "internships",
+                "experience and internships");
+        headings(Kind.PROJECTS, "projects", "personal projects", "academic projects", "key projects",
+                "selected projects", "side projects", "open source", "open source contributions");
+        headings(Kind.SKILLS, "skills", "technical skills", "key skills", "core skills", "skills summary",
+                "skills and tools", "competencies", "core competencies", "technologies", "tech stack",
+                "tools and technologies", "technical proficiencies");
+        headings(Kind.EDUCATION, "education", "academic background", "qualifications", "academic qualifications",
+                "education and training");
+        headings(Kind.CERTIFICATIONS, "certifications", "certificates", "licenses and certifications",
+                "certifications and courses", "courses", "training");
+        headings(Kind.OTHER, "awards", "achievements", "awards and achievements", "publications", "languages",
+                "interests", "hobbies", "volunteering", "volunteer experience", "references", "activities");
+    }
+
+    private ResumeSegmenter() {
+    }
+
+    private static void headings(Kind kind, String... names) {
+        for (String name : names) {
+            int slot = name.hashCode() & (HEADING_SLOTS - 1);
+            while (HEADING_NAMES[slot] != null)
+                slot = (slot + 1) & (HEADING_SLOTS - 1);
+            HEADING_NAMES[slot] = name;
+            HEADING_KINDS[slot] = kind;
+        }
+    }
+
+    /**
+     * @return the sections in text order; they cover the whole text
+     */
+    public static List<Section> segment(String text) {
+        Layout layout = new Layout();
+        layout.segment(text);
+        List<Section> sections = new ArrayList<>(layout.sectionCount);
+        for (int s = 0; s < layout.sectionCount; s++) {
+            List<DateRange> dates = new ArrayList<>();
+            for (int r = layout.firstRange[s]; r < layout.firstRange[s + 1]; r++) {
+                dates.add(new DateRange(layout.rangeLines[r], layout.rangeFrom[r], layout.rangeTo[r]));
+            }
+            int headingEnd = layout.headingEnds[s];
+            sections.add(new Section(layout.getKind(s),
+                    headingEnd < 0 ? null : text.substring(layout.starts[s], headingEnd).trim(), layout.starts[s],
+                    layout.getEnd(s), dates));
+        }
+        return sections;
+    }
+
+    /**
+     * @return the section containing the char offset
+     */
+    public static Section at(List<Section> sections, int offset) {
+        int low = 0;
+        int high = sections.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (sections.get(mid).start <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return sections.get(low);
+    }
+
+    // Cheap test that keeps the regex off the lines that cannot hold a range
+    private static boolean hasYear(CharSequence text, int start, int end) {
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            digits = Character.isDigit(text.charAt(i)) ? digits + 1 : 0;
+            if (digits == 4)
+                return true;
+        }
+        return false;
+    }
+
+    // Groups are read as spans of the text, so parsing a range creates no strings
+    private static int year(CharSequence text, Matcher matcher, int group) {
+        return Integer.parseInt(text, matcher.start(group), matcher.end(group), 10);
+    }
+
+    private static int month(CharSequence text, Matcher matcher, int nameGroup, int numberGroup, int otherwise) {
+        int start = matcher.start(nameGroup);
+        if (start >= 0) {
+            for (int m = 0; m < MONTHS.length; m++) {
+                String month = MONTHS[m];
+                if (Character.toLowerCase(text.charAt(start)) == month.charAt(0)
+                        && Character.toLowerCase(text.charAt(start + 1)) == month.charAt(1)
+                        && Character.toLowerCase(text.charAt(start + 2)) == month.charAt(2))
+                    return m;
+            }
+        }
+        if (matcher.start(numberGroup) >= 0) {
+            int month = Integer.parseInt(text, matcher.start(numberGroup), matcher.end(numberGroup), 10);
+            if (month >= 1 && month <= 12)
+                return month - 1;
+        }
+        return otherwise;
+    }
+
+    private static Kind headingKind(CharSequence text, int start, int end, StringBuilder name) {
+        if (end - start > MAX_HEADING_CHARS)
+            return null;
+        // "WORK EXPERIENCE:", "Skills & Tools" and "— Projects —" all reduce to their words
+        name.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetter(c)) {
+                name.append(Character.toLowerCase(c));
+            } else if (c == '&') {
+                name.append(name.length() > 0 && name.charAt(name.length() - 1) != ' ' ? " and " : "and ");
+            } else if (name.length() > 0 && name.charAt(name.length() - 1) != ' ') {
+                name.append(' ');
+            }
+        }
+        int length = name.length();
+        if (length > 0 && name.charAt(length - 1) == ' ')
+            name.setLength(length - 1);
+
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + name.charAt(i);
+        }
+        for (int slot = hash & (HEADING_SLOTS - 1); HEADING_NAMES[slot] != null;
+                slot = (slot + 1) & (HEADING_SLOTS - 1)) {
+            if (HEADING_NAMES[slot].contentEquals(name))
+                return HEADING_KINDS[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Reusable segmentation result: sections and date ranges as parallel
+     * int arrays, grown as needed and overwritten by every
+     * {@link #segment(CharSequence)}. Not thread-safe.
+     */
+    public static final class Layout {
+        private final StringBuilder heading = new StringBuilder(MAX_HEADING_CHARS * 2);
+        private final Matcher matcher = DATE_RANGE.matcher("");
+        private int length;
+
+        // Section s: kind ordinal, start offset, end of its heading line (-1 if none), first date range
+        private int sectionCount;
+        private int[] kinds = new int[16];
+        private int[] starts = new int[16];
+        private int[] headingEnds = new int[16];
+        private int[] firstRange = new int[17];
+
+        // Date ranges in text order; those of section s are [firstRange[s], firstRange[s + 1])
+        private int rangeCount;
+        private int[] rangeLines = new int[16];
+        private int[] rangeFrom = new int[16];
+        private int[] rangeTo = new int[16];
+
+        public void segment(CharSequence text) {
+            length = text.length();
+            sectionCount = 0;
+            rangeCount = 0;
+            matcher.reset(text);
+            int kind = Kind.PROFILE.ordinal();
+            int headingEnd = -1;
+            int sectionStart = 0;
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && text.charAt(lineEnd) != '\n')
+                    lineEnd++;
+                Kind headingKind = headingKind(text, lineStart, lineEnd, heading);
+                if (headingKind != null) {
+                    if (lineStart > sectionStart)
+                        addSection(kind, sectionStart, headingEnd);
+                    kind = headingKind.ordinal();
+                    headingEnd = lineEnd;
+                    sectionStart = lineStart;
+                } else if (hasYear(text, lineStart, lineEnd)) {
+                    matcher.region(lineStart, lineEnd);
+                    if (matcher.find())
+                        addRange(text, lineStart);
+                }
+                lineStart = lineEnd + 1;
+            }
+            if (length > sectionStart || sectionCount == 0)
+                addSection(kind, sectionStart, headingEnd);
+            // Not holding on to the text
+            matcher.reset("");
+        }
+
+        private void addSection(int kind, int start, int headingEnd) {
+            if (sectionCount == kinds.length) {
+                kinds = Arrays.copyOf(kinds, 2 * sectionCount);
+                starts = Arrays.copyOf(starts, 2 * sectionCount);
+                headingEnds = Arrays.copyOf(headingEnds, 2 * sectionCount);
+                firstRange = Arrays.copyOf(firstRange, 2 * sectionCount + 1);
+            }
+            // The ranges found since the previous section belong to this one
+            firstRange[sectionCount] = sectionCount == 0 ? 0 : firstRange[sectionCount];
+            kinds[sectionCount] = kind;
+            starts[sectionCount] = start;
+            headingEnds[sectionCount] = headingEnd;
+            sectionCount++;
+            firstRange[sectionCount] = rangeCount;
+        }
+
+        private void addRange(CharSequence text, int lineStart) {
+            if (rangeCount == rangeLines.length) {
+                rangeLines = Arrays.copyOf(rangeLines, 2 * rangeCount);
+                rangeFrom = Arrays.copyOf(rangeFrom, 2 * rangeCount);
+                rangeTo = Arrays.copyOf(rangeTo, 2 * rangeCount);
+            }
+            int from = year(text, matcher, 3) * 12 + month(text, matcher, 1, 2, 0);
+            int to = DateRange.OPEN;
+            if (matcher.start(7) < 0) {
+                // A bare end year counts up to its December
+                to = Math.max(from, year(text, matcher, 6) * 12 + month(text, matcher, 4, 5, 11));
+            }
+            rangeLines[rangeCount] = lineStart;
+            rangeFrom[rangeCount] = from;
+            rangeTo[rangeCount] = to;
+            rangeCount++;
+        }
+
+        public int getSectionCount() {
+            return sectionCount;
+        }
+
+        /**
+         * @return the section containing the char offset
+         */
+        public int sectionAt(int offset) {
+            int low = 0;
+            int high = sectionCount - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (starts[mid] <= offset) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        public Kind getKind(int section) {
+            return Kind.values()[kinds[section]];
+        }
+
+        public int getKindOrdinal(int section) {
+            return kinds[section];
+        }
+
+        public int getEnd(int section) {
+            return section + 1 < sectionCount ? starts[section + 1] : length;
+        }
+
+        /**
+         * @return the date range of the entry the offset falls in, or -1 when
+         * no range precedes it in its section
+         */
+        public int rangeAt(int section, int offset) {
+            for (int r = firstRange[section + 1] - 1; r >= firstRange[section]; r--) {
+                if (rangeLines[r] <= offset)
+                    return r;
+            }
+            return -1;
+        }
+
+        public int getRangeCount() {
+            return rangeCount;
+        }
+
+        public int getRangeFrom(int range) {
+            return rangeFrom[range];
+        }
+
+        /**
+         * @return the last month of the range, {@code currentMonth} for an open one
+         */
+        public int getRangeTo(int range, int currentMonth) {
+            return rangeTo[range] == DateRange.OPEN ? Math.max(rangeFrom[range], currentMonth) : rangeTo[range];
+        }
+    }
+
+    public enum Kind {
+        PROFILE, SUMMARY, EXPERIENCE, PROJECTS, SKILLS, EDUCATION, CERTIFICATIONS, OTHER;
+
+        /**
+         * @return the name used in prompts and API output, e.g. "experience"
+         */
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A heading and the text up to the next one, as char offsets into the
+     * segmented text. The heading line itself is part of its section.
+     */
+    public static final class Section {
+        private final Kind kind;
+        private final String heading;
+        private final int start;
+        private final int end;
+        private final List<DateRange> dates;
+
+        Section(Kind kind, String heading, int start, int end, List<DateRange> dates) {
+            this.kind = kind;
+            this.heading = heading;
+            this.start = start;
+            this.end = end;
+            this.dates = dates;
+        }
+
+        /**
+         * @return the date range of the entry the offset falls in, or null
+         * when no range precedes it in this section
+         */
+        public DateRange dateRangeAt(int offset) {
+            for (int i = dates.size() - 1; i >= 0; i--) {
+                if (dates.get(i).line <= offset)
+                    return dates.get(i);
+            }
+            return null;
+        }
+
+        public List<DateRange> getDates() {
+            return dates;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the heading as written, or null for the text before the first heading
+         */
+        public String getHeading() {
+            return heading;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+    }
+
+    /**
+     * A period of the resume, e.g. one job, in months since year 0
+     * ({@code year * 12 + month}, January = 0).
+     */
+    public static final class DateRange {
+        /**
+         * End of a range that is still running ("Present")
+         */
+        public static final int OPEN = -1;
+
+        private final int line;
+        private final int from;
+        private final int to;
+
+        DateRange(int line, int from, int to) {
+            this.line = line;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return offset of the line the range was written on
+         */
+        public int getLine() {
+            return line;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * @return the last month, or {@link #OPEN}
+         */
+        public int getTo() {
+            return to;
+        }
+
+        /**
+         * @return the last month, {@code currentMonth} for an open range
+         */
+        public int getTo(int currentMonth) {
+            return to == OPEN ? Math.max(from, currentMonth) : to;
+        }
+    }
+}
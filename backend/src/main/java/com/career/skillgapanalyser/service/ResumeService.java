@@ -1,54 +1,109 @@
 package com.career.skillgapanalyser.service;
 
 import com.career.skillgapanalyser.dto.AnalysisResponse;
-import com.google.gson.Gson;
+import com.career.skillgapanalyser.dto.RoleRankingResponse;
+import com.google.gson.JsonElement;
+import io.micrometer.core.instrument.Timer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
 @Service
 public class ResumeService {
 
+    private static final Set<String> STREAMED_SECTIONS = Set.of("matchedSkills", "missingSkills", "criticalGaps",
+            "roadmap");
+    // Gemini answered, but with nothing that parses as an analysis
+    private static final String NO_AI_RESULT = "AI Engine Failed: no usable analysis in the response";
+
     private final ResumeParser resumeParser;
     private final SkillExtractor skillExtractor;
     private final GeminiService geminiService;
-    private final Gson gson = new Gson();
+    private final AnalysisCache analysisCache;
+    private final LanguageDetector languageDetector;
+    private final AnalysisMetrics metrics;
+    private final AnalysisLocalizer analysisLocalizer;
+    private final AnalysisStore analysisStore;
+    private final long aiDeadlineMs;
+    private final boolean hybridPrompt;
+    private final int hybridMinSkills;
+    private final int evidenceLinesPerSkill;
+    private final int evidenceMaxLines;
+    private final int evidenceMaxLineChars;
+    private final int maxRankedRoles;
 
-    public ResumeService(ResumeParser resumeParser, SkillExtractor skillExtractor, GeminiService geminiService) {
+    public ResumeService(ResumeParser resumeParser, SkillExtractor skillExtractor, GeminiService geminiService,
+            AnalysisCache analysisCache, LanguageDetector languageDetector, AnalysisMetrics metrics,
+            AnalysisLocalizer analysisLocalizer, AnalysisStore analysisStore,
+            @Value("${analysis.ai.deadline-ms:30000}") long aiDeadlineMs,
+            @Value("${analysis.ai.prompt:hybrid}") String prompt,
+            @Value("${analysis.ai.hybrid.min-skills:3}") int hybridMinSkills,
+            @Value("${analysis.ai.hybrid.lines-per-skill:2}") int evidenceLinesPerSkill,
+            @Value("${analysis.ai.hybrid.max-lines:40}") int evidenceMaxLines,
+            @Value("${analysis.ai.hybrid.max-line-chars:160}") int evidenceMaxLineChars,
+            @Value("${analysis.ranking.max-top:50}") int maxRankedRoles) {
         this.resumeParser = resumeParser;
         this.skillExtractor = skillExtractor;
         this.geminiService = geminiService;
+        this.analysisCache = analysisCache;
+        this.languageDetector = languageDetector;
+        this.metrics = metrics;
+        this.analysisLocalizer = analysisLocalizer;
+        this.analysisStore = analysisStore;
+        this.aiDeadlineMs = aiDeadlineMs;
+        this.hybridPrompt = "hybrid".equalsIgnoreCase(prompt);
+        this.hybridMinSkills = hybridMinSkills;
+        this.evidenceLinesPerSkill = evidenceLinesPerSkill;
+        this.evidenceMaxLines = evidenceMaxLines;
+        this.evidenceMaxLineChars = evidenceMaxLineChars;
+        this.maxRankedRoles = maxRankedRoles;
     }
 
     public AnalysisResponse analyzeResume(MultipartFile file, String roleId, String apiKey) throws IOException {
         // MODULE 1: Resume Ingestion Module
         // (Handled by Controller + MultipartFile input)
 
-        // MODULE 2: Resume Parsing Engine
-        String text = resumeParser.extractText(file);
-        if (text == null || text.trim().isEmpty()) {
-            return new AnalysisResponse(); // Return empty response instead of failing
-        }
-
         // Clean API Key if it came as "null" string from frontend
         if ("null".equals(apiKey)) {
             apiKey = null;
         }
+        boolean aiEnabled = apiKey != null && !apiKey.isEmpty();
+        String language = org.springframework.context.i18n.LocaleContextHolder.getLocale().getLanguage();
 
-        // MODULE 3: Skill Normalization Engine (Pre-processing)
-        if (apiKey != null && !apiKey.isEmpty()) {
-            try {
-                // Ensure text is English for consistent analysis
-                String prompt = "Translate to English if needed. Return content as is if already English:\n" + text;
-                String translated = geminiService.generateContent(prompt, apiKey);
-                if (translated != null)
-                    text = translated;
-            } catch (Exception e) {
-                // Ignore translation errors
-            }
+        // Identical upload (same bytes, role, language and catalog) -> reuse the stored result
+        if (!analysisCache.isEnabled()) {
+            return runAnalysis(file, roleId, apiKey, language, null);
+        }
+        String cacheKey = analysisCache.key(file.getBytes(), roleId, language, skillExtractor.getCatalogVersion(),
+                aiEnabled);
+        AnalysisResponse cached = analysisCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
         }
+        AnalysisResponse response = runAnalysis(file, roleId, apiKey, language, cacheKey);
+        analysisCache.put(cacheKey, response);
+        return response;
+    }
+
+    private AnalysisResponse runAnalysis(MultipartFile file, String roleId, String apiKey, String language,
+            String cacheKey) throws IOException {
+        // MODULE 2: Resume Parsing Engine
+        String text = resumeParser.extractText(file, resumeParser.getMaxChars());
 
         // MODULE 4: Domain Context Resolver
         // (Resolved via 'roleId' input and fuzzy matching in SkillExtractor)
@@ -56,63 +111,320 @@ public class ResumeService {
         // MODULE 5: Domain Skill Blueprint Loader
         SkillExtractor.SkillData.RoleDef blueprint = skillExtractor.getRoleDefinition(roleId);
 
+        return analyzeText(text, roleId, blueprint, apiKey, language, cacheKey);
+    }
+
+    /**
+     * Ranks every catalog role for the resume from one static extraction
+     * pass (see {@link SkillExtractor#rankRoles}); no AI call is made.
+     */
+    public RoleRankingResponse rankRoles(MultipartFile file, int top) throws IOException {
+        Timer.Sample sample = metrics.start();
+        String language = org.springframework.context.i18n.LocaleContextHolder.getLocale().getLanguage();
+        String text = resumeParser.extractText(file, resumeParser.getMaxChars());
+        if (text == null || text.trim().isEmpty()) {
+            metrics.recordAnalysis(sample, "all", language, "ranking", "empty");
+            return new RoleRankingResponse();
+        }
+        RoleRankingResponse response = skillExtractor.rankRoles(text, Math.min(top, maxRankedRoles));
+        metrics.recordAnalysis(sample, "all", language, "ranking", "success");
+        return response;
+    }
+
+    /**
+     * Analyzes already extracted text against an already resolved blueprint
+     * (null for dynamic mode). Batch jobs call this directly so the blueprint
+     * is looked up once per batch instead of once per file. Every completed
+     * analysis is kept in the {@link AnalysisStore}.
+     *
+     * @param cacheKey where an AI answer that arrives after the deadline is
+     * cached for the next identical upload, or null to stop the AI pipeline
+     * at the deadline instead
+     */
+    public AnalysisResponse analyzeText(String text, String roleId, SkillExtractor.SkillData.RoleDef blueprint,
+            String apiKey, String language, String cacheKey) {
+        Timer.Sample sample = metrics.start();
+        String role = skillExtractor.getRoleName(roleId);
+
+        if (text == null || text.trim().isEmpty()) {
+            metrics.recordAnalysis(sample, role, language, "static", "empty");
+            return new AnalysisResponse(); // Return empty response instead of failing
+        }
+
+        String detectedLanguage = languageDetector.detect(text);
+        if (apiKey == null || apiKey.isEmpty()) {
+            metrics.recordDetectedLanguage(detectedLanguage, false);
+            AnalysisResponse response = withDetectedLanguage(skillExtractor.analyze(text, roleId, blueprint),
+                    detectedLanguage);
+            metrics.recordAnalysis(sample, role, language, "static", "success");
+            return recorded(role, response, response);
+        }
+
         // Prepare Blueprint String for AI
-        String blueprintJson = "   [DYNAMIC MODE] Strict Blueprint not found in database. Please infer industry standards for this role.";
-        if (blueprint != null) {
-            blueprintJson = "   - Technical: " + gson.toJson(blueprint.tech) + "\n" +
-                    "   - Soft: " + gson.toJson(blueprint.soft) + "\n" +
-                    "   - Professional: " + gson.toJson(blueprint.prof);
+        String blueprintJson = geminiService.describeBlueprint(blueprint);
+
+        // MODULE 3 + 6-9: AI pipeline (translate -> analyze -> localize), started asynchronously
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(aiDeadlineMs);
+        AtomicBoolean abandoned = new AtomicBoolean();
+        CompletableFuture<AnalysisResponse> aiAnalysis = startAiPipeline(text, detectedLanguage, roleId, blueprint,
+                blueprintJson, apiKey, language, abandoned);
+
+        // Static Analysis runs on this thread while the AI calls are in flight
+        AnalysisResponse staticResponse = withDetectedLanguage(skillExtractor.analyze(text, roleId, blueprint),
+                detectedLanguage);
+
+        String aiErrorMsg = NO_AI_RESULT;
+        String fallbackReason = "no_result";
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            AnalysisResponse aiResponse = aiAnalysis.get(remaining, TimeUnit.NANOSECONDS);
+            if (aiResponse != null) {
+                metrics.recordAnalysis(sample, role, language, "ai", "success");
+                return recorded(role, staticResponse, stampStaticMetadata(aiResponse, staticResponse));
+            }
+        } catch (TimeoutException e) {
+            System.err.println("AI Engine missed its " + aiDeadlineMs + " ms deadline, returning static analysis");
+            aiErrorMsg = "AI Engine Failed: no response within " + aiDeadlineMs + " ms";
+            fallbackReason = "timeout";
+            if (cacheKey != null && analysisCache.isEnabled()) {
+                // Too late for this request, but the next upload of the same resume gets it from the cache
+                aiAnalysis.thenAccept(aiResponse -> {
+                    if (aiResponse != null)
+                        analysisCache.put(cacheKey, stampStaticMetadata(aiResponse, staticResponse));
+                });
+            } else {
+                abandoned.set(true);
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("AI Engine Failed: " + cause.getMessage());
+            aiErrorMsg = "AI Engine Failed: " + cause.getMessage();
+            fallbackReason = "error";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aiErrorMsg = "AI Engine Failed: interrupted";
+            fallbackReason = "error";
         }
 
+        // Fallback: Static Analysis Logic
+        metrics.recordFallback(role, language, fallbackReason);
+        metrics.recordAnalysis(sample, role, language, "ai", "fallback");
+        return recorded(role, staticResponse, withAiError(staticResponse, aiErrorMsg));
+    }
+
+    /**
+     * Chains the Gemini stages without blocking. Only the parts of the text
+     * that are not English are translated, localization is skipped when the
+     * UI language is English. Completes with null when Gemini produced no
+     * usable analysis. Once {@code abandoned} is set, no further Gemini call
+     * is started and the pipeline completes with null.
+     */
+    private CompletableFuture<AnalysisResponse> startAiPipeline(String text, String detectedLanguage, String roleId,
+            SkillExtractor.SkillData.RoleDef blueprint, String blueprintJson, String apiKey, String language,
+            AtomicBoolean abandoned) {
+        // MODULE 3: Skill Normalization Engine (Pre-processing)
+        CompletableFuture<String> englishText = toEnglish(text, detectedLanguage, apiKey);
+
         // MODULE 6: Skill Extraction Engine
         // MODULE 7: Skill Matching Engine
         // MODULE 8: Skill Gap Analysis Engine
         // MODULE 9: Missing Skill Identifier
-        // (All performed by the AI Engine with the Strict Blueprint)
-
-        String aiErrorMsg = null;
-        if (apiKey != null && !apiKey.isEmpty()) {
-            try {
-                String aiResponse = geminiService.analyzeResumeWithGemini(text, roleId, blueprintJson, apiKey);
-                if (aiResponse != null) {
-                    aiResponse = aiResponse.replace("```json", "").replace("```", "").trim();
-                    AnalysisResponse response = gson.fromJson(aiResponse, AnalysisResponse.class);
-
-                    // Localization Post-Processing
-                    String language = org.springframework.context.i18n.LocaleContextHolder.getLocale().getLanguage();
-                    if (!"en".equalsIgnoreCase(language)) {
-                        String json = gson.toJson(response);
-                        String localizedJson = geminiService.localizeContent(json, language, apiKey);
-                        if (localizedJson != null) {
-                            localizedJson = localizedJson.replace("```json", "").replace("```", "").trim();
-                            return gson.fromJson(localizedJson, AnalysisResponse.class);
-                        }
-                    }
-                    return response;
-                }
-            } catch (Exception e) {
-                System.err.println("AI Engine Failed: " + e.getMessage());
-                aiErrorMsg = "AI Engine Failed: " + e.getMessage();
+        // (Matching done locally, depth and gaps judged by the AI Engine with the Strict Blueprint)
+        return englishText
+                .thenCompose(english -> abandoned.get() ? CompletableFuture.<AnalysisResponse>completedFuture(null)
+                        : analyzeWithGemini(english, roleId, blueprint, blueprintJson, apiKey, null))
+                .thenCompose(aiResponse -> abandoned.get() ? CompletableFuture.<AnalysisResponse>completedFuture(null)
+                        : localize(aiResponse, language, apiKey));
+    }
+
+    /**
+     * Sends the hybrid prompt, built from what the keyword pass found, when
+     * that pass found enough to go on; otherwise (mostly skills outside the
+     * catalog) the full resume text.
+     *
+     * @param onSection receives the answer's sections as they stream in, or
+     * null to make a single non-streaming call
+     */
+    private CompletableFuture<AnalysisResponse> analyzeWithGemini(String english, String roleId,
+            SkillExtractor.SkillData.RoleDef blueprint, String blueprintJson, String apiKey,
+            BiConsumer<String, JsonElement> onSection) {
+        if (hybridPrompt) {
+            ResumeEvidence evidence = skillExtractor.collectEvidence(english, blueprint, evidenceLinesPerSkill,
+                    evidenceMaxLines, evidenceMaxLineChars);
+            if (evidence.getSkills().size() >= hybridMinSkills) {
+                return onSection == null
+                        ? geminiService.analyzeEvidenceWithGeminiAsync(evidence, english.length(), roleId,
+                                blueprintJson, apiKey)
+                        : geminiService.streamAnalyzeEvidenceWithGemini(evidence, english.length(), roleId,
+                                blueprintJson, apiKey, onSection);
             }
         }
+        return onSection == null
+                ? geminiService.analyzeResumeWithGeminiAsync(english, roleId, blueprintJson, apiKey)
+                : geminiService.streamAnalyzeResumeWithGemini(english, roleId, blueprintJson, apiKey, onSection);
+    }
 
-        // Fallback: Static Analysis Logic
-        AnalysisResponse staticResponse = skillExtractor.analyze(text, roleId);
-
-        if (aiErrorMsg != null) {
-            return AnalysisResponse.builder()
-                    .extracted(staticResponse.getExtracted())
-                    .missing(staticResponse.getMissing())
-                    .criticalGaps(staticResponse.getCriticalGaps())
-                    .roadmap(staticResponse.getRoadmap())
-                    .resumeFeedback(staticResponse.getResumeFeedback())
-                    .readinessLevel(staticResponse.getReadinessLevel())
-                    .gapSummary(staticResponse.getGapSummary())
-                    .overallScore(staticResponse.getOverallScore())
-                    .skillScores(staticResponse.getSkillScores())
-                    .aiError(aiErrorMsg)
-                    .build();
+    /**
+     * Streaming variant of {@link #analyzeResume}. Sends, in order:
+     * "stats" (extracted text size) and "skills" (static keyword matches)
+     * right away, then each AI section (matchedSkills, missingSkills,
+     * criticalGaps, roadmap) as Gemini produces it, and finally "result"
+     * with the complete response. Text extraction happens on the calling
+     * thread; the AI part completes asynchronously.
+     */
+    public void streamAnalysis(MultipartFile file, String roleId, String apiKey, AnalysisEventSink sink)
+            throws IOException {
+        if ("null".equals(apiKey)) {
+            apiKey = null;
+        }
+        String key = apiKey;
+        String language = org.springframework.context.i18n.LocaleContextHolder.getLocale().getLanguage();
+        String role = skillExtractor.getRoleName(roleId);
+        Timer.Sample sample = metrics.start();
+
+        String text = resumeParser.extractText(file, resumeParser.getMaxChars());
+        if (text == null || text.trim().isEmpty()) {
+            sink.send("result", new AnalysisResponse());
+            sink.complete();
+            return;
+        }
+        String detectedLanguage = languageDetector.detect(text);
+        sink.send("stats", textStats(text, detectedLanguage));
+
+        SkillExtractor.SkillData.RoleDef blueprint = skillExtractor.getRoleDefinition(roleId);
+        AnalysisResponse staticResponse = withDetectedLanguage(skillExtractor.analyze(text, roleId, blueprint),
+                detectedLanguage);
+        sink.send("skills", staticResponse.getExtracted());
+
+        if (key == null || key.isEmpty()) {
+            metrics.recordDetectedLanguage(detectedLanguage, false);
+            sink.send("result", recorded(role, staticResponse, staticResponse));
+            sink.complete();
+            return;
+        }
+
+        String blueprintJson = geminiService.describeBlueprint(blueprint);
+        toEnglish(text, detectedLanguage, key)
+                .thenCompose(english -> analyzeWithGemini(english, roleId, blueprint, blueprintJson, key,
+                        (section, value) -> {
+                            if (STREAMED_SECTIONS.contains(section)) {
+                                sink.send(section, value);
+                            }
+                        }))
+                .thenCompose(aiResponse -> localize(aiResponse, language, key))
+                .orTimeout(aiDeadlineMs, TimeUnit.MILLISECONDS)
+                .whenComplete((aiResponse, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        boolean timedOut = cause instanceof TimeoutException;
+                        String message = timedOut
+                                ? "no response within " + aiDeadlineMs + " ms"
+                                : cause.getMessage();
+                        metrics.recordFallback(role, language, timedOut ? "timeout" : "error");
+                        metrics.recordAnalysis(sample, role, language, "ai", "fallback");
+                        sink.send("result",
+                                recorded(role, staticResponse,
+                                        withAiError(staticResponse, "AI Engine Failed: " + message)));
+                    } else if (aiResponse != null) {
+                        metrics.recordAnalysis(sample, role, language, "ai", "success");
+                        sink.send("result",
+                                recorded(role, staticResponse, stampStaticMetadata(aiResponse, staticResponse)));
+                    } else {
+                        metrics.recordFallback(role, language, "no_result");
+                        metrics.recordAnalysis(sample, role, language, "ai", "fallback");
+                        sink.send("result",
+                                recorded(role, staticResponse, withAiError(staticResponse, NO_AI_RESULT)));
+                    }
+                    sink.complete();
+                });
+    }
+
+    /**
+     * Keeps a completed analysis for reverse search and passes it on. It is
+     * indexed by the catalog skills of the static pass: the names in the
+     * response may be Gemini's wording or already translated for the user.
+     */
+    private AnalysisResponse recorded(String role, AnalysisResponse staticResponse, AnalysisResponse response) {
+        analysisStore.record(role, response.getOverallScore(), staticResponse.getExtracted());
+        return response;
+    }
+
+    /**
+     * Translates the runs of lines that are not English and splices them back
+     * in place; English runs are never sent. Completes with the original text
+     * when the translation fails.
+     */
+    private CompletableFuture<String> toEnglish(String text, String detectedLanguage, String apiKey) {
+        List<LanguageDetector.Section> sections = languageDetector.sections(text, detectedLanguage);
+        List<String> foreign = new ArrayList<>();
+        for (LanguageDetector.Section section : sections) {
+            if (!LanguageDetector.isEnglish(section.getLanguage()))
+                foreign.add(section.getText());
+        }
+        metrics.recordDetectedLanguage(detectedLanguage, !foreign.isEmpty());
+        if (foreign.isEmpty()) {
+            return CompletableFuture.completedFuture(text);
+        }
+        return geminiService.translateSegmentsAsync(foreign, LanguageDetector.ENGLISH, apiKey)
+                .thenApply(translated -> {
+                    if (translated == null) {
+                        return text;
+                    }
+                    StringBuilder english = new StringBuilder(text.length());
+                    int next = 0;
+                    for (LanguageDetector.Section section : sections) {
+                        if (LanguageDetector.isEnglish(section.getLanguage())) {
+                            english.append(section.getText());
+                            continue;
+                        }
+                        String translation = translated.get(next++);
+                        english.append(translation);
+                        // Keep the line break that ended the section
+                        if (section.getText().endsWith("\n") && !translation.endsWith("\n"))
+                            english.append('\n');
+                    }
+                    return english.toString();
+                });
+    }
+
+    // For non-English users, translates the user-facing text of the AI answer
+    private CompletableFuture<AnalysisResponse> localize(AnalysisResponse response, String language, String apiKey) {
+        if (response == null || language == null || language.isEmpty() || "en".equalsIgnoreCase(language)) {
+            return CompletableFuture.completedFuture(response);
         }
-        return staticResponse;
+        return analysisLocalizer.localize(response, language, apiKey);
+    }
+
+    private Map<String, Object> textStats(String text, String detectedLanguage) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("detectedLanguage", detectedLanguage);
+        stats.put("characters", text.length());
+        stats.put("words", text.trim().split("\\s+").length);
+        stats.put("lines", text.split("\\R").length);
+        stats.put("truncated", text.length() >= resumeParser.getMaxChars());
+        return stats;
+    }
+
+    private AnalysisResponse withAiError(AnalysisResponse staticResponse, String aiErrorMsg) {
+        return staticResponse.toBuilder()
+                .aiError(aiErrorMsg)
+                .build();
+    }
+
+    // The AI answer was checked against the blueprint of the same catalog snapshot as the static pass,
+    // and of the same text, whose language was detected there
+    private AnalysisResponse stampStaticMetadata(AnalysisResponse aiResponse, AnalysisResponse staticResponse) {
+        return aiResponse.toBuilder()
+                .catalogVersion(staticResponse.getCatalogVersion())
+                .detectedLanguage(staticResponse.getDetectedLanguage())
+                .build();
+    }
+
+    private AnalysisResponse withDetectedLanguage(AnalysisResponse response, String detectedLanguage) {
+        return response.toBuilder()
+                .detectedLanguage(detectedLanguage)
+                .build();
     }
 }
@@ -0,0 +1,603 @@
+package com.career.skillgapanalyser.service;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MODULE: Role Blueprint Index
+ * Immutable lookup structures compiled once per catalog:
+ * - every skill name (catalog skills and blueprint requirements) is interned
+ *   to a dense id, so a role's requirements and a resume's findings are
+ *   bitsets and the gap computation is a handful of word-wide operations;
+ * - role names and aliases are normalized once and indexed by trigram, so a
+ *   fuzzy lookup only verifies the few names sharing the input's trigrams
+ *   instead of renormalizing every key.
+ *
+ * All of it is compiled into the catalog file by {@link CatalogCompiler}
+ * and read from the mapped file in place: the name lookups are open
+ * addressing hash tables, the trigram postings a sorted key array, and a
+ * role's requirement bitset is stored sparsely as its non-zero words with
+ * their word indexes. Roles and their blueprints are materialized only
+ * when looked up.
+ */
+public final class RoleIndex {
+
+    private static final int GRAM = 3;
+
+    private final CatalogFile file;
+
+    // Skill ids: name ref per id, hash table of id + 1 by name (0 = empty slot), id per catalog skill,
+    // first catalog skill per id (-1 for names only blueprints require)
+    private final IntBuffer skillNames;
+    private final IntBuffer skillTable;
+    private final IntBuffer catalogSkillIds;
+    private final IntBuffer skillCatalogIndexes;
+
+    // Roles in catalog order: key ref, requirement ids (tech, soft, prof of role r in
+    // [start[3r], start[3r + 1]), [start[3r + 1], start[3r + 2]), [start[3r + 2], start[3r + 3])),
+    // alias refs and the requirement bitset words
+    private final IntBuffer roleKeys;
+    private final IntBuffer requirementStart;
+    private final IntBuffer requirements;
+    private final IntBuffer aliasStart;
+    private final IntBuffer aliases;
+    private final IntBuffer bitStart;
+    private final IntBuffer bitWordIndexes;
+    private final LongBuffer bitWords;
+
+    // Role names: primary keys in catalog order first, then aliases
+    private final IntBuffer names;
+    private final IntBuffer nameRoles;
+    private final IntBuffer nameTable;
+    private final IntBuffer nameTrigramCounts;
+    private final IntBuffer shortNames;
+    private final LongBuffer trigramKeys;
+    private final IntBuffer postingStart;
+    private final IntBuffer postings;
+
+    private RoleIndex(CatalogFile file) {
+        this.file = file;
+        this.skillNames = file.ints(CatalogFile.Section.SKILL_ID_NAMES);
+        this.skillTable = file.ints(CatalogFile.Section.SKILL_ID_TABLE);
+        this.catalogSkillIds = file.ints(CatalogFile.Section.CATALOG_SKILL_IDS);
+        this.skillCatalogIndexes = file.ints(CatalogFile.Section.SKILL_ID_CATALOG_INDEXES);
+        this.roleKeys = file.ints(CatalogFile.Section.ROLE_KEYS);
+        this.requirementStart = file.ints(CatalogFile.Section.ROLE_REQUIREMENT_START);
+        this.requirements = file.ints(CatalogFile.Section.ROLE_REQUIREMENTS);
+        this.aliasStart = file.ints(CatalogFile.Section.ROLE_ALIAS_START);
+        this.aliases = file.ints(CatalogFile.Section.ROLE_ALIASES);
+        this.bitStart = file.ints(CatalogFile.Section.ROLE_BIT_START);
+        this.bitWordIndexes = file.ints(CatalogFile.Section.ROLE_BIT_WORD_INDEXES);
+        this.bitWords = file.longs(CatalogFile.Section.ROLE_BIT_WORDS);
+        this.names = file.ints(CatalogFile.Section.NAMES);
+        this.nameRoles = file.ints(CatalogFile.Section.NAME_ROLES);
+        this.nameTable = file.ints(CatalogFile.Section.NAME_TABLE);
+        this.nameTrigramCounts = file.ints(CatalogFile.Section.NAME_TRIGRAM_COUNTS);
+        this.shortNames = file.ints(CatalogFile.Section.SHORT_NAMES);
+        this.trigramKeys = file.longs(CatalogFile.Section.TRIGRAM_KEYS);
+        this.postingStart = file.ints(CatalogFile.Section.TRIGRAM_POSTING_START);
+        this.postings = file.ints(CatalogFile.Section.TRIGRAM_POSTINGS);
+    }
+
+    /**
+     * The role index of a compiled catalog.
+     */
+    public static RoleIndex read(CatalogFile file) {
+        return new RoleIndex(file);
+    }
+
+    static void compile(SkillExtractor.SkillData data, CatalogCompiler.Writer out) {
+        Map<String, Integer> skillIds = new HashMap<>();
+        List<String> skillNames = new ArrayList<>();
+
+        List<SkillExtractor.SkillDef> skills = data.skills != null ? data.skills : List.of();
+        int[] catalogSkillIds = new int[skills.size()];
+        for (int i = 0; i < skills.size(); i++) {
+            catalogSkillIds[i] = intern(skills.get(i) == null ? null : skills.get(i).name, skillIds, skillNames);
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Integer> nameRoles = new ArrayList<>();
+        List<Integer> roleKeys = new ArrayList<>();
+        List<Integer> requirementStart = new ArrayList<>();
+        List<Integer> requirements = new ArrayList<>();
+        List<Integer> aliasStart = new ArrayList<>();
+        List<Integer> aliases = new ArrayList<>();
+        List<int[]> roleIds = new ArrayList<>();
+        Map<String, SkillExtractor.SkillData.RoleDef> roles = data.roles != null ? data.roles : Map.of();
+
+        for (Map.Entry<String, SkillExtractor.SkillData.RoleDef> entry : roles.entrySet()) {
+            SkillExtractor.SkillData.RoleDef role = entry.getValue();
+            if (role == null)
+                continue;
+            int index = roleKeys.size();
+            roleKeys.add(out.string(entry.getKey()));
+            List<Integer> ids = new ArrayList<>();
+            for (List<String> required : List.of(nullToEmpty(role.tech), nullToEmpty(role.soft),
+                    nullToEmpty(role.prof))) {
+                requirementStart.add(requirements.size());
+                for (int id : intern(required, skillIds, skillNames)) {
+                    requirements.add(id);
+                    ids.add(id);
+                }
+            }
+            roleIds.add(CatalogCompiler.toArray(ids));
+            aliasStart.add(aliases.size());
+            for (String alias : nullToEmpty(role.aliases)) {
+                aliases.add(out.string(alias));
+            }
+            names.add(normalize(entry.getKey()));
+            nameRoles.add(index);
+        }
+        requirementStart.add(requirements.size());
+        aliasStart.add(aliases.size());
+        int role = 0;
+        for (SkillExtractor.SkillData.RoleDef def : roles.values()) {
+            if (def == null)
+                continue;
+            for (String alias : nullToEmpty(def.aliases)) {
+                if (alias != null) {
+                    names.add(normalize(alias));
+                    nameRoles.add(role);
+                }
+            }
+            role++;
+        }
+
+        // Requirement bitsets, sparse: the non-zero words of each role with their word index
+        List<Integer> bitStart = new ArrayList<>();
+        List<Integer> bitWordIndexes = new ArrayList<>();
+        List<Long> bitWords = new ArrayList<>();
+        for (int[] ids : roleIds) {
+            bitStart.add(bitWords.size());
+            BitSet required = new BitSet();
+            for (int id : ids) {
+                required.set(id);
+            }
+            long[] words = required.toLongArray();
+            for (int w = 0; w < words.length; w++) {
+                if (words[w] != 0) {
+                    bitWordIndexes.add(w);
+                    bitWords.add(words[w]);
+                }
+            }
+        }
+        bitStart.add(bitWords.size());
+
+        int[] nameRefs = new int[names.size()];
+        int[] trigramCounts = new int[names.size()];
+        List<Integer> shortNames = new ArrayList<>();
+        Map<Long, List<Integer>> postings = new HashMap<>();
+        for (int n = 0; n < names.size(); n++) {
+            String name = names.get(n);
+            nameRefs[n] = out.string(name);
+            Set<Long> grams = trigrams(name);
+            trigramCounts[n] = grams.size();
+            if (grams.isEmpty()) {
+                shortNames.add(n);
+            }
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new ArrayList<>()).add(n);
+            }
+        }
+        long[] trigramKeys = new long[postings.size()];
+        int k = 0;
+        for (long gram : postings.keySet()) {
+            trigramKeys[k++] = gram;
+        }
+        Arrays.sort(trigramKeys);
+        int[] postingStart = new int[trigramKeys.length + 1];
+        List<Integer> postingList = new ArrayList<>();
+        for (k = 0; k < trigramKeys.length; k++) {
+            postingStart[k] = postingList.size();
+            postingList.addAll(postings.get(trigramKeys[k]));
+        }
+        postingStart[trigramKeys.length] = postingList.size();
+
+        int[] skillNameRefs = new int[skillNames.size()];
+        for (int id = 0; id < skillNameRefs.length; id++) {
+            skillNameRefs[id] = out.string(skillNames.get(id));
+        }
+        int[] skillCatalogIndexes = new int[skillNames.size()];
+        Arrays.fill(skillCatalogIndexes, -1);
+        for (int i = catalogSkillIds.length - 1; i >= 0; i--) {
+            skillCatalogIndexes[catalogSkillIds[i]] = i;
+        }
+
+        out.put(CatalogFile.Section.SKILL_ID_NAMES, skillNameRefs);
+        out.put(CatalogFile.Section.SKILL_ID_TABLE, hashTable(skillNames));
+        out.put(CatalogFile.Section.CATALOG_SKILL_IDS, catalogSkillIds);
+        out.put(CatalogFile.Section.SKILL_ID_CATALOG_INDEXES, skillCatalogIndexes);
+        out.put(CatalogFile.Section.ROLE_KEYS, CatalogCompiler.toArray(roleKeys));
+        out.put(CatalogFile.Section.ROLE_REQUIREMENT_START, CatalogCompiler.toArray(requirementStart));
+        out.put(CatalogFile.Section.ROLE_REQUIREMENTS, CatalogCompiler.toArray(requirements));
+        out.put(CatalogFile.Section.ROLE_ALIAS_START, CatalogCompiler.toArray(aliasStart));
+        out.put(CatalogFile.Section.ROLE_ALIASES, CatalogCompiler.toArray(aliases));
+        out.put(CatalogFile.Section.ROLE_BIT_START, CatalogCompiler.toArray(bitStart));
+        out.put(CatalogFile.Section.ROLE_BIT_WORD_INDEXES, CatalogCompiler.toArray(bitWordIndexes));
+        out.put(CatalogFile.Section.ROLE_BIT_WORDS, bitWords.stream().mapToLong(Long::longValue).toArray());
+        out.put(CatalogFile.Section.NAMES, nameRefs);
+        out.put(CatalogFile.Section.NAME_ROLES, CatalogCompiler.toArray(nameRoles));
+        out.put(CatalogFile.Section.NAME_TABLE, hashTable(names));
+        out.put(CatalogFile.Section.NAME_TRIGRAM_COUNTS, trigramCounts);
+        out.put(CatalogFile.Section.SHORT_NAMES, CatalogCompiler.toArray(shortNames));
+        out.put(CatalogFile.Section.TRIGRAM_KEYS, trigramKeys);
+        out.put(CatalogFile.Section.TRIGRAM_POSTING_START, postingStart);
+        out.put(CatalogFile.Section.TRIGRAM_POSTINGS, CatalogCompiler.toArray(postingList));
+    }
+
+    /**
+     * Same rule the lookup always used: lower case, spaces and dashes removed.
+     */
+    public static String normalize(String roleId) {
+        return roleId.toLowerCase().replace(" ", "").replace("-", "").trim();
+    }
+
+    /**
+     * Resolves a role by exact normalized name or alias; otherwise falls back
+     * to the first name (in catalog order) that contains the input or is
+     * contained in it.
+     *
+     * @return null if no role matches
+     */
+    public CompiledRole find(String roleId) {
+        if (roleId == null)
+            return null;
+        String input = normalize(roleId);
+
+        int exact = lookup(nameTable, names, input);
+        if (exact >= 0)
+            return role(nameRoles.get(exact));
+
+        int nameCount = names.limit();
+        int best = Integer.MAX_VALUE;
+        Set<Long> inputGrams = trigrams(input);
+
+        if (inputGrams.isEmpty()) {
+            // Too short to index: any name may contain it
+            for (int n = 0; n < nameCount && best == Integer.MAX_VALUE; n++) {
+                String name = name(n);
+                if (name.contains(input) || input.contains(name))
+                    best = n;
+            }
+            return best == Integer.MAX_VALUE ? null : role(nameRoles.get(best));
+        }
+
+        // A name contained in the input has all of its trigrams in the input; a name containing
+        // the input has all of the input's trigrams. Count shared trigrams per name to find both.
+        int[] shared = new int[nameCount];
+        for (long gram : inputGrams) {
+            int key = binarySearch(trigramKeys, gram);
+            if (key < 0)
+                continue;
+            for (int p = postingStart.get(key); p < postingStart.get(key + 1); p++) {
+                shared[postings.get(p)]++;
+            }
+        }
+        for (int n = 0; n < nameCount; n++) {
+            if (n >= best)
+                break;
+            boolean candidate = shared[n] == inputGrams.size()
+                    || (shared[n] > 0 && shared[n] == nameTrigramCounts.get(n));
+            if (candidate && (name(n).contains(input) || input.contains(name(n))))
+                best = n;
+        }
+        for (int s = 0; s < shortNames.limit(); s++) {
+            int n = shortNames.get(s);
+            if (n < best && input.contains(name(n)))
+                best = n;
+        }
+        return best == Integer.MAX_VALUE ? null : role(nameRoles.get(best));
+    }
+
+    /**
+     * @return the compiled form of a blueprint; blueprints from outside this
+     * catalog (or from an earlier version of it) are compiled on the fly
+     */
+    public CompiledRole compiled(SkillExtractor.SkillData.RoleDef role) {
+        if (role == null)
+            return null;
+        if (role.compiled != null && role.compiled.index == this)
+            return role.compiled;
+        return new CompiledRole(this, -1, null, role, lookup(role.tech), lookup(role.soft), lookup(role.prof));
+    }
+
+    /**
+     * @return the skill id of the catalog skill at the given position
+     */
+    public int skillIdOf(int catalogIndex) {
+        return catalogSkillIds.get(catalogIndex);
+    }
+
+    /**
+     * @return the first catalog skill with the id's name, -1 if only role
+     * blueprints name it
+     */
+    public int catalogIndexOf(int skillId) {
+        return skillCatalogIndexes.get(skillId);
+    }
+
+    public int getSkillCount() {
+        return skillNames.limit();
+    }
+
+    public int getRoleCount() {
+        return roleKeys.limit();
+    }
+
+    public String getSkillName(int skillId) {
+        return skillId >= 0 && skillId < skillNames.limit() ? file.string(skillNames.get(skillId)) : null;
+    }
+
+    /**
+     * @return how many distinct skills required by the catalog role at the
+     * given position are in {@code found}, from the stored bitset
+     */
+    public int countFound(int role, BitSet found) {
+        int count = 0;
+        for (int w = bitStart.get(role); w < bitStart.get(role + 1); w++) {
+            int base = bitWordIndexes.get(w) << 6;
+            for (long bits = bitWords.get(w); bits != 0; bits &= bits - 1) {
+                if (found.get(base + Long.numberOfTrailingZeros(bits)))
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Word-wise variant of {@link #countFound(int, BitSet)} for {@code found}
+     * as {@link BitSet#toLongArray()} words: one AND and bit count per stored
+     * word. Reads the mapped tables only, so roles can be counted from
+     * several threads at once.
+     */
+    public int countFound(int role, long[] found) {
+        int count = 0;
+        for (int w = bitStart.get(role); w < bitStart.get(role + 1); w++) {
+            int word = bitWordIndexes.get(w);
+            if (word < found.length)
+                count += Long.bitCount(bitWords.get(w) & found[word]);
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of requirement entries of the catalog role at the
+     * given position, duplicates included (see {@link CompiledRole#getRequiredCount()})
+     */
+    public int getRequiredCount(int role) {
+        return requirementStart.get(3 * role + 3) - requirementStart.get(3 * role);
+    }
+
+    /**
+     * @return the catalog role at the given position
+     */
+    public CompiledRole getRole(int role) {
+        return role(role);
+    }
+
+    private CompiledRole role(int role) {
+        int start = 3 * role;
+        return new CompiledRole(this, role, file.string(roleKeys.get(role)), null,
+                ids(requirementStart.get(start), requirementStart.get(start + 1)),
+                ids(requirementStart.get(start + 1), requirementStart.get(start + 2)),
+                ids(requirementStart.get(start + 2), requirementStart.get(start + 3)));
+    }
+
+    private SkillExtractor.SkillData.RoleDef definition(CompiledRole role) {
+        SkillExtractor.SkillData.RoleDef def = new SkillExtractor.SkillData.RoleDef();
+        def.tech = skillNames(role.tech);
+        def.soft = skillNames(role.soft);
+        def.prof = skillNames(role.prof);
+        def.aliases = file.strings(aliasStart, aliases, role.role);
+        def.compiled = role;
+        return def;
+    }
+
+    private int[] ids(int from, int to) {
+        int[] ids = new int[to - from];
+        requirements.get(from, ids);
+        return ids;
+    }
+
+    private List<String> skillNames(int[] ids) {
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(getSkillName(id));
+        }
+        return result;
+    }
+
+    private String name(int n) {
+        return file.string(names.get(n));
+    }
+
+    private int[] lookup(List<String> required) {
+        if (required == null)
+            return new int[0];
+        int[] ids = new int[required.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lookup(skillTable, skillNames, required.get(i));
+        }
+        return ids;
+    }
+
+    // Linear probing from the slot of the key's hash; slots hold the entry + 1, 0 ends the probe
+    private int lookup(IntBuffer table, IntBuffer refs, String key) {
+        if (key == null || table.limit() == 0)
+            return -1;
+        int mask = table.limit() - 1;
+        for (int slot = slot(key, mask); table.get(slot) != 0; slot = (slot + 1) & mask) {
+            int entry = table.get(slot) - 1;
+            if (key.equals(file.string(refs.get(entry))))
+                return entry;
+        }
+        return -1;
+    }
+
+    // A key listed twice keeps its first entry
+    private static int[] hashTable(List<String> keys) {
+        int size = Integer.highestOneBit(Math.max(1, keys.size()) * 2) * 2;
+        int[] table = new int[size];
+        Set<String> seen = new LinkedHashSet<>();
+        for (int entry = 0; entry < keys.size(); entry++) {
+            String key = keys.get(entry);
+            if (key == null || !seen.add(key))
+                continue;
+            int slot = slot(key, size - 1);
+            while (table[slot] != 0)
+                slot = (slot + 1) & (size - 1);
+            table[slot] = entry + 1;
+        }
+        return table;
+    }
+
+    private static int slot(String key, int mask) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int binarySearch(LongBuffer keys, long key) {
+        int lo = 0;
+        int hi = keys.limit() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midKey = keys.get(mid);
+            if (midKey < key) {
+                lo = mid + 1;
+            } else if (midKey > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int intern(String name, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    private static int[] intern(List<String> required, Map<String, Integer> ids, List<String> names) {
+        int[] result = new int[required.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = intern(required.get(i), ids, names);
+        }
+        return result;
+    }
+
+    private static List<String> nullToEmpty(List<String> values) {
+        return values != null ? values : List.of();
+    }
+
+    // Three chars packed into a long, 16 bits each
+    private static Set<Long> trigrams(String s) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            grams.add(((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * A role blueprint with its requirements as skill ids. The id arrays keep
+     * the blueprint's order (for listing gaps); the bitset is their union
+     * (for counting). Ids of -1 stand for names unknown to the index.
+     */
+    public static final class CompiledRole {
+        private final RoleIndex index;
+        // Position in the catalog, -1 for blueprints compiled on the fly
+        private final int role;
+        private final String name;
+        private final SkillExtractor.SkillData.RoleDef definition;
+        private final int[] tech;
+        private final int[] soft;
+        private final int[] prof;
+        private final BitSet required = new BitSet();
+
+        CompiledRole(RoleIndex index, int role, String name, SkillExtractor.SkillData.RoleDef definition, int[] tech,
+                int[] soft, int[] prof) {
+            this.index = index;
+            this.role = role;
+            this.name = name;
+            this.definition = definition;
+            this.tech = tech;
+            this.soft = soft;
+            this.prof = prof;
+            for (int[] ids : new int[][] { tech, soft, prof }) {
+                for (int id : ids) {
+                    if (id >= 0)
+                        required.set(id);
+                }
+            }
+        }
+
+        /**
+         * @return the role's key in the catalog; null for blueprints compiled on the fly
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the blueprint; for a catalog role, materialized from the
+         * catalog file on every call
+         */
+        public SkillExtractor.SkillData.RoleDef getDefinition() {
+            return definition != null ? definition : index.definition(this);
+        }
+
+        public int[] getTech() {
+            return tech;
+        }
+
+        public int[] getSoft() {
+            return soft;
+        }
+
+        public int[] getProf() {
+            return prof;
+        }
+
+        /**
+         * Number of requirement entries, duplicates included.
+         */
+        public int getRequiredCount() {
+            return tech.length + soft.length + prof.length;
+        }
+
+        /**
+         * @return how many distinct required skills are in {@code found}
+         */
+        public int countFound(BitSet found) {
+            if (role >= 0)
+                return index.countFound(role, found);
+            BitSet hit = (BitSet) required.clone();
+            hit.and(found);
+            return hit.cardinality();
+        }
+
+        /**
+         * @return the required skills missing from {@code found}
+         */
+        public BitSet missing(BitSet found) {
+            BitSet missing = (BitSet) required.clone();
+            missing.andNot(found);
+            return missing;
+        }
+    }
+}
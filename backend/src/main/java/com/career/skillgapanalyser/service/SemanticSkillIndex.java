@@ -0,0 +1,451 @@
+package com.career.skillgapanalyser.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MODULE: Semantic Skill Matcher
+ * Finds skills a resume describes without naming a catalog keyword
+ * ("dockerized services", "led a team of five", "event-driven
+ * architecture"). Every catalog phrase (skill name, keywords and context
+ * phrases) is embedded as a hashed feature vector: its words, word pairs
+ * and character trigrams hashed with a sign into {@link #DIMENSIONS} floats,
+ * L2-normalized. Resume phrases of one to three words are embedded the
+ * same way, and a skill matches when the cosine similarity of a resume
+ * phrase and one of its catalog phrases reaches the threshold.
+ *
+ * The catalog matrix is written once per catalog version and embedding
+ * format to a file and memory-mapped, so a restart, or another JVM on the
+ * host, maps the same pages instead of recomputing them. It is stored column-major (one column
+ * of all catalog phrases per dimension): a resume phrase has only a few
+ * dozen non-zero dimensions, and scoring it against every catalog phrase
+ * is one contiguous multiply-add over each of those columns, a loop the JIT
+ * vectorizes.
+ */
+public final class SemanticSkillIndex {
+
+    static final int DIMENSIONS = 256;
+    private static final int MAX_WINDOW_WORDS = 3;
+    private static final int MAGIC = 0x534B5631; // "SKV1"
+    private static final int HEADER_INTS = 5;
+
+    /**
+     * Version of the embedding: bump it whenever {@link #embed}, the feature
+     * weights, the stop words or the tokenization change, so matrix files
+     * written by an earlier build are not mapped against new resume vectors.
+     */
+    static final int EMBEDDING_FORMAT = 1;
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float PAIR_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    // Stop words by hash, open addressing, so a resume word is checked without building a String
+    private static final int STOP_WORD_SLOTS = 128;
+    private static final String[] STOP_WORDS = new String[STOP_WORD_SLOTS];
+
+    static {
+        for (String word : List.of("a", "an", "and", "the", "of", "in", "on", "for", "to", "with", "by", "at", "as",
+                "from", "into", "using", "via", "over", "per", "i", "we", "my", "our", "was", "were", "is", "are",
+                "be", "been", "this", "that", "it", "its", "or", "etc")) {
+            int slot = word.hashCode() & (STOP_WORD_SLOTS - 1);
+            while (STOP_WORDS[slot] != null)
+                slot = (slot + 1) & (STOP_WORD_SLOTS - 1);
+            STOP_WORDS[slot] = word;
+        }
+    }
+
+    private final int rows;
+    private final int skillCount;
+    private final IntBuffer rowSkills;
+    private final FloatBuffer columns;
+
+    private SemanticSkillIndex(int rows, int skillCount, IntBuffer rowSkills, FloatBuffer columns) {
+        this.rows = rows;
+        this.skillCount = skillCount;
+        this.rowSkills = rowSkills;
+        this.columns = columns;
+    }
+
+    /**
+     * Maps the matrix file of this catalog version and embedding format from
+     * {@code directory}, writing it first if it does not exist yet or its
+     * header does not match. Without a directory, or when it is not
+     * writable, the matrix is kept on the heap.
+     */
+    public static SemanticSkillIndex build(CatalogFile catalog, Path directory, String version) {
+        if (directory != null) {
+            Path file = directory.resolve("skill-vectors-" + version + "-e" + EMBEDDING_FORMAT + ".bin");
+            try {
+                if (Files.exists(file)) {
+                    try {
+                        return map(file);
+                    } catch (IllegalStateException e) {
+                        System.err.println("Rewriting skill vectors " + file + ": " + e.getMessage());
+                    }
+                }
+                CatalogFile.write(encode(catalog), file);
+                return map(file);
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Skill vectors not memory-mapped, cannot use " + file + ": " + e.getMessage());
+            }
+        }
+        return read(encode(catalog));
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return per catalog skill index, the best cosine similarity of any
+     * resume phrase to one of the skill's phrases (0 when none is similar).
+     * The array belongs to {@code scratch} and is overwritten by its next
+     * use; it may be longer than the catalog.
+     */
+    public float[] match(CharSequence text, Scratch scratch) {
+        scratch.reset(skillCount, rows);
+        int length = text.length();
+        int i = 0;
+        while (i <= length) {
+            int end = i;
+            while (end < length && isTokenChar(text.charAt(end)))
+                end++;
+            if (end > i && !isNumber(text, i, end) && !isStopWord(text, i, end))
+                scratch.addWord(i, end, lowerHash(text, i, end));
+            char separator = end < length ? text.charAt(end) : '\n';
+            if (isClauseBreak(separator) && scratch.words > 0) {
+                scoreClause(text, scratch);
+                scratch.words = 0;
+            }
+            i = end + 1;
+        }
+        return scratch.best;
+    }
+
+    // Every run of one to three words of the clause, each distinct run scored once per text
+    private void scoreClause(CharSequence text, Scratch scratch) {
+        float[] best = scratch.best;
+        float[] scores = scratch.scores;
+        float[] column = scratch.column;
+        float[] vector = scratch.vector;
+        int[] dims = scratch.dims;
+        for (int start = 0; start < scratch.words; start++) {
+            long key = 0;
+            for (int words = 1; words <= MAX_WINDOW_WORDS && start + words <= scratch.words; words++) {
+                key = key * 1_000_003L + scratch.wordHashes[start + words - 1];
+                if (!scratch.firstSeen(key * MAX_WINDOW_WORDS + words))
+                    continue;
+                int nonZero = embed(text, scratch.wordStarts, scratch.wordEnds, start, words, vector, dims);
+                if (nonZero == 0)
+                    continue;
+
+                Arrays.fill(scores, 0, rows, 0f);
+                for (int d = 0; d < nonZero; d++) {
+                    float weight = vector[dims[d]];
+                    columns.get(dims[d] * rows, column, 0, rows);
+                    for (int r = 0; r < rows; r++) {
+                        scores[r] += weight * column[r];
+                    }
+                }
+                for (int r = 0; r < rows; r++) {
+                    int skill = rowSkills.get(r);
+                    if (scores[r] > best[skill])
+                        best[skill] = scores[r];
+                }
+            }
+        }
+    }
+
+    /**
+     * Embeds the phrase made of the words {@code [from, from + count)}, given
+     * as spans of {@code text} and case-folded on the fly, into
+     * {@code vector} (normalized, dense) and lists its non-zero dimensions in
+     * {@code dims}.
+     *
+     * @return the number of non-zero dimensions
+     */
+    static int embed(CharSequence text, int[] starts, int[] ends, int from, int count, float[] vector, int[] dims) {
+        Arrays.fill(vector, 0f);
+        int previous = 0;
+        for (int w = from; w < from + count; w++) {
+            int start = starts[w];
+            int end = ends[w];
+            int h = 0x9E3779B9;
+            for (int c = start; c < end; c++) {
+                h = h * 31 + Character.toLowerCase(text.charAt(c));
+            }
+            int wordHash = mix(h);
+            add(vector, wordHash, WORD_WEIGHT);
+            if (w > from)
+                add(vector, mix(previous * 31 + wordHash), PAIR_WEIGHT);
+            previous = wordHash;
+
+            // Trigrams of the word padded with a space on both sides
+            int padded = end - start + 2;
+            for (int c = 0; c + 3 <= padded; c++) {
+                int t = 0x85EBCA6B;
+                for (int k = c; k < c + 3; k++) {
+                    t = t * 31 + (k == 0 || k == padded - 1 ? ' ' : Character.toLowerCase(text.charAt(start + k - 1)));
+                }
+                add(vector, mix(t), TRIGRAM_WEIGHT);
+            }
+        }
+
+        float norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0)
+            return 0;
+        float scale = (float) (1 / Math.sqrt(norm));
+        int nonZero = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (vector[d] != 0) {
+                vector[d] *= scale;
+                dims[nonZero++] = d;
+            }
+        }
+        return nonZero;
+    }
+
+    // The sign bit picks the direction, so colliding features cancel out rather than add up
+    private static void add(float[] vector, int hash, float weight) {
+        vector[(hash >>> 1) & (DIMENSIONS - 1)] += hash < 0 ? -weight : weight;
+    }
+
+    // Murmur3 finalizer: spreads similar inputs over all bits
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    // String.hashCode of the lower-cased span
+    private static int lowerHash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h;
+    }
+
+    // "c++" and "c#" stay one word; hyphens and slashes separate words
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+
+    private static boolean isClauseBreak(char c) {
+        return c == '\n' || c == '.' || c == ',' || c == ';' || c == ':' || c == '|' || c == '(' || c == ')'
+                || c == '•';
+    }
+
+    private static boolean isNumber(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(text.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isStopWord(CharSequence text, int start, int end) {
+        int length = end - start;
+        for (int slot = lowerHash(text, start, end) & (STOP_WORD_SLOTS - 1); STOP_WORDS[slot] != null;
+                slot = (slot + 1) & (STOP_WORD_SLOTS - 1)) {
+            String word = STOP_WORDS[slot];
+            if (word.length() == length && matchesLower(word, text, start))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean matchesLower(String word, CharSequence text, int start) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != Character.toLowerCase(text.charAt(start + i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * File layout, little-endian like the hosts it runs on, so reading a
+     * float needs no byte swap: magic, embedding format, dimensions, rows,
+     * skill count, the skill index of each row, then the matrix column by
+     * column.
+     */
+    private static ByteBuffer encode(CatalogFile catalog) {
+        List<float[]> vectors = new ArrayList<>();
+        List<Integer> rowSkills = new ArrayList<>();
+        int[] dims = new int[DIMENSIONS];
+        Scratch phraseWords = new Scratch();
+        int skillCount = catalog.getSkillCount();
+        for (int s = 0; s < skillCount; s++) {
+            List<String> phrases = new ArrayList<>();
+            phrases.add(catalog.getSkillName(s));
+            phrases.addAll(catalog.getSkillKeywords(s));
+            phrases.addAll(catalog.getSkillContext(s));
+            for (String phrase : phrases) {
+                if (phrase == null)
+                    continue;
+                // The whole phrase is one window; numbers count as words here
+                phraseWords.words = 0;
+                int i = 0;
+                while (i < phrase.length()) {
+                    int end = i;
+                    while (end < phrase.length() && isTokenChar(phrase.charAt(end)))
+                        end++;
+                    if (end > i && !isStopWord(phrase, i, end))
+                        phraseWords.addWord(i, end, 0);
+                    i = end + 1;
+                }
+                float[] vector = new float[DIMENSIONS];
+                if (embed(phrase, phraseWords.wordStarts, phraseWords.wordEnds, 0, phraseWords.words, vector,
+                        dims) > 0) {
+                    vectors.add(vector);
+                    rowSkills.add(s);
+                }
+            }
+        }
+
+        int rows = vectors.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (HEADER_INTS + rows + rows * DIMENSIONS))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(EMBEDDING_FORMAT).putInt(DIMENSIONS).putInt(rows).putInt(skillCount);
+        for (int skill : rowSkills) {
+            buffer.putInt(skill);
+        }
+        for (int d = 0; d < DIMENSIONS; d++) {
+            for (float[] vector : vectors) {
+                buffer.putFloat(vector[d]);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static SemanticSkillIndex map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static SemanticSkillIndex read(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < 4 * HEADER_INTS || buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) != EMBEDDING_FORMAT || buffer.getInt(8) != DIMENSIONS)
+            throw new IllegalStateException("Not a skill vector file of embedding format " + EMBEDDING_FORMAT
+                    + " with " + DIMENSIONS + " dimensions");
+        int rows = buffer.getInt(12);
+        int skillCount = buffer.getInt(16);
+        if (rows < 0 || buffer.capacity() != 4L * (HEADER_INTS + rows + (long) rows * DIMENSIONS))
+            throw new IllegalStateException("Skill vector file of " + rows + " rows has the wrong size");
+        IntBuffer rowSkills = buffer.slice(4 * HEADER_INTS, 4 * rows).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        FloatBuffer columns = buffer.slice(4 * (HEADER_INTS + rows), 4 * rows * DIMENSIONS)
+                .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        return new SemanticSkillIndex(rows, skillCount, rowSkills, columns);
+    }
+
+    /**
+     * Reusable buffers of {@link #match}, used by one thread at a time and
+     * grown to the catalog's size on first use, so matching allocates
+     * nothing afterwards.
+     */
+    public static final class Scratch {
+        private float[] best = new float[0];
+        private float[] scores = new float[0];
+        private float[] column = new float[0];
+        private final float[] vector = new float[DIMENSIONS];
+        private final int[] dims = new int[DIMENSIONS];
+
+        // Words of the current clause, as spans of the text with the hash of their lower case
+        private int words;
+        private int[] wordStarts = new int[32];
+        private int[] wordEnds = new int[32];
+        private int[] wordHashes = new int[32];
+
+        // Windows scored so far in this text: open addressing, a slot is taken when its stamp is the generation
+        private long[] windowKeys = new long[1024];
+        private int[] windowStamps = new int[1024];
+        private int windowCount;
+        private int generation;
+
+        private void reset(int skillCount, int rows) {
+            if (best.length < skillCount) {
+                best = new float[skillCount];
+            } else {
+                Arrays.fill(best, 0, skillCount, 0f);
+            }
+            if (scores.length < rows) {
+                scores = new float[rows];
+                column = new float[rows];
+            }
+            words = 0;
+            windowCount = 0;
+            if (++generation == 0) {
+                Arrays.fill(windowStamps, 0);
+                generation = 1;
+            }
+        }
+
+        private void addWord(int start, int end, int hash) {
+            if (words == wordStarts.length) {
+                wordStarts = Arrays.copyOf(wordStarts, 2 * words);
+                wordEnds = Arrays.copyOf(wordEnds, 2 * words);
+                wordHashes = Arrays.copyOf(wordHashes, 2 * words);
+            }
+            wordStarts[words] = start;
+            wordEnds[words] = end;
+            wordHashes[words] = hash;
+            words++;
+        }
+
+        /**
+         * @return false if the window was already scored in this text
+         */
+        private boolean firstSeen(long key) {
+            if (2 * (windowCount + 1) > windowKeys.length)
+                growWindows();
+            int mask = windowKeys.length - 1;
+            int slot = mix((int) (key ^ (key >>> 32))) & mask;
+            while (windowStamps[slot] == generation) {
+                if (windowKeys[slot] == key)
+                    return false;
+                slot = (slot + 1) & mask;
+            }
+            windowStamps[slot] = generation;
+            windowKeys[slot] = key;
+            windowCount++;
+            return true;
+        }
+
+        private void growWindows() {
+            long[] keys = windowKeys;
+            int[] stamps = windowStamps;
+            windowKeys = new long[2 * keys.length];
+            windowStamps = new int[2 * keys.length];
+            int mask = windowKeys.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                if (stamps[i] != generation)
+                    continue;
+                int slot = mix((int) (keys[i] ^ (keys[i] >>> 32))) & mask;
+                while (windowStamps[slot] == generation)
+                    slot = (slot + 1) & mask;
+                windowStamps[slot] = generation;
+                windowKeys[slot] = keys[i];
+            }
+        }
+    }
+}
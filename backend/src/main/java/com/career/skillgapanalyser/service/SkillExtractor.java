@@ -1,80 +1,343 @@
 package com.career.skillgapanalyser.service;
 
 import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.RoleRankingResponse;
 import com.career.skillgapanalyser.dto.SkillDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.core.io.ClassPathResource;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
 @Service
 public class SkillExtractor {
 
-    private SkillData skillData;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int STRENGTHS = 3;
+    // Role ranking counts catalogs from this many roles on in parallel, in chunks of this many roles
+    private static final int PARALLEL_RANKING_ROLES = 2048;
+    private static final int RANKING_CHUNK_ROLES = 512;
+
+    // Current catalog with everything compiled from it; replaced as a whole on reload
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>();
+    private final String catalogPath;
+    private final boolean watchCatalog;
+    private final long reloadDebounceMs;
+    private final Path compiledDirectory;
+    private final boolean semanticMatching;
+    private final float minSimilarity;
+    private final Path vectorDirectory;
+    // Analysis state reused across requests, at most one per core kept idle
+    private final BlockingQueue<AnalysisScratch> scratchPool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+    private WatchService watchService;
+
+    public SkillExtractor(
+            @Value("${skills.catalog.path:}") String catalogPath,
+            @Value("${skills.catalog.watch:true}") boolean watchCatalog,
+            @Value("${skills.catalog.reload-debounce-ms:500}") long reloadDebounceMs,
+            @Value("${skills.catalog.compiled-dir:${java.io.tmpdir}/skill-gap-catalog}") String compiledDirectory,
+            @Value("${skills.semantic.enabled:true}") boolean semanticMatching,
+            @Value("${skills.semantic.min-similarity:0.7}") float minSimilarity,
+            @Value("${skills.semantic.dir:${java.io.tmpdir}/skill-gap-vectors}") String vectorDirectory) {
+        this.catalogPath = catalogPath;
+        this.watchCatalog = watchCatalog;
+        this.reloadDebounceMs = reloadDebounceMs;
+        this.compiledDirectory = compiledDirectory.isBlank() ? null : Paths.get(compiledDirectory);
+        this.semanticMatching = semanticMatching;
+        this.minSimilarity = minSimilarity;
+        this.vectorDirectory = vectorDirectory.isBlank() ? null : Paths.get(vectorDirectory);
+    }
 
     @PostConstruct
     public void init() {
         try {
-            ClassPathResource resource = new ClassPathResource("skills.json");
-            skillData = objectMapper.readValue(resource.getInputStream(), SkillData.class);
+            catalog.set(load(null));
         } catch (IOException e) {
             throw new RuntimeException("Failed to load skills.json", e);
         }
+        if (!catalogPath.isBlank() && watchCatalog) {
+            startWatcher(Paths.get(catalogPath).toAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (watchService != null)
+            watchService.close();
     }
 
     /**
-     * MODULE: Domain Skill Blueprint Loader
-     * Retrieves the strict skill requirements for a specific domain.
+     * MODULE: Catalog Hot Reload
+     * Re-reads the catalog and, if its content changed, compiles and maps it
+     * on the calling thread before swapping the new snapshot in. Analyses
+     * already running keep the snapshot they started with; a broken file
+     * leaves the current catalog in place.
+     *
+     * @return true if a new catalog version was installed
      */
-    public SkillData.RoleDef getRoleDefinition(String roleId) {
-        if (roleId == null)
-            return null;
+    public boolean reload() {
+        try {
+            Catalog next = load(catalog.get().version);
+            if (next == null)
+                return false;
+            catalog.set(next);
+            System.err.println("Skills catalog reloaded, version " + next.version);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Skills catalog reload failed, keeping version " + catalog.get().version + ": "
+                    + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Content hash of the loaded skills.json; changes whenever a skill or role
+     * blueprint changes.
+     */
+    public String getCatalogVersion() {
+        return catalog.get().version;
+    }
 
-        String normalizedInput = roleId.toLowerCase().replace(" ", "").replace("-", "").trim();
+    /**
+     * MODULE: Compiled Catalog Loader
+     * The bundled catalog is compiled into skills.bin by the build; an
+     * external one (or the bundled skills.json when the build step did not
+     * run) is compiled here. Either way the compiled file is kept in the
+     * compiled-dir under its version and memory-mapped, so a restart, or
+     * another JVM on the host, maps the existing file without parsing or
+     * compiling anything. Without a usable directory the compiled catalog is
+     * kept on the heap.
+     *
+     * @return null if the catalog still has {@code currentVersion}
+     */
+    private Catalog load(String currentVersion) throws IOException {
+        if (catalogPath.isBlank()) {
+            ClassPathResource compiled = new ClassPathResource(CatalogCompiler.COMPILED_RESOURCE);
+            if (compiled.exists()) {
+                try (InputStream is = compiled.getInputStream()) {
+                    byte[] header = is.readNBytes(CatalogFile.HEADER_BYTES);
+                    String version = CatalogFile.version(ByteBuffer.wrap(header));
+                    if (version.equals(currentVersion))
+                        return null;
+                    return open(version, () -> {
+                        byte[] rest = is.readAllBytes();
+                        return ByteBuffer.allocate(header.length + rest.length).put(header).put(rest).flip();
+                    });
+                }
+            }
+        }
+        byte[] json = readJson();
+        String version = CatalogCompiler.version(json);
+        if (version.equals(currentVersion))
+            return null;
+        return open(version, () -> CatalogCompiler.compile(json));
+    }
 
-        // 1. Exact match
-        SkillData.RoleDef targetRole = skillData.roles.get(normalizedInput);
+    private byte[] readJson() throws IOException {
+        if (!catalogPath.isBlank()) {
+            return Files.readAllBytes(Paths.get(catalogPath));
+        }
+        try (InputStream is = new ClassPathResource("skills.json").getInputStream()) {
+            return is.readAllBytes();
+        }
+    }
 
-        // 2. Fuzzy match
-        if (targetRole == null) {
-            for (String key : skillData.roles.keySet()) {
-                String normalizedKey = key.toLowerCase().replace(" ", "").replace("-", "");
-                if (normalizedInput.contains(normalizedKey) || normalizedKey.contains(normalizedInput)) {
-                    targetRole = skillData.roles.get(key);
-                    break;
+    private Catalog open(String version, CompiledSource source) throws IOException {
+        CatalogFile file = null;
+        Path path = compiledDirectory == null ? null : compiledDirectory.resolve("skills-" + version + ".bin");
+        if (path != null && Files.exists(path)) {
+            try {
+                file = CatalogFile.map(path);
+            } catch (IOException | IllegalStateException e) {
+                // Left by another build of the service; compiled again below
+                System.err.println("Cannot map compiled catalog " + path + ": " + e.getMessage());
+            }
+        }
+        if (file == null) {
+            ByteBuffer content = source.read();
+            if (path != null) {
+                try {
+                    CatalogFile.write(content.duplicate(), path);
+                    file = CatalogFile.map(path);
+                } catch (IOException | IllegalStateException e) {
+                    System.err.println("Compiled catalog not memory-mapped, cannot use " + path + ": "
+                            + e.getMessage());
                 }
             }
+            if (file == null)
+                file = CatalogFile.read(content);
         }
-        return targetRole;
+
+        SemanticSkillIndex semantic = semanticMatching
+                ? SemanticSkillIndex.build(file, vectorDirectory, version)
+                : null;
+        return new Catalog(file, KeywordAutomaton.read(file), RoleIndex.read(file), semantic, version);
     }
 
-    public AnalysisResponse analyze(String resumeText, String roleId) {
-        String lowerDate = resumeText.toLowerCase();
-        List<SkillDto> extractedSkills = new ArrayList<>();
-        Set<String> foundSkillNames = new HashSet<>();
-
-        // 1. Extract Skills (Keyword Matching Engine)
-        for (SkillDef skill : skillData.skills) {
-            for (String keyword : skill.keywords) {
-                if (lowerDate.contains(keyword.toLowerCase())) {
-                    if (!foundSkillNames.contains(skill.name)) {
-                        extractedSkills.add(new SkillDto(skill.name, skill.type, "id_" + skill.name));
-                        foundSkillNames.add(skill.name);
+    @FunctionalInterface
+    private interface CompiledSource {
+        ByteBuffer read() throws IOException;
+    }
+
+    // Watches the catalog's directory (editors often replace the file rather than modify it)
+    private void startWatcher(Path file) {
+        Path directory = file.getParent();
+        Path fileName = file.getFileName();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + file + ", catalog hot reload disabled: " + e.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean changed = touches(key, fileName);
+                    // Let a burst of writes settle before compiling
+                    while ((key = watchService.poll(reloadDebounceMs, TimeUnit.MILLISECONDS)) != null) {
+                        changed |= touches(key, fileName);
                     }
-                    break;
+                    if (changed)
+                        reload();
                 }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Shutting down
             }
+        }, "skills-catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static boolean touches(WatchKey key, Path fileName) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context()))
+                touched = true;
         }
+        key.reset();
+        return touched;
+    }
 
-        // 2. Load Blueprint
-        SkillData.RoleDef targetRole = getRoleDefinition(roleId);
+    /**
+     * MODULE: Domain Skill Blueprint Loader
+     * Retrieves the strict skill requirements for a specific domain.
+     */
+    public SkillData.RoleDef getRoleDefinition(String roleId) {
+        // Exact name or alias first, then the fuzzy containment match, both via the precompiled index
+        RoleIndex.CompiledRole role = catalog.get().roleIndex.find(roleId);
+        return role == null ? null : role.getDefinition();
+    }
+
+    /**
+     * @return the catalog key the role id resolves to, or "dynamic" when the
+     * role is not in the catalog (bounded value for metric tags)
+     */
+    public String getRoleName(String roleId) {
+        RoleIndex.CompiledRole role = catalog.get().roleIndex.find(roleId);
+        return role == null ? "dynamic" : role.getName();
+    }
+
+    public int getSkillCount() {
+        return catalog.get().file.getSkillCount();
+    }
+
+    public int getRoleCount() {
+        return catalog.get().roleIndex.getRoleCount();
+    }
+
+    public int getKeywordCount() {
+        return catalog.get().automaton.getKeywordCount();
+    }
+
+    /**
+     * MODULE: Keyword Matching Engine
+     * Finds every catalog keyword in the text in a single pass. Each match
+     * carries the index of its skill in the catalog and its char span.
+     */
+    public List<KeywordAutomaton.KeywordMatch> findMatches(String resumeText) {
+        if (resumeText == null)
+            return new ArrayList<>();
+        return catalog.get().automaton.findAll(resumeText);
+    }
+
+    public SkillDef getSkill(int skillIndex) {
+        return catalog.get().file.getSkill(skillIndex);
+    }
+
+    public AnalysisResponse analyze(String resumeText, String roleId) {
+        Catalog current = catalog.get();
+        RoleIndex.CompiledRole role = current.roleIndex.find(roleId);
+        return analyze(current, resumeText, role == null ? null : role.getDefinition());
+    }
 
+    /**
+     * Same as {@link #analyze(String, String)} for callers that already
+     * resolved the blueprint (null if the role is unknown).
+     */
+    public AnalysisResponse analyze(String resumeText, String roleId, SkillData.RoleDef targetRole) {
+        return analyze(catalog.get(), resumeText, targetRole);
+    }
+
+    // Works on one snapshot throughout, so a concurrent reload cannot mix catalog versions
+    private AnalysisResponse analyze(Catalog current, String resumeText, SkillData.RoleDef targetRole) {
+        AnalysisScratch scratch = borrowScratch();
+        try {
+            return analyze(current, resumeText, targetRole, scratch);
+        } finally {
+            releaseScratch(scratch);
+        }
+    }
+
+    private AnalysisScratch borrowScratch() {
+        AnalysisScratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new AnalysisScratch();
+    }
+
+    private void releaseScratch(AnalysisScratch scratch) {
+        scratch.end();
+        scratchPool.offer(scratch);
+    }
+
+    /**
+     * MODULE: Static Analysis Core
+     * Finds, scores and gap-checks the skills on primitive state only: the
+     * automaton and the semantic matcher read the resume in place, findings
+     * go into the scratch's skill-id bitset and int arrays, and the DTOs of
+     * the response are built from those at the end.
+     */
+    private AnalysisResponse analyze(Catalog current, String resumeText, SkillData.RoleDef targetRole,
+            AnalysisScratch scratch) {
+        RoleIndex roleIndex = current.roleIndex;
+        BitSet found = scratch.found;
+
+        // 1. Extract Skills
+        extractSkills(current, resumeText, scratch);
+
+        // 2. Blueprint (resolved by the caller)
         // 3. Gap Analysis
         List<SkillDto> missingSkills = new ArrayList<>();
         List<AnalysisResponse.CriticalGap> criticalGaps = new ArrayList<>();
@@ -82,43 +345,49 @@ public class SkillExtractor {
         int totalReq = 0;
         long requiredFound = 0;
 
-        if (targetRole != null) {
-            checkGaps(targetRole.tech, foundSkillNames, missingSkills, criticalGaps, "technical");
-            checkGaps(targetRole.soft, foundSkillNames, missingSkills, criticalGaps, "soft");
-            checkGaps(targetRole.prof, foundSkillNames, missingSkills, criticalGaps, "professional");
+        RoleIndex.CompiledRole role = roleIndex.compiled(targetRole);
+        if (role != null) {
+            checkGaps(targetRole.tech, role.getTech(), found, missingSkills, criticalGaps, "technical");
+            checkGaps(targetRole.soft, role.getSoft(), found, missingSkills, criticalGaps, "soft");
+            checkGaps(targetRole.prof, role.getProf(), found, missingSkills, criticalGaps, "professional");
+
+            totalReq = role.getRequiredCount();
+            requiredFound = role.countFound(found);
+        }
 
-            totalReq = (targetRole.tech != null ? targetRole.tech.size() : 0) +
-                    (targetRole.soft != null ? targetRole.soft.size() : 0) +
-                    (targetRole.prof != null ? targetRole.prof.size() : 0);
+        int score = roleScore(requiredFound, totalReq);
+        String readiness = readiness(score);
 
-            requiredFound = foundSkillNames.stream()
-                    .filter(n -> (targetRole.tech != null && targetRole.tech.contains(n)) ||
-                            (targetRole.soft != null && targetRole.soft.contains(n)) ||
-                            (targetRole.prof != null && targetRole.prof.contains(n)))
-                    .count();
+        // 4. Response DTOs, materialized from the scratch
+        List<SkillDto> extractedSkills = extractedSkills(current.file, scratch);
+        // Populate skillScores map for frontend compatibility
+        Map<String, Integer> skillScoresMap = new HashMap<>();
+        for (SkillDto skill : extractedSkills) {
+            skillScoresMap.put(skill.getName(), skill.getScore());
         }
 
-        int score = totalReq == 0 ? 0 : (int) ((double) requiredFound / totalReq * 100);
-        if (score > 100)
-            score = 100;
-        if (score < 40 && totalReq > 0)
-            score = 40;
+        List<String> strengths = new ArrayList<>(STRENGTHS);
+        int[] strongest = new int[STRENGTHS];
+        while (strengths.size() < STRENGTHS) {
+            int best = scratch.best(strongest, strengths.size());
+            if (best < 0)
+                break;
+            strongest[strengths.size()] = best;
+            strengths.add(extractedSkills.get(best).getName());
+        }
 
-        String readiness = score > 80 ? "Senior" : score > 60 ? "Mid-Level" : "Junior";
+        List<String> missingKeywords = new ArrayList<>(missingSkills.size());
+        for (SkillDto missing : missingSkills) {
+            missingKeywords.add(missing.getName());
+        }
 
         List<AnalysisResponse.RoadmapPhase> roadmap = new ArrayList<>();
         if (!criticalGaps.isEmpty()) {
-            roadmap.add(new AnalysisResponse.RoadmapPhase(
-                    "Phase 1: Immediate Gaps",
-                    "2 Weeks",
-                    criticalGaps.stream().limit(3).map(g -> "Learn " + g.getSkill()).collect(Collectors.toList())));
-        }
-
-        // Populate skillScores map for frontend compatibility
-        Map<String, Integer> skillScoresMap = new HashMap<>();
-        for (SkillDto skill : extractedSkills) {
-            skill.setScore(100); // Static analysis assumes "Found" = 100% match
-            skillScoresMap.put(skill.getName(), 100);
+            List<String> tasks = new ArrayList<>(3);
+            for (int g = 0; g < criticalGaps.size() && g < 3; g++) {
+                tasks.add("Learn " + criticalGaps.get(g).getSkill());
+            }
+            roadmap.add(new AnalysisResponse.RoadmapPhase("Phase 1: Immediate Gaps", "2 Weeks", tasks));
         }
 
         return AnalysisResponse.builder()
@@ -132,24 +401,289 @@ public class SkillExtractor {
                 .skillScores(skillScoresMap)
                 .resumeFeedback(AnalysisResponse.ResumeFeedback.builder()
                         .score(score)
-                        .strengths(
-                                extractedSkills.stream().limit(3).map(SkillDto::getName).collect(Collectors.toList()))
+                        .strengths(strengths)
                         .summary("Analysis based on extracted text.")
-                        .missingKeywords(missingSkills.stream().map(SkillDto::getName).collect(Collectors.toList()))
+                        .missingKeywords(missingKeywords)
                         .actionableFeedback(List.of(new AnalysisResponse.ActionableTip("content",
                                 "Ensure keywords match standard terminology.")))
                         .build())
+                .catalogVersion(current.version)
                 .build();
     }
 
-    private void checkGaps(List<String> required, Set<String> found,
+    // Keyword and semantic skills of the resume into the scratch, in response order
+    private void extractSkills(Catalog current, String resumeText, AnalysisScratch scratch) {
+        RoleIndex roleIndex = current.roleIndex;
+
+        // Keyword Matching Engine, noting the section and dated entry of every mention
+        scratch.begin(roleIndex, resumeText);
+        current.automaton.scan(resumeText, scratch);
+        scratch.scoreMentions(SkillScorer.currentMonth());
+
+        // Skills the resume describes without naming a keyword (Semantic Skill Matcher)
+        if (current.semantic != null) {
+            float[] similarity = current.semantic.match(resumeText, scratch.semantic);
+            int skillCount = current.file.getSkillCount();
+            for (int i = 0; i < skillCount; i++) {
+                int skillId = roleIndex.skillIdOf(i);
+                if (similarity[i] >= minSimilarity && !scratch.found.get(skillId))
+                    scratch.addResult(skillId, i, SkillScorer.semanticScore(similarity[i]));
+            }
+        }
+    }
+
+    private static List<SkillDto> extractedSkills(CatalogFile file, AnalysisScratch scratch) {
+        int resultCount = scratch.getResultCount();
+        List<SkillDto> skills = new ArrayList<>(resultCount);
+        for (int r = 0; r < resultCount; r++) {
+            int skill = scratch.getResultCatalogIndex(r);
+            String name = file.getSkillName(skill);
+            skills.add(new SkillDto(name, file.getSkillType(skill), "id_" + name, scratch.getResultScore(r)));
+        }
+        return skills;
+    }
+
+    // Share of the requirement entries found, floored at 40 for a role with requirements
+    private static int roleScore(long requiredFound, int totalReq) {
+        int score = totalReq == 0 ? 0 : (int) ((double) requiredFound / totalReq * 100);
+        if (score > 100)
+            score = 100;
+        if (score < 40 && totalReq > 0)
+            score = 40;
+        return score;
+    }
+
+    private static String readiness(int score) {
+        return score > 80 ? "Senior" : score > 60 ? "Mid-Level" : "Junior";
+    }
+
+    /**
+     * MODULE: Role Ranking Engine
+     * Scores the resume against every catalog role from a single extraction
+     * pass. The found skills are one bitset and each role's requirements a
+     * stored sparse bitset, so a role costs an AND and a bit count per
+     * non-zero requirement word; large catalogs are counted in parallel
+     * chunks. Only the {@code top} best roles are materialized, their
+     * missing skills checked against their blueprints as
+     * {@link #analyze(String, String)} reports them, so a role's score here
+     * equals its score there.
+     *
+     * @return the best fitting roles first: higher coverage, then more
+     * skills matched, then catalog order
+     */
+    public RoleRankingResponse rankRoles(String resumeText, int top) {
+        Catalog current = catalog.get();
+        AnalysisScratch scratch = borrowScratch();
+        try {
+            extractSkills(current, resumeText, scratch);
+
+            RoleIndex roleIndex = current.roleIndex;
+            int roleCount = roleIndex.getRoleCount();
+            long[] found = scratch.found.toLongArray();
+            int[] matched = new int[roleCount];
+            int[] required = new int[roleCount];
+            if (roleCount >= PARALLEL_RANKING_ROLES) {
+                int chunks = (roleCount + RANKING_CHUNK_ROLES - 1) / RANKING_CHUNK_ROLES;
+                IntStream.range(0, chunks).parallel().forEach(chunk -> countRequirements(roleIndex, found,
+                        chunk * RANKING_CHUNK_ROLES, Math.min(roleCount, (chunk + 1) * RANKING_CHUNK_ROLES),
+                        matched, required));
+            } else {
+                countRequirements(roleIndex, found, 0, roleCount, matched, required);
+            }
+
+            int[] best = topRoles(matched, required, Math.max(0, Math.min(top, roleCount)));
+            List<RoleRankingResponse.RoleMatch> roles = new ArrayList<>(best.length);
+            for (int r : best) {
+                RoleIndex.CompiledRole role = roleIndex.getRole(r);
+                SkillData.RoleDef definition = role.getDefinition();
+                List<SkillDto> missing = new ArrayList<>();
+                List<AnalysisResponse.CriticalGap> unused = new ArrayList<>();
+                checkGaps(definition.tech, role.getTech(), scratch.found, missing, unused, "technical");
+                checkGaps(definition.soft, role.getSoft(), scratch.found, missing, unused, "soft");
+                checkGaps(definition.prof, role.getProf(), scratch.found, missing, unused, "professional");
+
+                int score = roleScore(matched[r], required[r]);
+                int coverage = required[r] == 0 ? 0 : Math.min(100, matched[r] * 100 / required[r]);
+                roles.add(new RoleRankingResponse.RoleMatch(role.getName(), score, coverage, matched[r], required[r],
+                        readiness(score), missing));
+            }
+            return new RoleRankingResponse(current.version, roleCount, extractedSkills(current.file, scratch),
+                    roles);
+        } finally {
+            releaseScratch(scratch);
+        }
+    }
+
+    private static void countRequirements(RoleIndex roleIndex, long[] found, int from, int to, int[] matched,
+            int[] required) {
+        for (int r = from; r < to; r++) {
+            matched[r] = roleIndex.countFound(r, found);
+            required[r] = roleIndex.getRequiredCount(r);
+        }
+    }
+
+    // Insertion into a sorted array of the best so far: a role only moves when it beats the current last
+    private static int[] topRoles(int[] matched, int[] required, int top) {
+        int[] best = new int[top];
+        int size = 0;
+        for (int r = 0; r < matched.length && top > 0; r++) {
+            if (size == top && !fitsBetter(r, best[top - 1], matched, required))
+                continue;
+            int i = size < top ? size++ : top - 1;
+            while (i > 0 && fitsBetter(r, best[i - 1], matched, required)) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = r;
+        }
+        return best;
+    }
+
+    // Coverages compared as fractions by cross-multiplying; a role without requirements covers nothing
+    private static boolean fitsBetter(int a, int b, int[] matched, int[] required) {
+        long coveredA = required[a] == 0 ? 0 : matched[a];
+        long coveredB = required[b] == 0 ? 0 : matched[b];
+        long left = coveredA * Math.max(1, required[b]);
+        long right = coveredB * Math.max(1, required[a]);
+        if (left != right)
+            return left > right;
+        return coveredA > coveredB;
+    }
+
+    /**
+     * MODULE: Evidence Collection
+     * The keyword pass of {@link #analyze}, keeping where each skill was
+     * found and not just whether: its mentions, the resume sections they are
+     * in, and up to {@code linesPerSkill} of the lines mentioning it. Lines
+     * from Experience and Projects are preferred, as they show how a skill
+     * was used; a Skills list only shows that it is claimed.
+     *
+     * @param targetRole blueprint to find the missing skills against, null in dynamic mode
+     * @param maxLines cap on the distinct lines quoted over all skills
+     * @param maxLineChars longer lines are cut to a window around the mention
+     */
+    public ResumeEvidence collectEvidence(String resumeText, SkillData.RoleDef targetRole, int linesPerSkill,
+            int maxLines, int maxLineChars) {
+        Catalog current = catalog.get();
+        RoleIndex roleIndex = current.roleIndex;
+        List<ResumeSegmenter.Section> sections = ResumeSegmenter.segment(resumeText);
+
+        // Keyed by skill id, so skills sharing a name count as one; in order of first mention
+        Map<Integer, Mentions> mentioned = new LinkedHashMap<>();
+        current.automaton.scan(resumeText, (skillIndex, keywordIndex, start, end) -> {
+            Mentions mentions = mentioned.computeIfAbsent(roleIndex.skillIdOf(skillIndex),
+                    id -> new Mentions(skillIndex));
+            ResumeSegmenter.Kind kind = ResumeSegmenter.at(sections, start).getKind();
+            mentions.count++;
+            mentions.sections.add(kind);
+            int lineStart = resumeText.lastIndexOf('\n', start - 1) + 1;
+            int lineEnd = resumeText.indexOf('\n', end);
+            mentions.offer(new int[] { lineStart, lineEnd < 0 ? resumeText.length() : lineEnd, start,
+                    linePriority(kind) }, linesPerSkill);
+        });
+
+        BitSet found = new BitSet(roleIndex.getSkillCount());
+        Map<Integer, Integer> lineIds = new HashMap<>();
+        List<String> lines = new ArrayList<>();
+        List<ResumeEvidence.SkillEvidence> skills = new ArrayList<>();
+        for (Map.Entry<Integer, Mentions> entry : mentioned.entrySet()) {
+            found.set(entry.getKey());
+            Mentions mentions = entry.getValue();
+            List<Integer> quoted = new ArrayList<>();
+            for (int[] line : mentions.lines) {
+                Integer id = lineIds.get(line[0]);
+                if (id == null && lines.size() < maxLines) {
+                    id = lines.size();
+                    lineIds.put(line[0], id);
+                    lines.add("(" + ResumeSegmenter.at(sections, line[0]).getKind().label() + ") "
+                            + quote(resumeText, line[0], line[1], line[2], maxLineChars));
+                }
+                if (id != null)
+                    quoted.add(id);
+            }
+            Collections.sort(quoted);
+            List<String> sectionLabels = new ArrayList<>();
+            for (ResumeSegmenter.Kind kind : mentions.sections) {
+                sectionLabels.add(kind.label());
+            }
+            skills.add(new ResumeEvidence.SkillEvidence(current.file.getSkillName(mentions.skillIndex),
+                    current.file.getSkillType(mentions.skillIndex), mentions.count, sectionLabels, quoted));
+        }
+
+        List<SkillDto> missing = null;
+        if (targetRole != null) {
+            missing = new ArrayList<>();
+            RoleIndex.CompiledRole role = roleIndex.compiled(targetRole);
+            if (role != null) {
+                List<AnalysisResponse.CriticalGap> unused = new ArrayList<>();
+                checkGaps(targetRole.tech, role.getTech(), found, missing, unused, "technical");
+                checkGaps(targetRole.soft, role.getSoft(), found, missing, unused, "soft");
+                checkGaps(targetRole.prof, role.getProf(), found, missing, unused, "professional");
+            }
+        }
+        return new ResumeEvidence(skills, lines, missing);
+    }
+
+    // Lower is better evidence of depth
+    private static int linePriority(ResumeSegmenter.Kind kind) {
+        return switch (kind) {
+            case EXPERIENCE, PROJECTS -> 0;
+            case SKILLS, EDUCATION -> 2;
+            default -> 1;
+        };
+    }
+
+    private static String quote(String text, int lineStart, int lineEnd, int mention, int maxChars) {
+        int start = lineStart;
+        int end = lineEnd;
+        if (end - start > maxChars) {
+            start = Math.max(lineStart, Math.min(mention - maxChars / 3, lineEnd - maxChars));
+            end = start + maxChars;
+        }
+        String quoted = text.substring(start, end).replaceAll("\\s+", " ").trim();
+        return (start > lineStart ? "..." : "") + quoted + (end < lineEnd ? "..." : "");
+    }
+
+    /**
+     * Mentions of one skill while collecting evidence. Lines are
+     * {lineStart, lineEnd, mentionStart, priority}.
+     */
+    private static final class Mentions {
+        private final int skillIndex;
+        private final Set<ResumeSegmenter.Kind> sections = new LinkedHashSet<>();
+        private final List<int[]> lines = new ArrayList<>();
+        private int count;
+
+        Mentions(int skillIndex) {
+            this.skillIndex = skillIndex;
+        }
+
+        // Keeps the best lines, earlier ones winning ties
+        void offer(int[] line, int limit) {
+            int worst = -1;
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.get(i)[0] == line[0])
+                    return;
+                if (worst < 0 || lines.get(i)[3] >= lines.get(worst)[3])
+                    worst = i;
+            }
+            if (lines.size() < limit) {
+                lines.add(line);
+            } else if (worst >= 0 && line[3] < lines.get(worst)[3]) {
+                lines.set(worst, line);
+            }
+        }
+    }
+
+    private void checkGaps(List<String> required, int[] requiredIds, BitSet found,
             List<SkillDto> missingToList,
             List<AnalysisResponse.CriticalGap> gapsToList,
             String type) {
         if (required == null)
             return;
-        for (String req : required) {
-            if (!found.contains(req)) {
+        for (int i = 0; i < requiredIds.length; i++) {
+            String req = required.get(i);
+            if (requiredIds[i] < 0 || !found.get(requiredIds[i])) {
                 missingToList.add(new SkillDto(req, type, "miss_" + req));
                 gapsToList.add(new AnalysisResponse.CriticalGap(
                         req, "Required for this role but not found.", "https://google.com/search?q=" + req, "Docs"));
@@ -157,7 +691,29 @@ public class SkillExtractor {
         }
     }
 
-    // Helper classes for JSON mapping
+    /**
+     * Immutable catalog snapshot: the compiled catalog file plus the indexes
+     * reading it.
+     */
+    private static final class Catalog {
+        private final CatalogFile file;
+        private final KeywordAutomaton automaton;
+        private final RoleIndex roleIndex;
+        // Null when semantic matching is disabled
+        private final SemanticSkillIndex semantic;
+        private final String version;
+
+        Catalog(CatalogFile file, KeywordAutomaton automaton, RoleIndex roleIndex, SemanticSkillIndex semantic,
+                String version) {
+            this.file = file;
+            this.automaton = automaton;
+            this.roleIndex = roleIndex;
+            this.semantic = semantic;
+            this.version = version;
+        }
+    }
+
+    // Helper classes for JSON mapping (the input of the CatalogCompiler)
     public static class SkillData {
         public List<SkillDef> skills;
         public Map<String, RoleDef> roles;
@@ -166,6 +722,10 @@ public class SkillExtractor {
             public List<String> tech = new ArrayList<>();
             public List<String> soft = new ArrayList<>();
             public List<String> prof = new ArrayList<>();
+            // Alternative names the role can be looked up by (optional)
+            public List<String> aliases = new ArrayList<>();
+            // The compiled role this blueprint was materialized from, so analyses skip the name lookup
+            transient RoleIndex.CompiledRole compiled;
         }
     }
 
@@ -173,5 +733,7 @@ public class SkillExtractor {
         public String name;
         public String type;
         public List<String> keywords;
+        // Phrases describing the skill without naming it, for the semantic matcher (optional)
+        public List<String> context = new ArrayList<>();
     }
 }
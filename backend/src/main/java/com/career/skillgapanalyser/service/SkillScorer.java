@@ -0,0 +1,93 @@
+package com.career.skillgapanalyser.service;
+
+import java.time.YearMonth;
+
+/**
+ * MODULE: Weighted Skill Scoring
+ * Offline 0-100 score of a found skill from where and when the resume
+ * mentions it:
+ * - base: 60 when mentioned in Experience, 50 in Projects, 35 when only
+ *   listed under Skills, 40 otherwise (summary, education, ...)
+ * - depth: +5 per further Experience/Projects mention, up to +20
+ * - duration: +1 per 4 months of the dated entries mentioning it, up to +15
+ * - recency: +5 when the latest of those entries ended within a year,
+ *   -10 when it ended more than five years ago
+ * A skill found only by the semantic matcher is implied rather than
+ * stated and scores 40 times its similarity.
+ *
+ * Inputs are plain counts, so the analysis can keep them in flat int arrays
+ * rather than in an object per skill.
+ */
+public final class SkillScorer {
+
+    /**
+     * Mention counts per skill, one per section kind
+     */
+    public static final int KINDS = ResumeSegmenter.Kind.values().length;
+
+    /**
+     * Last month of a skill mentioned in no dated entry
+     */
+    public static final int NO_DATES = Integer.MIN_VALUE;
+
+    private static final int MAX_DEPTH_BONUS = 20;
+    private static final int MAX_DURATION_BONUS = 15;
+    private static final int RECENT_MONTHS = 12;
+    private static final int STALE_MONTHS = 60;
+    private static final int MAX_SEMANTIC_SCORE = 40;
+
+    private SkillScorer() {
+    }
+
+    /**
+     * @return months since year 0 of the current month, as used by
+     * {@link ResumeSegmenter.DateRange}
+     */
+    public static int currentMonth() {
+        YearMonth now = YearMonth.now();
+        return now.getYear() * 12 + now.getMonthValue() - 1;
+    }
+
+    /**
+     * @param mentions mention counts of one skill by {@link ResumeSegmenter.Kind} ordinal, starting at
+     * {@code offset}
+     * @param months total length of the dated entries mentioning it, 0 if none
+     * @param lastMonth the last month of those entries, {@link #NO_DATES} if none
+     */
+    public static int score(int[] mentions, int offset, int months, int lastMonth, int currentMonth) {
+        int experience = mentions[offset + ResumeSegmenter.Kind.EXPERIENCE.ordinal()];
+        int handsOn = experience + mentions[offset + ResumeSegmenter.Kind.PROJECTS.ordinal()];
+        int total = 0;
+        for (int kind = 0; kind < KINDS; kind++) {
+            total += mentions[offset + kind];
+        }
+
+        int score;
+        if (experience > 0) {
+            score = 60;
+        } else if (handsOn > 0) {
+            score = 50;
+        } else if (mentions[offset + ResumeSegmenter.Kind.SKILLS.ordinal()] == total) {
+            score = 35;
+        } else {
+            score = 40;
+        }
+        if (handsOn > 1)
+            score += Math.min(MAX_DEPTH_BONUS, 5 * (handsOn - 1));
+
+        if (lastMonth != NO_DATES) {
+            score += Math.min(MAX_DURATION_BONUS, months / 4);
+            int since = currentMonth - lastMonth;
+            if (since <= RECENT_MONTHS) {
+                score += 5;
+            } else if (since > STALE_MONTHS) {
+                score -= 10;
+            }
+        }
+        return Math.max(0, Math.min(100, score));
+    }
+
+    public static int semanticScore(float similarity) {
+        return Math.round(MAX_SEMANTIC_SCORE * Math.min(1f, similarity));
+    }
+}
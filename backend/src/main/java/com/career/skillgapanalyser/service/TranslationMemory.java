@@ -0,0 +1,186 @@
+package com.career.skillgapanalyser.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MODULE: Translation Memory
+ * Segment-level cache of Gemini translations, keyed by a hash of the target
+ * language and the source text. Entries are kept in an LRU map and appended
+ * to a JSON-lines log, which is replayed at startup and rewritten from the
+ * map once it holds twice as many lines as the map has entries.
+ */
+@Service
+public class TranslationMemory {
+
+    private static final String LOG_FILE = "translations.jsonl";
+
+    private final int maxEntries;
+    private final Path logFile;
+    private final LinkedHashMap<String, String> entries;
+    private Writer log;
+    private int logLines;
+
+    public TranslationMemory(
+            @Value("${translation.memory.max-entries:50000}") int maxEntries,
+            @Value("${translation.memory.persist:true}") boolean persist,
+            @Value("${translation.memory.dir:${java.io.tmpdir}/skill-gap-translations}") String directory) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > TranslationMemory.this.maxEntries;
+            }
+        };
+        this.logFile = persist ? Paths.get(directory).resolve(LOG_FILE) : null;
+        if (logFile != null) {
+            try {
+                Files.createDirectories(logFile.getParent());
+                replay();
+                log = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                // End a torn last line so the next entry does not run into it
+                if (!endsWithNewline())
+                    log.write('\n');
+            } catch (IOException e) {
+                System.err.println("Translation memory not persisted, cannot open " + logFile + ": " + e.getMessage());
+                log = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    /**
+     * @return the stored translation of the segment, or null
+     */
+    public synchronized String get(String language, String segment) {
+        return entries.get(key(language, segment));
+    }
+
+    /**
+     * Stores a batch of translations and appends them to the log.
+     */
+    public synchronized void putAll(String language, List<String> segments, List<String> translations) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            String key = key(language, segments.get(i));
+            entries.put(key, translations.get(i));
+            if (log != null) {
+                JsonObject line = new JsonObject();
+                line.addProperty("k", key);
+                line.addProperty("v", translations.get(i));
+                lines.add(JsonSupport.GSON.toJson(line));
+            }
+        }
+        if (log == null)
+            return;
+        try {
+            for (String line : lines) {
+                log.write(line);
+                log.write('\n');
+            }
+            log.flush();
+            logLines += lines.size();
+            if (logLines > 2 * maxEntries)
+                compact();
+        } catch (IOException e) {
+            System.err.println("Translation memory write failed: " + e.getMessage());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(logFile))
+            return;
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                logLines++;
+                try {
+                    JsonObject entry = JsonSupport.GSON.fromJson(line, JsonObject.class);
+                    if (entry != null && entry.has("k") && entry.has("v"))
+                        entries.put(entry.get("k").getAsString(), entry.get("v").getAsString());
+                } catch (JsonParseException | IllegalStateException e) {
+                    // Torn last line after a crash
+                }
+            }
+        }
+        if (logLines > 2 * maxEntries)
+            compact();
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(logFile)) {
+            if (channel.size() == 0)
+                return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    // Rewrites the log with the live entries only, oldest first so replay restores the LRU order.
+    // The current writer keeps appending to the old file until the new one is in place; if
+    // reopening fails the memory stops persisting rather than holding a closed writer.
+    private void compact() throws IOException {
+        Path tmp = Files.createTempFile(logFile.getParent(), LOG_FILE, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    JsonObject line = new JsonObject();
+                    line.addProperty("k", entry.getKey());
+                    line.addProperty("v", entry.getValue());
+                    writer.write(JsonSupport.GSON.toJson(line));
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        logLines = entries.size();
+        if (log == null)
+            return;
+        Writer previous = log;
+        log = null;
+        try {
+            log = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } finally {
+            previous.close();
+        }
+    }
+
+    private static String key(String language, String segment) {
+        return AnalysisCache.sha256((language.toLowerCase() + "\n" + segment).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisResponse;
+import com.career.skillgapanalyser.dto.SkillDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AnalysisCacheTest {
+
+    private final AnalysisCache cache = new AnalysisCache(true, "memory", 10, 60, "");
+
+    @Test
+    void fallbacksWithAnAiErrorAreNotCached() {
+        String key = key("resume");
+        cache.put(key, AnalysisResponse.builder().overallScore(40).aiError("AI Engine Failed: timeout").build());
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void callersGetTheirOwnCopy() {
+        String key = key("resume");
+        List<SkillDto> extracted = new ArrayList<>(List.of(new SkillDto("Java", "technical", "java", 80)));
+        AnalysisResponse response = AnalysisResponse.builder().extracted(extracted).overallScore(70).build();
+        cache.put(key, response);
+        extracted.add(new SkillDto("Docker", "technical", "docker", 60));
+
+        AnalysisResponse first = cache.get(key);
+        assertNotNull(first);
+        assertEquals(1, first.getExtracted().size());
+        first.getExtracted().get(0).setName("Changed");
+
+        AnalysisResponse second = cache.get(key);
+        assertEquals("Java", second.getExtracted().get(0).getName());
+        assertEquals(70, second.getOverallScore());
+    }
+
+    private String key(String content) {
+        return cache.key(content.getBytes(StandardCharsets.UTF_8), "backend", "en", "v1", true);
+    }
+}
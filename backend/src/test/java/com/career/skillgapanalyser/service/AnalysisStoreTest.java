@@ -0,0 +1,179 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AnalysisSearchResponse;
+import com.career.skillgapanalyser.dto.SkillDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalysisStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private AnalysisStore store;
+
+    @BeforeEach
+    void open() {
+        store = new AnalysisStore(true, dir.toString(), 100);
+        assertTrue(store.isEnabled());
+        store.record("backend", 80, skills("Java", "Docker"));
+        store.record("backend", 60, skills("Java", "Kubernetes"));
+        store.record("frontend", 90, skills("React", "Docker"));
+        store.record("backend", 75, skills("Java", "Podman", "Spring Boot"));
+        store.record("devops", 70, skills("Docker", "Kubernetes"));
+    }
+
+    @AfterEach
+    void close() {
+        store.shutdown();
+    }
+
+    @Test
+    void requiredSkillsAreIntersectedAndMatchedCaseInsensitively() throws IOException {
+        assertArrayEquals(new int[] { 0 }, ids("Java AND Docker"));
+        assertArrayEquals(new int[] { 0 }, ids("java, DOCKER"));
+        assertArrayEquals(new int[] { 3 }, ids("spring  boot"));
+        assertArrayEquals(new int[] {}, ids("Java AND React"));
+        assertArrayEquals(new int[] {}, ids("Rust"));
+    }
+
+    @Test
+    void notExcludesEveryAlternative() throws IOException {
+        assertArrayEquals(new int[] { 3, 0 }, ids("Java AND NOT Kubernetes"));
+        assertArrayEquals(new int[] { 0 }, ids("Java AND NOT Kubernetes OR Podman"));
+        assertArrayEquals(new int[] { 3, 2, 0 }, ids("NOT Kubernetes"));
+        assertArrayEquals(new int[] { 4, 3, 2, 1, 0 }, ids("NOT Rust"));
+    }
+
+    @Test
+    void orMatchesAnyAlternative() throws IOException {
+        assertArrayEquals(new int[] { 4, 3, 2, 0 }, ids("Docker OR Podman"));
+        assertArrayEquals(new int[] { 3, 1 }, ids("Java, Kubernetes OR Podman"));
+        assertArrayEquals(new int[] { 2 }, ids("React OR Rust"));
+    }
+
+    @Test
+    void scoreBoundsAreInclusiveOrExclusiveAsWritten() throws IOException {
+        assertArrayEquals(new int[] { 2, 0 }, ids("overallScore > 75"));
+        assertArrayEquals(new int[] { 3, 2, 0 }, ids("overallScore >= 75"));
+        assertArrayEquals(new int[] { 1 }, ids("overallScore < 70"));
+        assertArrayEquals(new int[] { 4, 1 }, ids("score <= 70"));
+        assertArrayEquals(new int[] { 0 }, ids("overallScore = 80"));
+        assertArrayEquals(new int[] { 3 }, ids("Java AND overallScore > 70 AND overallScore < 80"));
+        assertArrayEquals(new int[] { 4, 3, 2, 1, 0 }, ids("overallScore >= 0, overallScore <= 100"));
+    }
+
+    @Test
+    void roleIsMatchedExactly() throws IOException {
+        assertArrayEquals(new int[] { 3, 1, 0 }, ids("role = backend"));
+        assertArrayEquals(new int[] { 4 }, ids("role = devops AND Docker"));
+        assertArrayEquals(new int[] {}, ids("role = frontend, NOT Docker"));
+    }
+
+    @Test
+    void searchReportsTotalsAndReturnsTheMostRecentFirst() throws IOException {
+        AnalysisSearchResponse response = store.search("Docker", 2);
+        assertEquals(5, response.getSearched());
+        assertEquals(3, response.getTotal());
+        assertEquals(2, response.getResults().size());
+        AnalysisSearchResponse.StoredAnalysis latest = response.getResults().get(0);
+        assertEquals(4, latest.getId());
+        assertEquals("devops", latest.getRoleId());
+        assertEquals(70, latest.getOverallScore());
+        assertEquals("Kubernetes", latest.getExtracted().get(1).getName());
+    }
+
+    @Test
+    void malformedQueriesAreRejected() {
+        for (String query : new String[] { "", "NOT", "Java AND", "Docker OR", "overallScore > high",
+                "overallScore ~ 5", "overallScore > 80 AND overallScore < 80", "\"CI/CD",
+                "role = a, role = b" }) {
+            assertThrows(IllegalArgumentException.class, () -> store.search(query, 10), query);
+        }
+    }
+
+    @Test
+    void reopeningReplaysTheLog() throws IOException {
+        store.shutdown();
+        store = new AnalysisStore(true, dir.toString(), 100);
+        assertEquals(5, store.size());
+        assertArrayEquals(new int[] { 3, 0 }, ids("Java AND NOT Kubernetes"));
+        assertArrayEquals(new int[] { 2, 0 }, ids("overallScore > 75"));
+        assertArrayEquals(new int[] { 3, 1, 0 }, ids("role = backend"));
+    }
+
+    @Test
+    void replayDropsARecordCutShortAndKeepsAppending() throws IOException {
+        Path log = dir.resolve("analyses.log");
+        store.shutdown();
+        long complete = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(complete - 5);
+        }
+
+        store = new AnalysisStore(true, dir.toString(), 100);
+        assertEquals(4, store.size());
+        assertArrayEquals(new int[] { 2, 0 }, ids("Docker"));
+        long truncated = Files.size(log);
+        assertTrue(truncated < complete - 5);
+
+        store.record("devops", 65, skills("Docker", "Terraform"));
+        assertEquals(5, store.size());
+        assertArrayEquals(new int[] { 4, 2, 0 }, ids("Docker"));
+
+        store.shutdown();
+        store = new AnalysisStore(true, dir.toString(), 100);
+        assertEquals(5, store.size());
+        assertArrayEquals(new int[] { 4 }, ids("Terraform"));
+        assertEquals(65, store.search("Terraform", 1).getResults().get(0).getOverallScore());
+    }
+
+    @Test
+    void replayDropsATornLengthPrefix() throws IOException {
+        Path log = dir.resolve("analyses.log");
+        store.shutdown();
+        long complete = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0 }));
+        }
+
+        store = new AnalysisStore(true, dir.toString(), 100);
+        assertEquals(5, store.size());
+        assertEquals(complete, Files.size(log));
+        store.record("backend", 85, skills("Go"));
+        assertArrayEquals(new int[] { 5 }, ids("Go"));
+    }
+
+    private int[] ids(String query) throws IOException {
+        List<AnalysisSearchResponse.StoredAnalysis> results = store.search(query, 100).getResults();
+        int[] ids = new int[results.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = results.get(i).getId();
+        }
+        return ids;
+    }
+
+    private static List<SkillDto> skills(String... names) {
+        List<SkillDto> skills = new ArrayList<>();
+        for (String name : names) {
+            skills.add(new SkillDto(name, "technical", "id_" + name, 70));
+        }
+        return skills;
+    }
+}
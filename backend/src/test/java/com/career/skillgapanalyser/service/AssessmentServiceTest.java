@@ -0,0 +1,97 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AssessmentRequest;
+import com.career.skillgapanalyser.dto.AssessmentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import java.net.http.HttpClient;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssessmentServiceTest {
+
+    private static final String SERVER_KEY = "server-key";
+
+    private AssessmentService service;
+
+    @BeforeEach
+    void setUp() {
+        LocaleContextHolder.setLocale(Locale.ENGLISH);
+        AnalysisMetrics metrics = new AnalysisMetrics(new SimpleMeterRegistry());
+        GeminiService gemini = new GeminiService(HttpClient.newHttpClient(), metrics, "http://localhost:1", 1000,
+                1, 1, 60, 10, 1, 1, 0, 0, 2048, true);
+        // No background refills, so every question comes from the shelf filled below
+        service = new AssessmentService(gemini, metrics, SERVER_KEY, 4, 200, 0, 10, 0, 1, 60, 100, 100, 1, 1,
+                1000, 400, 8192);
+        QuestionBank bank = service.getQuestionBank();
+        QuestionBank.Shelf shelf = bank.shelf("Java", "intermediate", "en");
+        for (int i = 0; i < 8; i++) {
+            AssessmentResponse.Question question = new AssessmentResponse.Question();
+            question.setType("MCQ");
+            question.setQuestion("Question " + i);
+            question.setOptions(List.of("A", "B", "C", "D"));
+            question.setCorrectAnswerIndex(0);
+            bank.add(shelf, List.of(question));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    void clientsOnTheServerKeyHaveTheirOwnHistory() {
+        Set<String> first = ids(service.generateAssessment(request("browser-1"), SERVER_KEY));
+        Set<String> second = ids(service.generateAssessment(request("browser-1"), SERVER_KEY));
+        assertEquals(4, first.size());
+        assertEquals(4, second.size());
+        second.retainAll(first);
+        assertTrue(second.isEmpty());
+
+        assertEquals(4, ids(service.generateAssessment(request("browser-2"), SERVER_KEY)).size());
+    }
+
+    @Test
+    void anonymousCallersOnTheServerKeyDoNotEmptyTheShelf() {
+        for (int i = 0; i < 5; i++) {
+            AssessmentResponse response = service.generateAssessment(request(null), SERVER_KEY);
+            assertEquals(4, response.getQuestions().size());
+            assertFalse(response.isPartial());
+        }
+        assertEquals(4, ids(service.generateAssessment(request("browser-1"), SERVER_KEY)).size());
+    }
+
+    @Test
+    void callersWithTheirOwnKeyAreTrackedByIt() {
+        Set<String> first = ids(service.generateAssessment(request(null), "own-key"));
+        Set<String> second = ids(service.generateAssessment(request(null), "own-key"));
+        second.retainAll(first);
+        assertTrue(second.isEmpty());
+    }
+
+    private static AssessmentRequest request(String userId) {
+        AssessmentRequest request = new AssessmentRequest();
+        request.setSkills(List.of("Java"));
+        request.setUserId(userId);
+        return request;
+    }
+
+    private static Set<String> ids(AssessmentResponse response) {
+        Set<String> ids = new HashSet<>();
+        for (AssessmentResponse.Question question : response.getQuestions()) {
+            ids.add(question.getId());
+        }
+        return ids;
+    }
+}
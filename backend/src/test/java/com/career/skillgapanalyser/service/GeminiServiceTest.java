@@ -0,0 +1,104 @@
+package com.career.skillgapanalyser.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeminiServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AnalysisMetrics metrics = new AnalysisMetrics(registry);
+    private HttpServer server;
+    private volatile String answer;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = envelope(answer).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void translationsAreReturnedInSegmentOrder() {
+        answer = "```json\n[\"Java lernen\", \"Docker lernen\"]\n```";
+        List<String> translated = gemini("http://localhost:" + server.getAddress().getPort())
+                .translateSegmentsAsync(List.of("Learn Java", "Learn Docker"), "de", "key").join();
+        assertEquals(List.of("Java lernen", "Docker lernen"), translated);
+        assertEquals(0, parseFailures(AnalysisMetrics.STAGE_LOCALIZE));
+    }
+
+    @Test
+    void anAnswerThatIsNotOneStringPerSegmentIsAParseFailure() {
+        GeminiService gemini = gemini("http://localhost:" + server.getAddress().getPort());
+        answer = "[\"Java lernen\"]";
+        assertNull(gemini.translateSegmentsAsync(List.of("Learn Java", "Learn Docker"), "de", "key").join());
+        answer = "Java lernen, Docker lernen";
+        assertNull(gemini.translateSegmentsAsync(List.of("Learn Java", "Learn Docker"), "de", "key").join());
+        assertEquals(2, parseFailures(AnalysisMetrics.STAGE_LOCALIZE));
+
+        answer = "{\"text\": \"Java lernen\"}";
+        assertNull(gemini.translateSegmentsAsync(List.of("Java lernen"), "en", "key").join());
+        assertEquals(1, parseFailures(AnalysisMetrics.STAGE_TRANSLATE));
+    }
+
+    @Test
+    void aFailedCallIsNotAParseFailure() {
+        assertNull(gemini("http://localhost:1")
+                .translateSegmentsAsync(List.of("Learn Java"), "de", "key").join());
+        assertEquals(0, parseFailures(AnalysisMetrics.STAGE_LOCALIZE));
+    }
+
+    private GeminiService gemini(String baseUrl) {
+        return new GeminiService(HttpClient.newHttpClient(), metrics, baseUrl, 5000, 4, 10, 600, 10, 10, 1, 0, 0,
+                2048, false);
+    }
+
+    private double parseFailures(String stage) {
+        Counter counter = registry.find("gemini.parse.failures").tag("stage", stage).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    // The generateContent response shape with a single text part
+    private static String envelope(String text) {
+        JsonObject part = new JsonObject();
+        part.addProperty("text", text);
+        JsonArray parts = new JsonArray();
+        parts.add(part);
+        JsonObject content = new JsonObject();
+        content.add("parts", parts);
+        JsonObject candidate = new JsonObject();
+        candidate.add("content", content);
+        JsonArray candidates = new JsonArray();
+        candidates.add(candidate);
+        JsonObject response = new JsonObject();
+        response.add("candidates", candidates);
+        return response.toString();
+    }
+}
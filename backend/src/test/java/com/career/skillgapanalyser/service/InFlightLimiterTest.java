@@ -0,0 +1,89 @@
+package com.career.skillgapanalyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightLimiterTest {
+
+    @Test
+    void callsBeyondTheCapWaitAndStartInOrder() {
+        InFlightLimiter limiter = new InFlightLimiter(2, 10);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        List<Integer> started = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int id = i;
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.add(call);
+            results.add(limiter.submit(() -> {
+                started.add(id);
+                return call;
+            }));
+        }
+        assertEquals(List.of(0, 1), started);
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(3, limiter.getQueued());
+
+        calls.get(1).complete("one");
+        assertEquals("one", results.get(1).join());
+        assertEquals(List.of(0, 1, 2), started);
+        assertEquals(2, limiter.getInFlight());
+
+        calls.get(0).completeExceptionally(new IllegalStateException("boom"));
+        CompletionException e = assertThrows(CompletionException.class, () -> results.get(0).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(List.of(0, 1, 2, 3), started);
+
+        for (int i = 2; i < 5; i++) {
+            calls.get(i).complete("call " + i);
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4), started);
+        assertEquals("call 4", results.get(4).join());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void aFullQueueRejectsNewCalls() {
+        InFlightLimiter limiter = new InFlightLimiter(1, 1);
+        limiter.submit(CompletableFuture::new);
+        CompletableFuture<Object> queued = limiter.submit(() -> CompletableFuture.completedFuture("queued"));
+
+        CompletableFuture<Object> rejected = limiter.submit(() -> CompletableFuture.completedFuture("rejected"));
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.getQueued());
+    }
+
+    @Test
+    void aLongQueueOfCallsThatCompleteAtOnceDrainsWithoutRecursing() {
+        InFlightLimiter limiter = new InFlightLimiter(1, 200_000);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        limiter.submit(() -> first);
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            int id = i;
+            results.add(limiter.submit(() -> CompletableFuture.completedFuture(id)));
+        }
+        assertEquals(200_000, limiter.getQueued());
+
+        // Each call completes inside its start, so an inline hand-off would nest one release per queued call
+        first.complete("done");
+        assertTrue(results.stream().allMatch(result -> result.isDone() && !result.isCompletedExceptionally()));
+        assertEquals(199_999, results.get(199_999).join());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+}
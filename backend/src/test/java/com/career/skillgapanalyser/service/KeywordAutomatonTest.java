@@ -0,0 +1,111 @@
+package com.career.skillgapanalyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeywordAutomatonTest {
+
+    private static final String CATALOG = """
+            {
+              "skills": [
+                { "name": "Node.js", "type": "technical", "keywords": ["node", "node.js", "nodejs"] },
+                { "name": "Spring Boot", "type": "technical", "keywords": ["spring boot"] },
+                { "name": "Spring", "type": "technical", "keywords": ["spring"] },
+                { "name": "Java", "type": "technical", "keywords": ["Java"] },
+                { "name": "JavaScript", "type": "technical", "keywords": ["javascript", "js"] },
+                { "name": "C++", "type": "technical", "keywords": ["c++"] },
+                { "name": "C#", "type": "technical", "keywords": ["c#"] },
+                { "name": ".NET", "type": "technical", "keywords": [".net"] },
+                { "name": "CI/CD", "type": "technical", "keywords": ["ci/cd"] },
+                { "name": "Machine Learning", "type": "technical", "keywords": ["machine learning", "ml"] },
+                { "name": "PostgreSQL", "type": "technical", "keywords": ["PostgreSQL", "postgres"] }
+              ],
+              "roles": {}
+            }
+            """;
+
+    private final KeywordAutomaton automaton = automaton(CATALOG);
+
+    @Test
+    void overlappingKeywordsAreAllReportedInOrderOfEndPosition() {
+        assertEquals(List.of("spring@0", "spring boot@0"), found("Spring Boot"));
+        // A dot is not a word character, so "js" also stands on its own inside "node.js"
+        assertEquals(List.of("node@0", "node.js@0", "js@5"), found("Node.js"));
+        assertEquals(List.of("java@5", "spring@11", "spring boot@11", "postgresql@24"),
+                found("Used Java, Spring Boot, PostgreSQL"));
+    }
+
+    @Test
+    void keywordsOnlyMatchWholeWords() {
+        assertEquals(List.of(), found("nodes"));
+        assertEquals(List.of(), found("json, jsx, subnode"));
+        assertEquals(List.of("javascript@0"), found("JavaScript"));
+        assertEquals(List.of(), found("nodejs2"));
+        assertEquals(List.of("nodejs@6"), found("Using nodejs"));
+        assertEquals(List.of(), found("html5 springboot postgresql2"));
+        assertEquals(List.of("ml@0", "ml@4"), found("ML (ml-ops)"));
+    }
+
+    @Test
+    void punctuationInKeywordsIsMatchedLiterally() {
+        assertEquals(List.of("c++@0", "c#@7"), found("C++17, C# and C"));
+        assertEquals(List.of(), found("abc++ and ic#"));
+        assertEquals(List.of("ci/cd@0"), found("CI/CD pipelines"));
+        assertEquals(List.of(), found("ci cd, ci-cd, ci/cdk"));
+        // No boundary is required next to punctuation, so ".net" matches inside "ASP.NET"
+        assertEquals(List.of(".net@3", ".net@12"), found("ASP.NET and .NET"));
+    }
+
+    @Test
+    void matchingFoldsCaseAndTreatsAnyWhitespaceAsASpace() {
+        assertEquals(List.of("java@0", "java@5", "java@10"), found("JAVA java JaVa"));
+        assertEquals(List.of("postgresql@0", "postgres@11"), found("postgreSQL POSTGRES"));
+        assertEquals(List.of("machine learning@0", "machine learning@17"),
+                found("Machine\nLearning Machine\tlearning"));
+        assertEquals(List.of(), found("Machine  Learning"));
+    }
+
+    @Test
+    void matchesAtTheStartAndEndOfTheText() {
+        assertEquals(List.of("java@0"), found("java"));
+        assertEquals(List.of("c++@0"), found("c++"));
+        assertEquals(List.of("spring@0", "ci/cd@15"), found("spring, maven, ci/cd"));
+        assertEquals(List.of(), found(""));
+    }
+
+    @Test
+    void matchesReportTheSkillAndTheirSpan() {
+        List<KeywordAutomaton.KeywordMatch> matches = automaton.findAll("Built with Node.js");
+        assertEquals(3, matches.size());
+        KeywordAutomaton.KeywordMatch match = matches.get(1);
+        assertEquals(0, match.getSkillIndex());
+        assertEquals("node.js", match.getKeyword());
+        assertEquals(11, match.getStart());
+        assertEquals(18, match.getEnd());
+        assertEquals(3, automaton.findAll("Java").get(0).getSkillIndex());
+    }
+
+    private List<String> found(String text) {
+        List<String> found = new ArrayList<>();
+        for (KeywordAutomaton.KeywordMatch match : automaton.findAll(text)) {
+            found.add(match.getKeyword() + "@" + match.getStart());
+        }
+        return found;
+    }
+
+    private static KeywordAutomaton automaton(String json) {
+        try {
+            ByteBuffer compiled = CatalogCompiler.compile(json.getBytes(StandardCharsets.UTF_8));
+            return KeywordAutomaton.read(CatalogFile.read(compiled));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
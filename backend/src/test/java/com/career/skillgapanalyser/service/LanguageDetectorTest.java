@@ -0,0 +1,88 @@
+package com.career.skillgapanalyser.service;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LanguageDetectorTest {
+
+    private static final String ENGLISH_SUMMARY = "Professional Summary\n"
+            + "Software engineer with six years of experience building web applications and distributed services.\n";
+
+    private final LanguageDetector detector = new LanguageDetector();
+
+    @Test
+    void detectsTheLanguageOfProse() {
+        assertEquals("en", detector.detect("Led the redesign of the onboarding flow, cutting drop-off by a third."));
+        assertEquals("es", detector.detect("Dirigí un equipo de cinco ingenieros en una empresa de servicios."));
+        assertEquals("de", detector.detect("Ich habe ein Team von fünf Ingenieuren geleitet."));
+        assertEquals("zh", detector.detect("软件工程师，拥有五年以上的开发经验，熟悉分布式系统和云平台的设计"));
+        assertEquals(LanguageDetector.UNDETERMINED, detector.detect("Java SQL"));
+    }
+
+    @Test
+    void skillListsKeepTheDocumentLanguage() {
+        String[] lines = {
+                "Java, Spring Boot, Hibernate, MySQL, Redis, Kafka, AWS, Jenkins, Git, Linux",
+                "Languages: Python, JavaScript, TypeScript, Java, Go, Rust, Kotlin, Scala",
+                "Frameworks: React, Angular, Vue, Django, Flask, Spring, Express, Next.js",
+                "Cloud: AWS (EC2, S3, Lambda, RDS, CloudFormation), Azure, Google Cloud Platform",
+                "Git, GitHub, GitLab, Bitbucket, Jira, Confluence, Jenkins, CircleCI, Travis",
+                "Senior Software Engineer, Deutsche Bank, Frankfurt am Main (2019 - 2023)",
+        };
+        for (String line : lines) {
+            List<LanguageDetector.Section> sections = detector.sections(ENGLISH_SUMMARY + line + "\n", "en");
+            assertEquals(1, sections.size(), line);
+            assertEquals("en", sections.get(0).getLanguage(), line);
+        }
+    }
+
+    @Test
+    void foreignSentencesGetTheirOwnSection() {
+        String[][] lines = {
+                { "es", "Desarrollé servicios REST con Spring Boot para el equipo de pagos y reduje la latencia" },
+                { "de", "Entwicklung von Microservices mit Spring Boot und Kafka für den Zahlungsverkehr der Bank" },
+                { "fr", "J'ai dirigé la refonte du parcours d'inscription des clients et réduit les abandons" },
+                { "pt", "Liderei o redesenho do fluxo de cadastro de clientes, reduzindo o abandono em um terço" },
+                { "nl", "Leidde het herontwerp van het aanmeldproces voor klanten en verminderde de uitval" },
+        };
+        for (String[] line : lines) {
+            List<LanguageDetector.Section> sections = detector.sections(ENGLISH_SUMMARY + line[1] + "\n", "en");
+            assertEquals(2, sections.size(), line[1]);
+            assertEquals(line[0], sections.get(1).getLanguage(), line[1]);
+            assertEquals(line[1] + "\n", sections.get(1).getText());
+        }
+    }
+
+    @Test
+    void englishSentencesInAForeignDocumentAreFound() {
+        String text = "Resumen profesional\n"
+                + "Built REST APIs with Spring Boot serving two million requests per day for the payments team\n"
+                + "Java, Spring Boot, Hibernate, MySQL, Redis, Kafka\n";
+        List<LanguageDetector.Section> sections = detector.sections(text, "es");
+        assertEquals(3, sections.size());
+        assertEquals("es", sections.get(0).getLanguage());
+        assertEquals("en", sections.get(1).getLanguage());
+        assertEquals("es", sections.get(2).getLanguage());
+    }
+
+    @Test
+    void bundledProfilesAreBuiltFromTheCorpus() throws IOException, URISyntaxException {
+        Path corpus = Paths.get(getClass().getResource("/language-corpus").toURI());
+        JsonObject bundled;
+        try (InputStream in = getClass().getResourceAsStream("/language-profiles.json")) {
+            bundled = JsonSupport.GSON.fromJson(new InputStreamReader(in, StandardCharsets.UTF_8), JsonObject.class);
+        }
+        assertEquals(LanguageProfileBuilder.build(corpus), bundled);
+    }
+}
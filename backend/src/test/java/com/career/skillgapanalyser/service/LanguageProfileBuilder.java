@@ -0,0 +1,111 @@
+package com.career.skillgapanalyser.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MODULE: Language Profile Builder
+ * Rebuilds the bundled language-profiles.json of {@link LanguageDetector}.
+ * Each Latin-script profile is the {@link #PROFILE_SIZE} most frequent
+ * trigrams of that language's sample text in
+ * src/test/resources/language-corpus, counted with the detector's own
+ * {@link LanguageDetector#countTrigrams} and ranked by count (ties in code
+ * point order). The samples are short, handwritten resume-style prose
+ * (summaries, experience bullets, education), so the profiles reflect the
+ * vocabulary of resumes rather than general text. Languages with their own
+ * script are identified by the script alone and need no sample.
+ *
+ * LanguageDetectorTest checks that the bundled file is what this builder
+ * produces, so a change to the samples or to the tokenization must come
+ * with a rebuilt file.
+ *
+ * Usage, from backend/ with the test classpath:
+ * {@code LanguageProfileBuilder src/test/resources/language-corpus src/main/resources/language-profiles.json}
+ */
+final class LanguageProfileBuilder {
+
+    static final int PROFILE_SIZE = 300;
+
+    // Profile order is the detector's order of preference on equal distances
+    static final String[] LANGUAGES = {
+            "en", "es", "fr", "de", "pt", "it", "nl", "sv", "pl", "ro", "tr", "ms", "vi", "sw", "tl" };
+
+    private static final String[][] SCRIPTS = {
+            { "DEVANAGARI", "hi" }, { "BENGALI", "bn" }, { "GURMUKHI", "pa" }, { "GUJARATI", "gu" },
+            { "TAMIL", "ta" }, { "TELUGU", "te" }, { "KANNADA", "kn" }, { "MALAYALAM", "ml" }, { "THAI", "th" },
+            { "HANGUL", "ko" }, { "HIRAGANA", "ja" }, { "KATAKANA", "ja" }, { "HAN", "zh" }, { "ARABIC", "ar" },
+            { "CYRILLIC", "ru" }, { "GREEK", "el" }, { "ETHIOPIC", "am" }, { "HEBREW", "he" } };
+
+    private LanguageProfileBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LanguageProfileBuilder <corpus-dir> <language-profiles.json>");
+            System.exit(2);
+        }
+        JsonObject model = build(Paths.get(args[0]));
+        Files.writeString(Paths.get(args[1]), format(model));
+        System.err.println("Wrote " + LANGUAGES.length + " profiles to " + args[1]);
+    }
+
+    /**
+     * @param corpus directory with one {@code <language>.txt} per Latin-script language
+     */
+    static JsonObject build(Path corpus) throws IOException {
+        JsonObject model = new JsonObject();
+        model.addProperty("profileSize", PROFILE_SIZE);
+        JsonObject scripts = new JsonObject();
+        for (String[] script : SCRIPTS) {
+            scripts.addProperty(script[0], script[1]);
+        }
+        model.add("scripts", scripts);
+
+        JsonObject profiles = new JsonObject();
+        for (String language : LANGUAGES) {
+            String text = Files.readString(corpus.resolve(language + ".txt"));
+            Map<Long, int[]> counts = new HashMap<>();
+            LanguageDetector.countTrigrams(text, Integer.MAX_VALUE, counts,
+                    new EnumMap<>(Character.UnicodeScript.class));
+            List<Map.Entry<Long, int[]>> ranked = new ArrayList<>(counts.entrySet());
+            ranked.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                    ? Integer.compare(b.getValue()[0], a.getValue()[0])
+                    : Long.compare(a.getKey(), b.getKey()));
+            JsonArray grams = new JsonArray();
+            for (int rank = 0; rank < Math.min(PROFILE_SIZE, ranked.size()); rank++) {
+                long gram = ranked.get(rank).getKey();
+                grams.add("" + (char) (gram >>> 32) + (char) (gram >>> 16) + (char) gram);
+            }
+            profiles.add(language, grams);
+        }
+        model.add("profiles", profiles);
+        return model;
+    }
+
+    // One line per profile, so a rebuild diffs by language
+    private static String format(JsonObject model) {
+        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        StringBuilder out = new StringBuilder("{\n");
+        out.append("  \"profileSize\": ").append(model.get("profileSize")).append(",\n");
+        out.append("  \"scripts\": ").append(gson.toJson(model.get("scripts"))).append(",\n");
+        out.append("  \"profiles\": {\n");
+        JsonObject profiles = model.getAsJsonObject("profiles");
+        for (int l = 0; l < LANGUAGES.length; l++) {
+            out.append("    \"").append(LANGUAGES[l]).append("\": ").append(gson.toJson(profiles.get(LANGUAGES[l])))
+                    .append(l + 1 < LANGUAGES.length ? ",\n" : "\n");
+        }
+        return out.append("  }\n}\n").toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.career.skillgapanalyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostingListTest {
+
+    private static final int CHUNK = 1 << 16;
+    private static final int ARRAY_MAX = 4096;
+
+    @Test
+    void keepsItsIdsAcrossTheArrayToBitmapSwitch() {
+        for (int size : new int[] { ARRAY_MAX - 1, ARRAY_MAX, ARRAY_MAX + 1, 2 * ARRAY_MAX }) {
+            BitSet expected = new BitSet();
+            for (int i = 0; i < size; i++) {
+                expected.set(3 * i);
+            }
+            PostingList list = of(expected);
+            assertEquals(size, list.cardinality());
+            assertArrayEquals(ascending(expected), ids(list));
+        }
+    }
+
+    @Test
+    void addingTheLastIdAgainDoesNothing() {
+        PostingList list = new PostingList();
+        for (int id = 0; id <= ARRAY_MAX; id++) {
+            list.add(id);
+            list.add(id);
+        }
+        assertEquals(ARRAY_MAX + 1, list.cardinality());
+        list.add(ARRAY_MAX);
+        assertEquals(ARRAY_MAX + 1, list.cardinality());
+    }
+
+    @Test
+    void rejectsIdsOutOfOrder() {
+        PostingList list = new PostingList();
+        list.add(CHUNK + 5);
+        assertThrows(IllegalArgumentException.class, () -> list.add(CHUNK + 4));
+        assertThrows(IllegalArgumentException.class, () -> list.add(5));
+    }
+
+    @Test
+    void keepsIdsOnBothSidesOfAChunkBoundary() {
+        int[] ids = { 0, CHUNK - 2, CHUNK - 1, CHUNK, CHUNK + 1, 2 * CHUNK - 1, 2 * CHUNK, 5 * CHUNK + 7 };
+        BitSet expected = new BitSet();
+        PostingList list = new PostingList();
+        for (int id : ids) {
+            list.add(id);
+            expected.set(id);
+        }
+        assertEquals(ids.length, list.cardinality());
+        assertArrayEquals(ids, ids(list));
+        assertArrayEquals(new int[] { 5 * CHUNK + 7, 2 * CHUNK, 2 * CHUNK - 1 }, list.last(3));
+        assertArrayEquals(ascending(expected), ids(list.or(new PostingList())));
+    }
+
+    @Test
+    void rangeCoversEveryIdBelowTheCount() {
+        for (int count : new int[] { 0, 1, ARRAY_MAX, ARRAY_MAX + 1, CHUNK - 1, CHUNK, CHUNK + 1, 2 * CHUNK + 100 }) {
+            BitSet expected = new BitSet();
+            expected.set(0, count);
+            PostingList range = PostingList.range(count);
+            assertEquals(count, range.cardinality());
+            assertArrayEquals(ascending(expected), ids(range));
+        }
+    }
+
+    @Test
+    void setOperationsMatchABitSetForEveryContainerPair() {
+        // Per chunk: empty, sparse (array) or dense (bitmap); in chunk 3 the union of two arrays needs a bitmap
+        double[][] densities = {
+                { 0.01, 0.5, 0, 0.055, 0.3, 0.5 },
+                { 0.5, 0.01, 0.02, 0.055, 0, 0.4 },
+        };
+        Random random = new Random(42);
+        BitSet a = random(random, densities[0]);
+        BitSet b = random(random, densities[1]);
+        PostingList x = of(a);
+        PostingList y = of(b);
+
+        BitSet and = (BitSet) a.clone();
+        and.and(b);
+        BitSet andNot = (BitSet) a.clone();
+        andNot.andNot(b);
+        BitSet or = (BitSet) a.clone();
+        or.or(b);
+        assertArrayEquals(ascending(and), ids(x.and(y)));
+        assertArrayEquals(ascending(and), ids(y.and(x)));
+        assertArrayEquals(ascending(andNot), ids(x.andNot(y)));
+        assertArrayEquals(ascending(or), ids(x.or(y)));
+        assertArrayEquals(ascending(or), ids(y.or(x)));
+        assertEquals(and.cardinality(), x.and(y).cardinality());
+        assertEquals(or.cardinality(), x.or(y).cardinality());
+    }
+
+    @Test
+    void resultsSwitchContainersAtTheThreshold() {
+        // Two arrays whose union is too big for an array, two bitmaps whose intersection is small
+        BitSet even = new BitSet();
+        BitSet odd = new BitSet();
+        for (int i = 0; i < 3000; i++) {
+            even.set(2 * i);
+            odd.set(2 * i + 1);
+        }
+        PostingList union = of(even).or(of(odd));
+        assertEquals(6000, union.cardinality());
+        BitSet all = (BitSet) even.clone();
+        all.or(odd);
+        assertArrayEquals(ascending(all), ids(union));
+
+        PostingList low = PostingList.range(ARRAY_MAX + 10);
+        PostingList high = of(range(10, 2 * ARRAY_MAX));
+        assertArrayEquals(ascending(range(10, ARRAY_MAX + 10)), ids(low.and(high)));
+        assertArrayEquals(ascending(range(0, 10)), ids(low.andNot(high)));
+        assertTrue(low.andNot(low).isEmpty());
+        assertTrue(low.and(of(range(CHUNK, CHUNK + 5))).isEmpty());
+    }
+
+    @Test
+    void resultsShareNothingWithTheirInputs() {
+        PostingList list = of(range(0, 10));
+        PostingList copy = list.or(new PostingList());
+        copy.add(20);
+        assertEquals(10, list.cardinality());
+        assertEquals(11, copy.cardinality());
+    }
+
+    @Test
+    void filterKeepsWhatThePredicateAccepts() {
+        PostingList all = PostingList.range(2 * CHUNK + 100);
+        BitSet expected = new BitSet();
+        for (int id = 0; id < 2 * CHUNK + 100; id++) {
+            if (id % 7 == 0 || (id >= CHUNK && id < CHUNK + ARRAY_MAX + 1))
+                expected.set(id);
+        }
+        PostingList kept = all.filter(expected::get);
+        assertEquals(expected.cardinality(), kept.cardinality());
+        assertArrayEquals(ascending(expected), ids(kept));
+        assertTrue(all.filter(id -> false).isEmpty());
+    }
+
+    @Test
+    void lastReturnsTheLargestIdsFirst() {
+        PostingList list = of(range(CHUNK - ARRAY_MAX - 10, CHUNK + 3));
+        assertArrayEquals(new int[] { CHUNK + 2, CHUNK + 1, CHUNK, CHUNK - 1, CHUNK - 2 }, list.last(5));
+        assertEquals(ARRAY_MAX + 13, list.last(Integer.MAX_VALUE).length);
+        assertEquals(0, new PostingList().last(10).length);
+    }
+
+    private static BitSet random(Random random, double[] densities) {
+        BitSet ids = new BitSet();
+        for (int chunk = 0; chunk < densities.length; chunk++) {
+            for (int low = 0; low < CHUNK; low++) {
+                if (random.nextDouble() < densities[chunk])
+                    ids.set(chunk * CHUNK + low);
+            }
+        }
+        return ids;
+    }
+
+    private static BitSet range(int from, int to) {
+        BitSet ids = new BitSet();
+        ids.set(from, to);
+        return ids;
+    }
+
+    private static PostingList of(BitSet ids) {
+        PostingList list = new PostingList();
+        ids.stream().forEach(list::add);
+        return list;
+    }
+
+    private static int[] ascending(BitSet ids) {
+        return ids.stream().toArray();
+    }
+
+    private static int[] ids(PostingList list) {
+        int[] descending = list.last(Integer.MAX_VALUE);
+        int[] ids = new int[descending.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = descending[descending.length - 1 - i];
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,81 @@
+package com.career.skillgapanalyser.service;
+
+import com.career.skillgapanalyser.dto.AssessmentResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionBankTest {
+
+    @Test
+    void aUserIsNotServedTheSameQuestionTwiceButOthersAre() {
+        QuestionBank bank = new QuestionBank(100, 10, 100);
+        QuestionBank.Shelf shelf = shelf(bank, 6);
+
+        Set<String> first = ids(bank.take("alice", shelf, 4));
+        Set<String> second = ids(bank.take("alice", shelf, 4));
+        assertEquals(4, first.size());
+        assertEquals(2, second.size());
+        second.retainAll(first);
+        assertTrue(second.isEmpty());
+        assertEquals(0, bank.take("alice", shelf, 4).size());
+
+        assertEquals(4, bank.take("bob", shelf, 4).size());
+    }
+
+    @Test
+    void anonymousCallersHaveNoHistory() {
+        QuestionBank bank = new QuestionBank(100, 10, 100);
+        QuestionBank.Shelf shelf = shelf(bank, 4);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(4, bank.take(null, shelf, 4).size());
+        }
+        assertEquals(4, bank.take("alice", shelf, 4).size());
+    }
+
+    @Test
+    void aUsersHistoryKeepsOnlyTheMostRecentQuestions() {
+        QuestionBank bank = new QuestionBank(100, 10, 3);
+        QuestionBank.Shelf shelf = shelf(bank, 4);
+        assertEquals(4, bank.take("alice", shelf, 4).size());
+        // Only the last three are remembered, so one comes round again
+        assertEquals(1, bank.take("alice", shelf, 4).size());
+    }
+
+    @Test
+    void onlyTheMostRecentUsersAreRemembered() {
+        QuestionBank bank = new QuestionBank(100, 2, 100);
+        QuestionBank.Shelf shelf = shelf(bank, 2);
+        bank.take("alice", shelf, 2);
+        bank.take("bob", shelf, 2);
+        bank.take("carol", shelf, 2);
+        assertEquals(0, bank.take("carol", shelf, 2).size());
+        assertEquals(2, bank.take("alice", shelf, 2).size());
+    }
+
+    private static QuestionBank.Shelf shelf(QuestionBank bank, int questions) {
+        QuestionBank.Shelf shelf = bank.shelf("Java", "intermediate", "en");
+        for (int i = 0; i < questions; i++) {
+            AssessmentResponse.Question question = new AssessmentResponse.Question();
+            question.setType("MCQ");
+            question.setQuestion("Question " + i);
+            question.setOptions(List.of("A", "B", "C", "D"));
+            question.setCorrectAnswerIndex(0);
+            assertEquals(1, bank.add(shelf, List.of(question)));
+        }
+        return shelf;
+    }
+
+    private static Set<String> ids(List<AssessmentResponse.Question> questions) {
+        Set<String> ids = new HashSet<>();
+        for (AssessmentResponse.Question question : questions) {
+            ids.add(question.getId());
+        }
+        return ids;
+    }
+}
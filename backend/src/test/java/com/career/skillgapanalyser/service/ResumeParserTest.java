@@ -0,0 +1,106 @@
+package com.career.skillgapanalyser.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResumeParserTest {
+
+    private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private final ResumeParser parser = new ResumeParser(new AnalysisMetrics(new SimpleMeterRegistry()), 15000,
+            1024 * 1024, 100);
+
+    @Test
+    void runsTabsAndBreaksBecomeText() throws IOException {
+        byte[] docx = docx("<w:p>"
+                // The tab stop definition in the paragraph properties is not a tab character
+                + "<w:pPr><w:tabs><w:tab w:val=\"left\" w:pos=\"720\"/></w:tabs></w:pPr>"
+                + "<w:r><w:rPr><w:b/></w:rPr><w:t>Skills:</w:t></w:r>"
+                + "<w:r><w:tab/><w:t xml:space=\"preserve\">Java, </w:t></w:r>"
+                + "<w:r><w:t>Spring Boot</w:t><w:br/><w:t>Docker &amp; Kubernetes</w:t></w:r>"
+                + "</w:p>"
+                + "<w:p><w:r><w:t><![CDATA[CI/CD <GitHub Actions>]]></w:t></w:r></w:p>"
+                + "<w:p/>");
+
+        assertEquals("Skills:\tJava, Spring Boot\nDocker & Kubernetes\nCI/CD <GitHub Actions>\n\n",
+                parser.extractText("resume.docx", docx, 15000));
+    }
+
+    @Test
+    void tableCellsAreReadRowByRow() throws IOException {
+        byte[] docx = docx("<w:p><w:r><w:t>Experience</w:t></w:r></w:p>"
+                + "<w:tbl><w:tblPr><w:tblW w:w=\"0\" w:type=\"auto\"/></w:tblPr>"
+                + "<w:tr><w:tc><w:p><w:r><w:t>2021-2024</w:t></w:r></w:p></w:tc>"
+                + "<w:tc><w:p><w:r><w:t>Backend Engineer</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t>Go, PostgreSQL</w:t></w:r></w:p></w:tc></w:tr>"
+                + "<w:tr><w:tc><w:p><w:r><w:t>2019-2021</w:t></w:r></w:p></w:tc>"
+                + "<w:tc><w:p><w:r><w:t>QA Engineer</w:t></w:r></w:p></w:tc></w:tr>"
+                + "</w:tbl>");
+
+        assertEquals("Experience\n2021-2024\nBackend Engineer\nGo, PostgreSQL\n2019-2021\nQA Engineer\n",
+                parser.extractText("resume.docx", docx, 15000));
+    }
+
+    @Test
+    void readingStopsWhereTheBudgetRunsOutMidParagraph() throws IOException {
+        // The broken markup after the first paragraph is only reached if the reader keeps going
+        byte[] docx = docx("<w:p><w:r><w:t>Java </w:t></w:r><w:r><w:t>Kotlin Scala</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t>never read</w:t></w:r></w:p><w:p", false);
+
+        assertEquals("Java Kot", parser.extractText("resume.docx", docx, 8));
+        assertEquals("Java ", parser.extractText("resume.docx", docx, 5));
+        assertThrows(IOException.class, () -> parser.extractText("resume.docx", docx, 15000));
+    }
+
+    @Test
+    void aHighlyCompressedPartIsRejected() {
+        // Whitespace between elements yields no text, so the character budget never stops the read
+        byte[] docx = docx("<w:p><w:r><w:t>Java</w:t></w:r></w:p>" + " ".repeat(4 * 1024 * 1024)
+                + "<w:p><w:r><w:t>Docker</w:t></w:r></w:p>");
+        assertTrue(docx.length < 64 * 1024);
+
+        IOException e = assertThrows(IOException.class, () -> parser.extractText("resume.docx", docx, 15000));
+        assertTrue(e.getMessage().contains("zip bomb"), e.getMessage());
+    }
+
+    @Test
+    void aDocxWithoutAMainPartHasNoText() throws IOException {
+        assertEquals("", parser.extractText("resume.docx", zip("word/styles.xml", "<w:styles/>"), 15000));
+    }
+
+    private static byte[] docx(String body) {
+        return docx(body, true);
+    }
+
+    private static byte[] docx(String body, boolean close) {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<w:document xmlns:w=\"" + WORD_NS + "\"><w:body>" + body
+                + (close ? "</w:body></w:document>" : "");
+        return zip("word/document.xml", xml);
+    }
+
+    // Content types first, as Word writes them, so the main part is not the first entry
+    private static byte[] zip(String name, String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            zip.write("<Types/>".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,137 @@
+package com.career.skillgapanalyser.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RoleIndexTest {
+
+    private static final String CATALOG = """
+            {
+              "skills": [
+                { "name": "Java", "type": "technical", "keywords": ["java"] },
+                { "name": "Docker", "type": "technical", "keywords": ["docker"] },
+                { "name": "React", "type": "technical", "keywords": ["react"] },
+                { "name": "Java", "type": "technical", "keywords": ["jvm"] },
+                { "name": "Communication", "type": "soft", "keywords": ["communication"] }
+              ],
+              "roles": {
+                "backend": { "tech": ["Java", "Docker", "Kafka"], "soft": ["Communication"], "prof": [],
+                             "aliases": ["Server Side Developer", "API Engineer"] },
+                "frontend": { "tech": ["React"], "soft": ["Communication"], "prof": [],
+                              "aliases": ["UI Developer"] },
+                "data-engineer": { "tech": ["Java"], "soft": [], "prof": ["Data Modelling"], "aliases": [] },
+                "data-scientist": { "tech": [], "soft": [], "prof": [], "aliases": ["ML"] },
+                "qa": { "tech": ["Java"], "soft": [], "prof": [], "aliases": ["Tester"] }
+              }
+            }
+            """;
+
+    private final RoleIndex index = index(CATALOG);
+
+    @Test
+    void findsRolesByNormalizedKey() {
+        assertEquals("backend", index.find("backend").getName());
+        assertEquals("backend", index.find("Back-End").getName());
+        assertEquals("backend", index.find(" BACK END ").getName());
+        assertEquals("data-engineer", index.find("Data Engineer").getName());
+        assertEquals("qa", index.find("QA").getName());
+    }
+
+    @Test
+    void findsRolesByAlias() {
+        assertEquals("backend", index.find("server-side developer").getName());
+        assertEquals("backend", index.find("API Engineer").getName());
+        assertEquals("frontend", index.find("ui developer").getName());
+        assertEquals("data-scientist", index.find("ml").getName());
+        assertEquals("qa", index.find("Tester").getName());
+    }
+
+    @Test
+    void fallsBackToTheFirstNameContainingOrContainedInTheInput() {
+        // The input contains a name
+        assertEquals("backend", index.find("Senior Backend Developer").getName());
+        assertEquals("frontend", index.find("Lead UI Developer (React)").getName());
+        // A name contains the input; keys in catalog order come before aliases
+        assertEquals("frontend", index.find("fronten").getName());
+        assertEquals("data-engineer", index.find("data").getName());
+        assertEquals("backend", index.find("side dev").getName());
+        // Inputs and names too short for a trigram
+        assertEquals("backend", index.find("b").getName());
+        assertEquals("data-scientist", index.find("ML Ops").getName());
+        assertEquals("qa", index.find("Manual QA").getName());
+    }
+
+    @Test
+    void unknownRolesAreNotFound() {
+        assertNull(index.find(null));
+        assertNull(index.find("Product Manager"));
+        assertNull(index.find("zz"));
+    }
+
+    @Test
+    void everyKeyAndAliasOfALargeCatalogResolves() {
+        StringBuilder json = new StringBuilder("{ \"skills\": [], \"roles\": {");
+        for (int r = 0; r < 500; r++) {
+            json.append(r == 0 ? "" : ",").append("\"role-").append(r).append("\": { \"aliases\": [\"Alias ")
+                    .append(r).append("\"] }");
+        }
+        RoleIndex large = index(json.append("} }").toString());
+        assertEquals(500, large.getRoleCount());
+        for (int r = 0; r < 500; r++) {
+            assertEquals("role-" + r, large.find("role " + r).getName());
+            assertEquals("role-" + r, large.find("alias-" + r).getName());
+        }
+        // Contains role5, role50 and alias5; the first of them in catalog order wins
+        assertEquals("role-5", large.find("role 500 / alias 5").getName());
+        assertNull(large.find("manager"));
+    }
+
+    @Test
+    void internsSkillNamesOnce() {
+        assertEquals(6, index.getSkillCount()); // five catalog names, one repeated, plus Kafka and Data Modelling
+        int java = index.skillIdOf(0);
+        assertEquals(java, index.skillIdOf(3));
+        assertEquals(0, index.catalogIndexOf(java));
+        assertEquals("Java", index.getSkillName(java));
+
+        RoleIndex.CompiledRole backend = index.find("backend");
+        assertEquals(4, backend.getRequiredCount());
+        assertEquals("Kafka", index.getSkillName(backend.getTech()[2]));
+        assertEquals(-1, index.catalogIndexOf(backend.getTech()[2]));
+        assertEquals(List.of("Server Side Developer", "API Engineer"), backend.getDefinition().aliases);
+    }
+
+    @Test
+    void countsFoundSkillsFromTheStoredBitsets() {
+        BitSet found = new BitSet();
+        found.set(index.skillIdOf(0)); // Java
+        found.set(index.skillIdOf(4)); // Communication
+        RoleIndex.CompiledRole backend = index.find("backend");
+        assertEquals(2, backend.countFound(found));
+        assertEquals(2, index.countFound(0, found.toLongArray()));
+        assertEquals(2, backend.missing(found).cardinality());
+
+        SkillExtractor.SkillData.RoleDef adHoc = new SkillExtractor.SkillData.RoleDef();
+        adHoc.tech = List.of("Java", "Rust");
+        RoleIndex.CompiledRole compiled = index.compiled(adHoc);
+        assertNotNull(compiled);
+        assertEquals(-1, compiled.getTech()[1]);
+        assertEquals(1, compiled.countFound(found));
+    }
+
+    private static RoleIndex index(String json) {
+        try {
+            return RoleIndex.read(CatalogFile.read(CatalogCompiler.compile(json.getBytes(StandardCharsets.UTF_8))));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.career.skillgapanalyser.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SemanticSkillIndexTest {
+
+    private static final String CATALOG = """
+            {
+              "skills": [
+                { "name": "Docker", "type": "technical", "keywords": ["docker"], "context": ["containerized apps"] },
+                { "name": "Leadership", "type": "soft", "keywords": ["leadership"], "context": ["led a team"] }
+              ],
+              "roles": {}
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void theFileNameAndHeaderCarryTheEmbeddingFormat() throws IOException {
+        CatalogFile catalog = catalog();
+        SemanticSkillIndex index = SemanticSkillIndex.build(catalog, dir, "v1");
+        Path file = dir.resolve("skill-vectors-v1-e" + SemanticSkillIndex.EMBEDDING_FORMAT + ".bin");
+        assertTrue(Files.exists(file));
+        assertEquals(SemanticSkillIndex.EMBEDDING_FORMAT, header(file).getInt(4));
+        assertEquals(6, index.getRowCount()); // name, keyword and context phrase of each skill
+        assertMatches(index);
+    }
+
+    @Test
+    void aFileOfAnotherEmbeddingFormatIsRewritten() throws IOException {
+        CatalogFile catalog = catalog();
+        SemanticSkillIndex.build(catalog, dir, "v1");
+        Path file = dir.resolve("skill-vectors-v1-e" + SemanticSkillIndex.EMBEDDING_FORMAT + ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(0, SemanticSkillIndex.EMBEDDING_FORMAT + 1), 4);
+        }
+
+        SemanticSkillIndex index = SemanticSkillIndex.build(catalog, dir, "v1");
+        assertEquals(SemanticSkillIndex.EMBEDDING_FORMAT, header(file).getInt(4));
+        assertMatches(index);
+    }
+
+    @Test
+    void aTruncatedFileIsRewritten() throws IOException {
+        CatalogFile catalog = catalog();
+        SemanticSkillIndex.build(catalog, dir, "v1");
+        Path file = dir.resolve("skill-vectors-v1-e" + SemanticSkillIndex.EMBEDDING_FORMAT + ".bin");
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 64);
+        }
+
+        SemanticSkillIndex index = SemanticSkillIndex.build(catalog, dir, "v1");
+        assertEquals(size, Files.size(file));
+        assertMatches(index);
+    }
+
+    private static void assertMatches(SemanticSkillIndex index) {
+        float[] best = index.match("Containerized apps with Docker", new SemanticSkillIndex.Scratch());
+        assertTrue(best[0] > 0.99f);
+        assertTrue(best[1] < best[0]);
+    }
+
+    private static ByteBuffer header(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        return ByteBuffer.wrap(bytes, 0, 20).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static CatalogFile catalog() throws IOException {
+        return CatalogFile.read(CatalogCompiler.compile(CATALOG.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.career.skillgapanalyser.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TranslationMemoryTest {
+
+    @TempDir
+    Path dir;
+
+    private TranslationMemory memory;
+
+    @AfterEach
+    void close() throws IOException {
+        if (memory != null)
+            memory.shutdown();
+    }
+
+    @Test
+    void reopeningReplaysTheLog() throws IOException {
+        memory = open(10);
+        memory.putAll("de", List.of("Strong Java skills", "Learn Docker"),
+                List.of("Gute Java-Kenntnisse", "Docker lernen"));
+        memory.putAll("fr", List.of("Learn Docker"), List.of("Apprendre Docker"));
+
+        reopen(10);
+        assertEquals(3, memory.size());
+        assertEquals("Gute Java-Kenntnisse", memory.get("de", "Strong Java skills"));
+        assertEquals("Docker lernen", memory.get("DE", "Learn Docker"));
+        assertEquals("Apprendre Docker", memory.get("fr", "Learn Docker"));
+        assertNull(memory.get("es", "Learn Docker"));
+    }
+
+    @Test
+    void replaySkipsATornLastLine() throws IOException {
+        memory = open(10);
+        memory.putAll("de", List.of("one", "two"), List.of("eins", "zwei"));
+        memory.shutdown();
+        Files.writeString(log(), "{\"k\":\"abc\",\"v\":\"dr", StandardOpenOption.APPEND);
+
+        memory = open(10);
+        assertEquals(2, memory.size());
+        memory.putAll("de", List.of("three"), List.of("drei"));
+
+        reopen(10);
+        assertEquals(3, memory.size());
+        assertEquals("zwei", memory.get("de", "two"));
+        assertEquals("drei", memory.get("de", "three"));
+    }
+
+    @Test
+    void compactionRewritesTheLogAndKeepsAppending() throws IOException {
+        memory = open(2);
+        memory.putAll("de", List.of("one", "two"), List.of("eins", "zwei"));
+        memory.putAll("de", List.of("one", "two"), List.of("eins!", "zwei!"));
+        assertEquals(4, lines());
+
+        memory.putAll("de", List.of("three"), List.of("drei"));
+        assertEquals(2, lines());
+
+        memory.putAll("de", List.of("four"), List.of("vier"));
+        assertEquals(3, lines());
+
+        reopen(2);
+        assertEquals(2, memory.size());
+        assertEquals("drei", memory.get("de", "three"));
+        assertEquals("vier", memory.get("de", "four"));
+        assertNull(memory.get("de", "two"));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAndTheOrderSurvivesCompaction() throws IOException {
+        memory = open(2);
+        memory.putAll("de", List.of("one", "two"), List.of("eins", "zwei"));
+        assertEquals("eins", memory.get("de", "one"));
+        memory.putAll("de", List.of("three"), List.of("drei"));
+        assertNull(memory.get("de", "two"));
+        assertEquals("eins", memory.get("de", "one"));
+
+        // Two more writes push the log past twice the capacity; "three" is then the eldest entry
+        memory.putAll("de", List.of("one", "one"), List.of("eins", "eins"));
+        assertEquals(2, lines());
+
+        reopen(2);
+        memory.putAll("de", List.of("four"), List.of("vier"));
+        assertNull(memory.get("de", "three"));
+        assertEquals("eins", memory.get("de", "one"));
+        assertEquals("vier", memory.get("de", "four"));
+    }
+
+    private TranslationMemory open(int maxEntries) {
+        return new TranslationMemory(maxEntries, true, dir.toString());
+    }
+
+    private void reopen(int maxEntries) throws IOException {
+        memory.shutdown();
+        memory = open(maxEntries);
+    }
+
+    private Path log() {
+        return dir.resolve("translations.jsonl");
+    }
+
+    private long lines() throws IOException {
+        try (var stream = Files.lines(log())) {
+            return stream.count();
+        }
+    }
+}
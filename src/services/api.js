@@ -16,6 +16,16 @@ export const api = {
     // Helper to get Current Language
     getLanguage: () => localStorage.getItem('app_language') || 'en',
 
+    // Helper to get this browser's client id, so the backend does not repeat questions it already served here
+    getClientId: () => {
+        let clientId = localStorage.getItem('client_id');
+        if (!clientId) {
+            clientId = crypto.randomUUID();
+            localStorage.setItem('client_id', clientId);
+        }
+        return clientId;
+    },
+
     // Helper to read file text (Frontend Only)
     readFileAsText: (file) => {
         return new Promise((resolve, reject) => {
@@ -76,7 +86,7 @@ export const api = {
             const response = await fetch('http://localhost:8084/api/assessment/generate', {
                 method: 'POST',
                 headers: headers,
-                body: JSON.stringify({ skills: skillNames, role: role })
+                body: JSON.stringify({ skills: skillNames, role: role, userId: api.getClientId() })
             });
 
             if (!response.ok) {